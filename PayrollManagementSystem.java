@@ -1,15 +1,37 @@
+import cli.BatchCli;
+import dao.Repositories;
+import dao.SalaryAuditWriter;
+import service.PayrollRunResult;
+import service.EmployeeImportResult;
 import service.PayrollService;
+import service.PayslipExportResult;
+import service.SimulationResult;
+import service.WorkforceSnapshot;
 import model.Employee;
 import model.Payslip;
+import model.PayslipSummary;
+import model.PayrollRegister;
+import model.PayrollTotals;
+import model.YearToDate;
+import util.BoundedCache;
+import util.DaoMetrics;
+import util.DBConnection;
+import util.Money;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.TreeMap;
 
 public class PayrollManagementSystem {
     
+    private static final int PAGE_SIZE = 20;
+    
     private PayrollService payrollService;
     private Scanner scanner;
     
@@ -32,7 +54,14 @@ public class PayrollManagementSystem {
         System.out.println("7. View Payslip");
         System.out.println("8. View Employee Payslips");
         System.out.println("9. View Payslips by Month");
-        System.out.println("10. Exit");
+        System.out.println("10. Run Monthly Payroll (All Employees)");
+        System.out.println("11. What-if Salary Simulation");
+        System.out.println("12. View Database Metrics");
+        System.out.println("13. Export Payslips by Month");
+        System.out.println("14. Import Employees from CSV");
+        System.out.println("15. Department Payroll Dashboard");
+        System.out.println("16. Year-to-Date Statement");
+        System.out.println("0. Exit");
         System.out.println("==============================================");
         System.out.print("Enter your choice: ");
     }
@@ -68,13 +97,13 @@ public class PayrollManagementSystem {
             String joinDate = scanner.nextLine().trim();
             
             System.out.print("Enter Base Salary: ");
-            double baseSalary = getPositiveDouble();
+            long baseSalary = getAmount();
             
             System.out.print("Enter HRA: ");
-            double hra = getPositiveDouble();
+            long hra = getAmount();
             
             System.out.print("Enter Allowance: ");
-            double allowance = getPositiveDouble();
+            long allowance = getAmount();
             
             Employee employee = new Employee(0, name, email, department, designation, joinDate, baseSalary, hra, allowance);
             
@@ -108,9 +137,9 @@ public class PayrollManagementSystem {
                 System.out.println("Department: " + employee.getDepartment());
                 System.out.println("Designation: " + employee.getDesignation());
                 System.out.println("Join Date: " + employee.getJoinDate());
-                System.out.println("Base Salary: ₹ " + String.format("%.2f", employee.getBaseSalary()));
-                System.out.println("HRA: ₹ " + String.format("%.2f", employee.getHra()));
-                System.out.println("Allowance: ₹ " + String.format("%.2f", employee.getAllowance()));
+                System.out.println("Base Salary: ₹ " + Money.format(employee.getBaseSalaryPaise()));
+                System.out.println("HRA: ₹ " + Money.format(employee.getHraPaise()));
+                System.out.println("Allowance: ₹ " + Money.format(employee.getAllowancePaise()));
             } else {
                 System.out.println("✗ Employee not found");
             }
@@ -138,18 +167,18 @@ public class PayrollManagementSystem {
             }
             
             System.out.println("\nCurrent Salary Details:");
-            System.out.println("Base Salary: ₹ " + String.format("%.2f", employee.getBaseSalary()));
-            System.out.println("HRA: ₹ " + String.format("%.2f", employee.getHra()));
-            System.out.println("Allowance: ₹ " + String.format("%.2f", employee.getAllowance()));
+            System.out.println("Base Salary: ₹ " + Money.format(employee.getBaseSalaryPaise()));
+            System.out.println("HRA: ₹ " + Money.format(employee.getHraPaise()));
+            System.out.println("Allowance: ₹ " + Money.format(employee.getAllowancePaise()));
             
             System.out.print("\nEnter New Base Salary: ");
-            double baseSalary = getPositiveDouble();
+            long baseSalary = getAmount();
             
             System.out.print("Enter New HRA: ");
-            double hra = getPositiveDouble();
+            long hra = getAmount();
             
             System.out.print("Enter New Allowance: ");
-            double allowance = getPositiveDouble();
+            long allowance = getAmount();
             
             if (payrollService.updateEmployeeSalary(empId, baseSalary, hra, allowance)) {
                 System.out.println("✓ Salary updated successfully!");
@@ -192,12 +221,12 @@ public class PayrollManagementSystem {
     }
 
     /**
-     * View all employees
+     * View all employees, one page at a time
      */
     private void viewAllEmployees() {
         try {
             System.out.println("\n--- All Employees ---");
-            List<Employee> employees = payrollService.getAllEmployees();
+            List<Employee> employees = payrollService.getEmployeesPage(0, PAGE_SIZE);
             
             if (employees.isEmpty()) {
                 System.out.println("No employees found");
@@ -207,13 +236,28 @@ public class PayrollManagementSystem {
             System.out.printf("%-5s %-20s %-20s %-15s %-15s %n", "ID", "Name", "Email", "Department", "Designation");
             System.out.println("========================================================================================");
             
-            for (Employee emp : employees) {
-                System.out.printf("%-5d %-20s %-20s %-15s %-15s %n", 
-                    emp.getEmpId(), 
-                    emp.getName().substring(0, Math.min(20, emp.getName().length())),
-                    emp.getEmail().substring(0, Math.min(20, emp.getEmail().length())),
-                    emp.getDepartment(),
-                    emp.getDesignation());
+            while (true) {
+                for (Employee emp : employees) {
+                    System.out.printf("%-5d %-20s %-20s %-15s %-15s %n", 
+                        emp.getEmpId(), 
+                        emp.getName().substring(0, Math.min(20, emp.getName().length())),
+                        emp.getEmail().substring(0, Math.min(20, emp.getEmail().length())),
+                        emp.getDepartment(),
+                        emp.getDesignation());
+                }
+                if (employees.size() < PAGE_SIZE) {
+                    break;
+                }
+                
+                System.out.print("-- Press Enter for more, or q to stop: ");
+                if ("q".equalsIgnoreCase(scanner.nextLine().trim())) {
+                    break;
+                }
+                int lastEmpId = employees.get(employees.size() - 1).getEmpId();
+                employees = payrollService.getEmployeesPage(lastEmpId, PAGE_SIZE);
+                if (employees.isEmpty()) {
+                    break;
+                }
             }
         } catch (SQLException e) {
             System.out.println("✗ Database Error: " + e.getMessage());
@@ -284,21 +328,36 @@ public class PayrollManagementSystem {
             System.out.print("Enter Employee ID: ");
             int empId = getPositiveInt();
             
-            List<Payslip> payslips = payrollService.getEmployeePayslips(empId);
+            List<PayslipSummary> payslips = payrollService.getEmployeePayslipSummaries(empId, 0, 0, PAGE_SIZE);
             
             if (payslips.isEmpty()) {
                 System.out.println("No payslips found for this employee");
                 return;
             }
             
-            System.out.println("\nPayslips for Employee " + empId + ":");
+            System.out.println("\nPayslips for Employee " + empId + " (newest first):");
             System.out.printf("%-10s %-8s %-8s %-12s %-12s %-12s %n", "Payslip ID", "Month", "Year", "Gross", "Deductions", "Net");
             System.out.println("===============================================================");
             
-            for (Payslip p : payslips) {
-                System.out.printf("%-10d %-8d %-8d ₹%-11.2f ₹%-11.2f ₹%-11.2f %n", 
-                    p.getPayslipId(), p.getMonth(), p.getYear(), p.getGrossSalary(), 
-                    p.getTotalDeductions(), p.getNetSalary());
+            while (true) {
+                for (PayslipSummary p : payslips) {
+                    System.out.printf("%-10d %-8d %-8d ₹%-11.2f ₹%-11.2f ₹%-11.2f %n", 
+                        p.getPayslipId(), p.getMonth(), p.getYear(), Money.toDecimal(p.getGrossSalaryPaise()), 
+                        Money.toDecimal(p.getTotalDeductionsPaise()), Money.toDecimal(p.getNetSalaryPaise()));
+                }
+                if (payslips.size() < PAGE_SIZE) {
+                    break;
+                }
+                
+                System.out.print("-- Press Enter for older payslips, or q to stop: ");
+                if ("q".equalsIgnoreCase(scanner.nextLine().trim())) {
+                    break;
+                }
+                PayslipSummary oldest = payslips.get(payslips.size() - 1);
+                payslips = payrollService.getEmployeePayslipSummaries(empId, oldest.getYear(), oldest.getMonth(), PAGE_SIZE);
+                if (payslips.isEmpty()) {
+                    break;
+                }
             }
         } catch (SQLException e) {
             System.out.println("✗ Database Error: " + e.getMessage());
@@ -325,37 +384,342 @@ public class PayrollManagementSystem {
             System.out.print("Enter Year: ");
             int year = getPositiveInt();
             
-            List<Payslip> payslips = payrollService.getPayslipsByMonth(month, year);
+            PayrollRegister register = payrollService.getPayrollRegister(month, year);
+            PayrollTotals totals = register.getTotals();
             
-            if (payslips.isEmpty()) {
+            if (totals.getPayslipCount() == 0) {
                 System.out.println("No payslips found for this month");
                 return;
             }
             
-            System.out.println("\nPayslips for " + month + "/" + year + ":");
+            System.out.println("\nPayroll register for " + month + "/" + year + ":");
+            System.out.printf("%-20s %-8s %-14s %-14s %-14s %n", "Department", "Count", "Gross", "Deductions", "Net");
+            System.out.println("==========================================================================");
+            for (PayrollTotals dept : register.getDepartmentTotals()) {
+                System.out.printf("%-20s %-8d ₹%-13.2f ₹%-13.2f ₹%-13.2f %n", 
+                    dept.getDepartment(), dept.getPayslipCount(), Money.toDecimal(dept.getTotalGrossPaise()), 
+                    Money.toDecimal(dept.getTotalDeductionsPaise()), Money.toDecimal(dept.getTotalNetPaise()));
+            }
+            System.out.println("==========================================================================");
+            System.out.printf("%-20s %-8d ₹%-13.2f ₹%-13.2f ₹%-13.2f %n", "TOTAL", totals.getPayslipCount(), 
+                Money.toDecimal(totals.getTotalGrossPaise()), Money.toDecimal(totals.getTotalDeductionsPaise()), Money.toDecimal(totals.getTotalNetPaise()));
+            
+            System.out.print("\nShow individual payslips? (yes/no): ");
+            if (!"yes".equals(scanner.nextLine().trim().toLowerCase())) {
+                return;
+            }
+            
             System.out.printf("%-10s %-8s %-12s %-12s %-12s %n", "Payslip ID", "Emp ID", "Gross", "Deductions", "Net");
             System.out.println("====================================================");
+            payrollService.forEachPayslipSummaryInMonth(month, year, p -> 
+                System.out.printf("%-10d %-8d ₹%-11.2f ₹%-11.2f ₹%-11.2f %n", 
+                    p.getPayslipId(), p.getEmpId(), Money.toDecimal(p.getGrossSalaryPaise()), 
+                    Money.toDecimal(p.getTotalDeductionsPaise()), Money.toDecimal(p.getNetSalaryPaise())));
+        } catch (SQLException e) {
+            System.out.println("✗ Database Error: " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println("✗ Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Generate payslips for all active employees for a month
+     */
+    private void runMonthlyPayroll() {
+        try {
+            System.out.println("\n--- Run Monthly Payroll ---");
+            System.out.print("Enter Month (1-12): ");
+            int month = getPositiveInt();
+            if (month < 1 || month > 12) {
+                System.out.println("✗ Invalid month");
+                return;
+            }
             
-            double totalGross = 0, totalDeductions = 0, totalNet = 0;
+            System.out.print("Enter Year: ");
+            int year = getPositiveInt();
             
-            for (Payslip p : payslips) {
-                System.out.printf("%-10d %-8d ₹%-11.2f ₹%-11.2f ₹%-11.2f %n", 
-                    p.getPayslipId(), p.getEmpId(), p.getGrossSalary(), 
-                    p.getTotalDeductions(), p.getNetSalary());
-                totalGross += p.getGrossSalary();
-                totalDeductions += p.getTotalDeductions();
-                totalNet += p.getNetSalary();
+            System.out.print("Incremental (copy last month's payslip where pay is unchanged)? (y/n): ");
+            boolean incremental = scanner.nextLine().trim().equalsIgnoreCase("y");
+            
+            PayrollRunResult result = payrollService.generatePayrollForMonth(month, year, incremental);
+            
+            System.out.println("\nPayroll run for " + month + "/" + year + ":");
+            System.out.println("Employees scanned: " + result.getEmployeesScanned());
+            System.out.println("Payslips generated: " + result.getGenerated());
+            if (incremental) {
+                System.out.println("  copied from last month: " + result.getCloned());
+            }
+            System.out.println("Skipped (already paid): " + result.getSkipped());
+            System.out.println("Failed: " + result.getFailures().size());
+            System.out.printf("Elapsed: %d ms (%.1f payslips/sec)%n", result.getElapsedMillis(), result.getThroughputPerSecond());
+            
+            int shown = 0;
+            for (PayrollRunResult.Failure failure : result.getFailures()) {
+                if (shown++ == 20) {
+                    System.out.println("... and " + (result.getFailures().size() - 20) + " more");
+                    break;
+                }
+                System.out.println("✗ Employee " + failure.getEmpId() + ": " + failure.getReason());
             }
+        } catch (SQLException e) {
+            System.out.println("✗ Database Error: " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println("✗ Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Net pay per department and month for a year, from the department rollups
+     */
+    private void viewDepartmentDashboard() {
+        try {
+            System.out.println("\n--- Department Payroll Dashboard ---");
+            System.out.print("Enter Year: ");
+            int year = getPositiveInt();
             
-            System.out.println("====================================================");
-            System.out.printf("%-10s %-8s ₹%-11.2f ₹%-11.2f ₹%-11.2f %n", "TOTAL", "", totalGross, totalDeductions, totalNet);
+            System.out.print("Rebuild the year's rollups from payslips first? (y/n): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                int rows = payrollService.rebuildDepartmentRollups(year);
+                System.out.println("✓ Rebuilt " + rows + " department rollups");
+            }
+            
+            List<PayrollRegister> registers = payrollService.getPayrollRegistersForYear(year);
+            Map<String, long[]> netByDepartment = new TreeMap<>();
+            long[] monthTotals = new long[12];
+            for (PayrollRegister register : registers) {
+                int index = register.getMonth() - 1;
+                for (PayrollTotals dept : register.getDepartmentTotals()) {
+                    netByDepartment.computeIfAbsent(dept.getDepartment(), d -> new long[12])[index] += dept.getTotalNetPaise();
+                }
+                monthTotals[index] = register.getTotals().getTotalNetPaise();
+            }
+            
+            if (netByDepartment.isEmpty()) {
+                System.out.println("No payslips found for " + year);
+                return;
+            }
+            
+            System.out.println("\nNet pay by department for " + year + " (₹):");
+            StringBuilder header = new StringBuilder(String.format("%-16s", "Department"));
+            for (int month = 1; month <= 12; month++) {
+                header.append(String.format(" %11s", YearMonth.of(year, month).getMonth().toString().substring(0, 3)));
+            }
+            System.out.println(header.append(String.format(" %13s", "Year")));
+            System.out.println("=".repeat(header.length()));
+            for (Map.Entry<String, long[]> entry : netByDepartment.entrySet()) {
+                printDashboardRow(entry.getKey(), entry.getValue());
+            }
+            System.out.println("=".repeat(header.length()));
+            printDashboardRow("TOTAL", monthTotals);
+        } catch (SQLException e) {
+            System.out.println("✗ Database Error: " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println("✗ Error: " + e.getMessage());
+        }
+    }
+
+    private void printDashboardRow(String label, long[] netByMonth) {
+        StringBuilder row = new StringBuilder(String.format("%-16.16s", label));
+        long year = 0;
+        for (long net : netByMonth) {
+            row.append(String.format(" %11.0f", Money.toDecimal(net)));
+            year += net;
+        }
+        System.out.println(row.append(String.format(" %13.0f", Money.toDecimal(year))));
+    }
+
+    /**
+     * Year-to-date totals and projected annual tax of an employee for a financial year
+     */
+    private void viewYearToDate() {
+        try {
+            System.out.println("\n--- Year-to-Date Statement ---");
+            System.out.print("Enter Employee ID: ");
+            int empId = getPositiveInt();
+            
+            LocalDate today = LocalDate.now();
+            int currentYear = YearToDate.financialYearOf(today.getMonthValue(), today.getYear());
+            System.out.print("Enter Financial Year starting April of [" + currentYear + "]: ");
+            String input = scanner.nextLine().trim();
+            int financialYear = input.isEmpty() ? currentYear : Integer.parseInt(input);
+            
+            YearToDate ytd = payrollService.getYearToDate(empId, financialYear);
+            if (ytd.getPayslipCount() == 0) {
+                System.out.println("No payslips found for employee " + empId + " in FY " + financialYear + "-" + (financialYear + 1));
+                return;
+            }
+            
+            System.out.println("\nFY " + financialYear + "-" + (financialYear + 1) + " for Employee " + empId 
+                + " (" + ytd.getPayslipCount() + " payslips):");
+            System.out.println("Gross Salary: ₹ " + Money.format(ytd.getGrossSalaryPaise()));
+            System.out.println("Income Tax: ₹ " + Money.format(ytd.getIncomeTaxPaise()));
+            System.out.println("Provident Fund: ₹ " + Money.format(ytd.getProvidentFundPaise()));
+            System.out.println("Health Insurance: ₹ " + Money.format(ytd.getHealthInsurancePaise()));
+            System.out.println("Total Deductions: ₹ " + Money.format(ytd.getTotalDeductionsPaise()));
+            System.out.println("Net Salary: ₹ " + Money.format(ytd.getNetSalaryPaise()));
+            System.out.println("Projected Annual Income Tax: ₹ " 
+                + Money.format(payrollService.projectAnnualIncomeTax(empId, financialYear)));
+        } catch (SQLException e) {
+            System.out.println("✗ Database Error: " + e.getMessage());
+        } catch (NumberFormatException e) {
+            System.out.println("✗ Invalid year");
+        } catch (IllegalArgumentException e) {
+            System.out.println("✗ " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println("✗ Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Price a salary raise for a department without changing any data
+     */
+    private void simulateRaise() {
+        try {
+            System.out.println("\n--- What-if Salary Simulation ---");
+            System.out.print("Enter Department (leave blank for all): ");
+            String department = scanner.nextLine().trim();
+            
+            System.out.print("Enter Raise (%): ");
+            double raisePercent = getPositiveDouble();
+            
+            WorkforceSnapshot snapshot = payrollService.loadWorkforceSnapshot();
+            SimulationResult result = payrollService.simulateRaise(snapshot, department.isEmpty() ? null : department, raisePercent);
+            
+            if (result.getBaseline().getPayslipCount() == 0) {
+                System.out.println("✗ No active employees found" + (department.isEmpty() ? "" : " in " + department));
+                return;
+            }
+            
+            System.out.println("\n" + raisePercent + "% raise for " + (department.isEmpty() ? "all departments" : department) 
+                + " (" + result.getBaseline().getPayslipCount() + " employees, monthly):");
+            System.out.printf("%-18s %-16s %-16s %-16s %n", "", "Current", "After Raise", "Change");
+            System.out.println("===================================================================");
+            printSimulationRow("Gross", result.getBaseline().getTotalGrossPaise(), result.getScenario().getTotalGrossPaise());
+            printSimulationRow("Income Tax", result.getBaseline().getTotalIncomeTaxPaise(), result.getScenario().getTotalIncomeTaxPaise());
+            printSimulationRow("Provident Fund", result.getBaseline().getTotalProvidentFundPaise(), result.getScenario().getTotalProvidentFundPaise());
+            printSimulationRow("Total Deductions", result.getBaseline().getTotalDeductionsPaise(), result.getScenario().getTotalDeductionsPaise());
+            printSimulationRow("Net", result.getBaseline().getTotalNetPaise(), result.getScenario().getTotalNetPaise());
+            System.out.println("(" + snapshot.size() + " employees simulated in " + result.getElapsedMillis() + " ms; nothing was saved)");
+        } catch (SQLException e) {
+            System.out.println("✗ Database Error: " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println("✗ Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write a month's payslips to disk, concatenated or one file per employee
+     */
+    private void exportPayslips() {
+        try {
+            System.out.println("\n--- Export Payslips by Month ---");
+            System.out.print("Enter Month (1-12): ");
+            int month = getPositiveInt();
+            if (month < 1 || month > 12) {
+                System.out.println("✗ Invalid month");
+                return;
+            }
+            
+            System.out.print("Enter Year: ");
+            int year = getPositiveInt();
+            
+            System.out.print("One file per employee? (y/n): ");
+            boolean perEmployee = scanner.nextLine().trim().equalsIgnoreCase("y");
+            
+            String defaultTarget = perEmployee ? "payslips_" + year + "_" + month : "payslips_" + year + "_" + month + ".txt";
+            System.out.print("Enter " + (perEmployee ? "Directory" : "File") + " [" + defaultTarget + "]: ");
+            String target = scanner.nextLine().trim();
+            
+            PayslipExportResult result = payrollService.exportPayslips(month, year,
+                Paths.get(target.isEmpty() ? defaultTarget : target), perEmployee);
+            
+            if (result.getPayslips() == 0) {
+                System.out.println("✗ No payslips found for " + month + "/" + year);
+                return;
+            }
+            System.out.println("✓ Exported " + result.getPayslips() + " payslips (" + result.getFiles() + " file(s), "
+                + result.getBytes() + " bytes) to " + result.getTarget().toAbsolutePath());
+            System.out.printf("Elapsed: %d ms (%.1f payslips/sec)%n", result.getElapsedMillis(), result.getThroughputPerSecond());
         } catch (SQLException e) {
             System.out.println("✗ Database Error: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("✗ File Error: " + e.getMessage());
         } catch (Exception e) {
             System.out.println("✗ Error: " + e.getMessage());
         }
     }
 
+    /**
+     * Bulk-load employees from a CSV file
+     */
+    private void importEmployees() {
+        try {
+            System.out.println("\n--- Import Employees from CSV ---");
+            System.out.println("Header: name,email,department,designation,join_date,base_salary[,hra,allowance]");
+            System.out.print("Enter CSV File: ");
+            String csvFile = scanner.nextLine().trim();
+            if (csvFile.isEmpty()) {
+                System.out.println("Error: File cannot be empty");
+                return;
+            }
+            
+            System.out.print("Update employees whose email already exists? (y/n): ");
+            boolean upsert = scanner.nextLine().trim().equalsIgnoreCase("y");
+            
+            String defaultRejects = csvFile + ".rejects.csv";
+            System.out.print("Enter Reject File [" + defaultRejects + "]: ");
+            String rejectFile = scanner.nextLine().trim();
+            
+            EmployeeImportResult result = payrollService.importEmployees(Paths.get(csvFile), upsert,
+                Paths.get(rejectFile.isEmpty() ? defaultRejects : rejectFile));
+            
+            System.out.println("\nRecords read: " + result.getRecordsRead());
+            System.out.println("Inserted: " + result.getInserted());
+            if (upsert) {
+                System.out.println("Updated: " + result.getUpdated());
+            }
+            System.out.println("Rejected: " + result.getRejected()
+                + (result.getRejectFile() != null ? " (see " + result.getRejectFile().toAbsolutePath() + ")" : ""));
+            System.out.printf("Elapsed: %d ms (%.1f records/sec)%n", result.getElapsedMillis(), result.getThroughputPerSecond());
+        } catch (SQLException e) {
+            System.out.println("✗ Database Error: " + e.getMessage());
+        } catch (IOException e) {
+            System.out.println("✗ File Error: " + e.getMessage());
+        } catch (Exception e) {
+            System.out.println("✗ Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Show DAO latency histograms, connection pool and employee cache counters
+     */
+    private void viewDatabaseMetrics() {
+        System.out.println("\n--- Database Metrics ---");
+        System.out.println(DaoMetrics.report());
+        if (!Repositories.isEmbedded()) {
+            System.out.println("\nConnection pool: " + DBConnection.getPoolStats());
+        }
+        BoundedCache<Integer, Employee> cache = payrollService.getEmployeeCache();
+        if (cache != null) {
+            System.out.println("Employee cache:  " + cache);
+        }
+        SalaryAuditWriter.AuditStats audit = SalaryAuditWriter.getInstanceStats();
+        if (audit != null) {
+            System.out.println("Salary audit:    " + audit);
+        }
+        
+        System.out.print("\nReset DAO metrics? (y/n): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            DaoMetrics.reset();
+            System.out.println("✓ DAO metrics reset");
+        }
+    }
+
+    private void printSimulationRow(String label, long current, long after) {
+        System.out.printf("%-18s ₹%-15.2f ₹%-15.2f ₹%-15.2f %n", label, Money.toDecimal(current), Money.toDecimal(after),
+            Money.toDecimal(after - current));
+    }
+
     /**
      * Get positive integer input
      */
@@ -392,6 +756,24 @@ public class PayrollManagementSystem {
         }
     }
 
+    /**
+     * Get a non-negative amount in rupees (at most two decimals) as paise
+     */
+    private long getAmount() {
+        while (true) {
+            try {
+                long value = Money.parse(scanner.nextLine());
+                if (value >= 0) {
+                    return value;
+                } else {
+                    System.out.print("Please enter a non-negative amount: ");
+                }
+            } catch (NumberFormatException e) {
+                System.out.print("Invalid input. Please enter an amount with at most two decimals: ");
+            }
+        }
+    }
+
     /**
      * Main application loop
      */
@@ -435,6 +817,27 @@ public class PayrollManagementSystem {
                     viewPayslipsByMonth();
                     break;
                 case "10":
+                    runMonthlyPayroll();
+                    break;
+                case "11":
+                    simulateRaise();
+                    break;
+                case "12":
+                    viewDatabaseMetrics();
+                    break;
+                case "13":
+                    exportPayslips();
+                    break;
+                case "14":
+                    importEmployees();
+                    break;
+                case "15":
+                    viewDepartmentDashboard();
+                    break;
+                case "16":
+                    viewYearToDate();
+                    break;
+                case "0":
                     running = false;
                     System.out.println("\nThank you for using Payroll Management System. Goodbye!");
                     break;
@@ -444,12 +847,17 @@ public class PayrollManagementSystem {
         }
         
         scanner.close();
+        SalaryAuditWriter.shutdownInstance();
+        Repositories.shutdown();
     }
 
     /**
-     * Application entry point
+     * Application entry point. With arguments, runs a batch command (see BatchCli) instead of the menu.
      */
     public static void main(String[] args) {
+        if (args.length > 0) {
+            System.exit(BatchCli.run(args));
+        }
         PayrollManagementSystem app = new PayrollManagementSystem();
         app.run();
     }
@@ -0,0 +1,470 @@
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dao.Repositories;
+import dao.SalaryAuditWriter;
+import model.Employee;
+import model.Payslip;
+import model.YearToDate;
+import service.AsyncPayrollService;
+import service.PayrollService;
+import util.AppConfig;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.ToIntFunction;
+
+/**
+ * Embedded HTTP/JSON API over PayrollService, on the JDK's built-in HTTP server.
+ * <pre>
+ *   GET  /api/employees                      all active employees (streamed)
+ *   GET  /api/employees/{id}                 one employee
+ *   GET  /api/employees/{id}/payslips        the employee's payslips, newest first; with
+ *                                            limit=N a page of N, and before=YYYY-MM the
+ *                                            page of months before that one
+ *   GET  /api/employees/{id}/ytd?year=FY     year-to-date totals for the financial year from April FY
+ *   GET  /api/payslips?month=M&amp;year=Y        the month's payslips (streamed)
+ *   GET  /api/payslips/{id}                  one payslip
+ *   POST /api/payslips                       generate a payslip; empId, month and year
+ *                                            as query or form parameters
+ * </pre>
+ * Each request is handled on its own virtual thread and its database work goes through
+ * AsyncPayrollService, so no more requests hit the database at once than the pool has
+ * connections. Every request has a deadline (api.requestTimeoutMs): a request still
+ * waiting for its result then gets 504. Large lists are read and written in pages of
+ * payroll.stream.pageSize; a list that is still streaming at the deadline is cut off,
+ * leaving unterminated JSON.
+ */
+public class PayrollHttpServer implements AutoCloseable {
+
+    private static final int DEFAULT_PORT = AppConfig.getInt("api.port", 8080);
+    private static final long DEFAULT_TIMEOUT_MILLIS = AppConfig.getLong("api.requestTimeoutMs", 5000);
+    private static final int BACKLOG = AppConfig.getInt("api.backlog", 256);
+    private static final int MAX_FORM_BYTES = 4096;
+    private static final int STREAM_PAGE_SIZE = Math.max(1, AppConfig.getInt("payroll.stream.pageSize", 1000));
+    private static final String JSON = "application/json; charset=utf-8";
+
+    static {
+        // The server writes headers and a small body separately; with Nagle's algorithm the
+        // body then waits for the client's delayed ACK, adding about 40 ms to every response
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final AsyncPayrollService payroll;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final long timeoutMillis;
+
+    public PayrollHttpServer(AsyncPayrollService payroll) throws IOException {
+        this(payroll, new InetSocketAddress(DEFAULT_PORT), DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public PayrollHttpServer(AsyncPayrollService payroll, InetSocketAddress address, long timeoutMillis) throws IOException {
+        if (timeoutMillis < 1) {
+            throw new IllegalArgumentException("Request timeout must be at least 1 ms");
+        }
+        this.payroll = payroll;
+        this.timeoutMillis = timeoutMillis;
+        this.handlers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payroll-http-", 0).factory());
+        this.server = HttpServer.create(address, BACKLOG);
+        this.server.setExecutor(handlers);
+        this.server.createContext("/api/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * The port the server listens on (useful when it was created with port 0)
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop accepting connections, give running requests up to one timeout to finish,
+     * and wait for their handlers. The AsyncPayrollService is left open.
+     */
+    @Override
+    public void close() {
+        server.stop((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis)));
+        handlers.close();
+    }
+
+    private void handle(HttpExchange exchange) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            route(exchange, deadline);
+        } catch (HttpError e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            System.err.println("Error handling " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + ": " + e);
+            sendError(exchange, 500, "Internal error");
+        } catch (IOException e) {
+            // The client went away; nothing left to send
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange, long deadline) throws IOException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+        Map<String, String> params = parseForm(exchange.getRequestURI().getRawQuery());
+
+        if (path[0].equals("employees")) {
+            requireMethod(method, "GET");
+            if (path.length == 1) {
+                streamPages(exchange, deadline, payroll::getEmployeesPage, Employee::getEmpId,
+                        PayrollHttpServer::writeEmployee);
+                return;
+            }
+            int empId = pathId(path[1]);
+            if (path.length == 2) {
+                Employee employee = await(payroll.getEmployeeDetails(empId), deadline);
+                if (employee == null) {
+                    throw new HttpError(404, "Employee with ID " + empId + " does not exist");
+                }
+                send(exchange, 200, json -> writeEmployee(json, employee));
+                return;
+            }
+            if (path.length == 3 && path[2].equals("payslips")) {
+                if (!params.containsKey("limit")) {
+                    // The whole history in pages keyed by year * 100 + month; key 0 is the latest page
+                    streamPages(exchange, deadline,
+                            (before, pageSize) -> payroll.getEmployeePayslipsPage(empId, before / 100, before % 100,
+                                    pageSize),
+                            payslip -> payslip.getYear() * 100 + payslip.getMonth(), PayrollHttpServer::writePayslip);
+                    return;
+                }
+                List<Payslip> payslips = await(payslipPage(empId, params), deadline);
+                send(exchange, 200, json -> {
+                    json.beginArray();
+                    for (Payslip payslip : payslips) {
+                        writePayslip(json, payslip);
+                    }
+                    json.endArray();
+                });
+                return;
+            }
+            if (path.length == 3 && path[2].equals("ytd")) {
+                YearToDate ytd = await(payroll.getYearToDate(empId, intParam(params, "year")), deadline);
+                send(exchange, 200, json -> writeYearToDate(json, ytd));
+                return;
+            }
+        } else if (path[0].equals("payslips")) {
+            if (path.length == 1 && method.equals("POST")) {
+                params.putAll(parseForm(readForm(exchange)));
+                Payslip payslip = await(payroll.generatePayslip(intParam(params, "empId"),
+                        intParam(params, "month"), intParam(params, "year")), deadline);
+                send(exchange, 201, json -> writePayslip(json, payslip));
+                return;
+            }
+            requireMethod(method, "GET");
+            if (path.length == 1) {
+                int month = intParam(params, "month");
+                int year = intParam(params, "year");
+                streamPages(exchange, deadline,
+                        (afterEmpId, pageSize) -> payroll.getPayslipsByMonthPage(month, year, afterEmpId, pageSize),
+                        Payslip::getEmpId, PayrollHttpServer::writePayslip);
+                return;
+            }
+            if (path.length == 2) {
+                int payslipId = pathId(path[1]);
+                Payslip payslip = await(payroll.getPayslipDetails(payslipId), deadline);
+                if (payslip == null) {
+                    throw new HttpError(404, "Payslip with ID " + payslipId + " does not exist");
+                }
+                send(exchange, 200, json -> writePayslip(json, payslip));
+                return;
+            }
+        }
+        throw new HttpError(404, "No such resource: " + exchange.getRequestURI().getPath());
+    }
+
+    private CompletableFuture<List<Payslip>> payslipPage(int empId, Map<String, String> params) {
+        int limit = intParam(params, "limit");
+        String before = params.get("before");
+        if (before == null || before.isEmpty()) {
+            return payroll.getEmployeePayslipsPage(empId, 0, 0, limit);
+        }
+        String[] yearMonth = before.split("-");
+        try {
+            if (yearMonth.length == 2) {
+                return payroll.getEmployeePayslipsPage(empId, Integer.parseInt(yearMonth[0]),
+                        Integer.parseInt(yearMonth[1]), limit);
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new HttpError(400, "Parameter before must be YYYY-MM: " + before);
+    }
+
+    /**
+     * Wait for a call until the request's deadline; on timeout the call is cancelled
+     * so it is skipped if it has not reached the database yet
+     */
+    private <T> T await(CompletableFuture<T> future, long deadline) {
+        try {
+            return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw timedOut();
+        } catch (ExecutionException e) {
+            throw toHttpError(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpError(503, "Server is shutting down");
+        }
+    }
+
+    /**
+     * Send a list as a JSON array, one keyset page at a time. Each page is a separate call,
+     * so the connection and the AsyncPayrollService permit are released before the page is
+     * written: a client that reads slowly only holds up its own handler thread. The status
+     * is sent with the first page, so an error or timeout before it still gets a proper
+     * error response; after that, a failure or the deadline cuts the array off.
+     */
+    private <T> void streamPages(HttpExchange exchange, long deadline, PageCall<T> call, ToIntFunction<T> key,
+                                 JsonItem<T> item) throws IOException {
+        List<T> page = await(call.page(0, STREAM_PAGE_SIZE), deadline);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(200, 0);
+        JsonWriter json = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 1 << 14));
+        json.beginArray();
+        while (true) {
+            for (T record : page) {
+                item.write(json, record);
+            }
+            json.flush();
+            if (page.size() < STREAM_PAGE_SIZE) {
+                break;
+            }
+            try {
+                page = await(call.page(key.applyAsInt(page.get(page.size() - 1)), STREAM_PAGE_SIZE), deadline);
+            } catch (HttpError e) {
+                // Already streaming; leave the array unterminated
+                return;
+            }
+        }
+        json.endArray();
+        json.flush();
+    }
+
+    private HttpError timedOut() {
+        return new HttpError(504, "Request timed out after " + timeoutMillis + " ms");
+    }
+
+    private static HttpError toHttpError(Throwable cause) {
+        if (cause instanceof IllegalArgumentException) {
+            String message = cause.getMessage();
+            if (message != null && message.contains("does not exist")) {
+                return new HttpError(404, message);
+            }
+            if (message != null && message.contains("already exists")) {
+                return new HttpError(409, message);
+            }
+            return new HttpError(400, message);
+        }
+        if (cause instanceof SQLException) {
+            System.err.println("Database error handling API request: " + cause.getMessage());
+            return new HttpError(503, "Database error");
+        }
+        System.err.println("Error handling API request: " + cause);
+        return new HttpError(500, "Internal error");
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw new HttpError(405, "Method " + method + " not allowed");
+        }
+    }
+
+    private static int pathId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new HttpError(404, "Not an ID: " + segment);
+        }
+    }
+
+    private static int intParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new HttpError(400, "Missing parameter " + name);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, "Parameter " + name + " must be a number: " + value);
+        }
+    }
+
+    private static String readForm(HttpExchange exchange) throws IOException {
+        InputStream body = exchange.getRequestBody();
+        byte[] bytes = body.readNBytes(MAX_FORM_BYTES + 1);
+        if (bytes.length > MAX_FORM_BYTES) {
+            throw new HttpError(413, "Request body is larger than " + MAX_FORM_BYTES + " bytes");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decode name=value pairs of a query string or form body
+     */
+    private static Map<String, String> parseForm(String form) {
+        Map<String, String> params = new HashMap<>();
+        if (form == null || form.isEmpty()) {
+            return params;
+        }
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                try {
+                    params.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8").trim(),
+                            URLDecoder.decode(pair.substring(eq + 1), "UTF-8").trim());
+                } catch (IllegalArgumentException | IOException e) {
+                    throw new HttpError(400, "Malformed parameter: " + pair);
+                }
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Send a small JSON document with its length
+     */
+    private static void send(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8);
+        body.write(new JsonWriter(writer));
+        writer.flush();
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.size());
+        bytes.writeTo(exchange.getResponseBody());
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            send(exchange, status, json -> json.beginObject()
+                    .name("status").value(status)
+                    .name("error").value(message)
+                    .endObject());
+        } catch (IOException e) {
+            // The client went away; nothing left to send
+        }
+    }
+
+    static void writeEmployee(JsonWriter json, Employee employee) throws IOException {
+        json.beginObject()
+                .name("empId").value(employee.getEmpId())
+                .name("name").value(employee.getName())
+                .name("email").value(employee.getEmail())
+                .name("department").value(employee.getDepartment())
+                .name("designation").value(employee.getDesignation())
+                .name("joinDate").value(employee.getJoinDate())
+                .name("baseSalary").amount(employee.getBaseSalaryPaise())
+                .name("hra").amount(employee.getHraPaise())
+                .name("allowance").amount(employee.getAllowancePaise())
+                .name("active").value(employee.isActive())
+                .endObject();
+    }
+
+    static void writePayslip(JsonWriter json, Payslip payslip) throws IOException {
+        json.beginObject()
+                .name("payslipId").value(payslip.getPayslipId())
+                .name("empId").value(payslip.getEmpId())
+                .name("month").value(payslip.getMonth())
+                .name("year").value(payslip.getYear())
+                .name("baseSalary").amount(payslip.getBaseSalaryPaise())
+                .name("hra").amount(payslip.getHraPaise())
+                .name("allowance").amount(payslip.getAllowancePaise())
+                .name("grossSalary").amount(payslip.getGrossSalaryPaise())
+                .name("incomeTax").amount(payslip.getIncomeTaxPaise())
+                .name("providentFund").amount(payslip.getProvidentFundPaise())
+                .name("healthInsurance").amount(payslip.getHealthInsurancePaise())
+                .name("totalDeductions").amount(payslip.getTotalDeductionsPaise())
+                .name("netSalary").amount(payslip.getNetSalaryPaise())
+                .name("generatedDate").value(payslip.getGeneratedDate() == null ? null : payslip.getGeneratedDate().toString())
+                .endObject();
+    }
+
+    static void writeYearToDate(JsonWriter json, YearToDate ytd) throws IOException {
+        json.beginObject()
+                .name("empId").value(ytd.getEmpId())
+                .name("financialYear").value(ytd.getFinancialYear())
+                .name("payslips").value(ytd.getPayslipCount())
+                .name("grossSalary").amount(ytd.getGrossSalaryPaise())
+                .name("incomeTax").amount(ytd.getIncomeTaxPaise())
+                .name("providentFund").amount(ytd.getProvidentFundPaise())
+                .name("healthInsurance").amount(ytd.getHealthInsurancePaise())
+                .name("totalDeductions").amount(ytd.getTotalDeductionsPaise())
+                .name("netSalary").amount(ytd.getNetSalaryPaise())
+                .endObject();
+    }
+
+    /**
+     * Start the API on api.port (or the port given as the first argument) until the process is stopped
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        AsyncPayrollService payroll = new AsyncPayrollService(new PayrollService());
+        PayrollHttpServer server = new PayrollHttpServer(payroll, new InetSocketAddress(port), DEFAULT_TIMEOUT_MILLIS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            payroll.close();
+            SalaryAuditWriter.shutdownInstance();
+            Repositories.shutdown();
+        }, "payroll-http-shutdown"));
+        server.start();
+        System.out.println("Payroll API listening on http://localhost:" + server.getPort() + "/api/");
+    }
+
+    private interface JsonBody {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    private interface JsonItem<T> {
+        void write(JsonWriter json, T item) throws IOException;
+    }
+
+    private interface PageCall<T> {
+        CompletableFuture<List<T>> page(int afterId, int pageSize);
+    }
+
+    /**
+     * An HTTP error status with a message for the client
+     */
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private HttpError(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package bench;
+
+import dao.EmbeddedPayrollRunDAO;
+import dao.EmbeddedStorage;
+import model.Employee;
+import model.Payslip;
+import service.PayrollService;
+import service.TaxEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Crash recovery of the embedded backend (store.LogTable and store.RecordLog). Saves employees
+ * and payslips in a fresh directory under the temp dir, then damages the files the ways a crash
+ * or a bad disk can and checks that reopening the storage recovers every complete write:
+ * <ul>
+ *   <li>a frame cut short at the end of the log, behind the index checkpoint</li>
+ *   <li>half a frame appended after the checkpoint</li>
+ *   <li>index files with a damaged header</li>
+ *   <li>an index entry pointing past the end of the log</li>
+ * </ul>
+ * After each reopen the storage must also accept new payslips.
+ *
+ * Usage: java bench.EmbeddedRecoveryCheck [employees] [months]
+ *
+ * Exits with status 1 at the first mismatch; the directory is removed either way.
+ */
+public class EmbeddedRecoveryCheck {
+
+    private static final int YEAR = 2024;
+
+    public static void main(String[] args) throws IOException, SQLException {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int months = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        if (months < 1 || months > 8) {
+            // Four more months are paid after the damage, all within the year
+            throw new IllegalArgumentException("months must be between 1 and 8");
+        }
+
+        Path directory = Files.createTempDirectory("payroll-recovery");
+        try {
+            run(directory, employees, months);
+            System.out.println("OK: embedded storage recovered " + employees + " employees and their payslips "
+                    + "from every damaged file");
+        } catch (IllegalStateException e) {
+            System.err.println("FAILED: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static void run(Path directory, int employees, int months) throws IOException, SQLException {
+        Map<Integer, String> savedEmployees = new LinkedHashMap<>();
+        Map<Integer, List<String>> savedPayslips = new LinkedHashMap<>();
+        try (EmbeddedStorage storage = EmbeddedStorage.open(directory)) {
+            PayrollService payrollService = payrollService(storage);
+            for (int i = 0; i < employees; i++) {
+                Employee employee = new Employee(0, "Check " + i, "check" + i + "@example.com",
+                        "Dept " + (i % 5), "Engineer", "2020-04-01", 5_000_000L + i * 100L, 2_000_000L, 500_000L);
+                if (!payrollService.addEmployee(employee)) {
+                    throw new IllegalStateException("could not add " + employee.getName());
+                }
+            }
+            for (Employee employee : storage.employees().getAllEmployees()) {
+                savedEmployees.put(employee.getEmpId(), employee.getName());
+            }
+            for (int month = 1; month <= months; month++) {
+                payrollService.generatePayrollForMonth(month, YEAR);
+                savedPayslips.put(month, describe(storage, month));
+            }
+            // The last month is one frame; it is cut short below
+            payrollService.generatePayrollForMonth(months + 1, YEAR);
+        }
+        Path payslipLog = directory.resolve("payslips.log");
+        Path payslipIndex = directory.resolve("payslips.idx");
+        Path employeeIndex = directory.resolve("employees.idx");
+
+        // The index was checkpointed at the full length on close, so cutting the log leaves the
+        // checkpoint past its end: the index is reset and rebuilt, and the torn frame dropped
+        truncate(payslipLog, Files.size(payslipLog) - 3);
+        verify("log cut mid-frame", directory, savedEmployees, savedPayslips, months + 1);
+
+        // Half a frame after the checkpoint: a length and CRC claiming more bytes than follow
+        ByteBuffer torn = ByteBuffer.allocate(12).putInt(1 << 20).putInt(0).putInt(42).flip();
+        try (FileChannel log = FileChannel.open(payslipLog, StandardOpenOption.APPEND)) {
+            log.write(torn);
+        }
+        verify("half a frame appended", directory, savedEmployees, savedPayslips, months + 2);
+
+        overwrite(payslipIndex, 0, ByteBuffer.allocate(4).putInt(0xDEAD).flip());
+        overwrite(employeeIndex, 0, ByteBuffer.allocate(4).putInt(0xDEAD).flip());
+        verify("index headers damaged", directory, savedEmployees, savedPayslips, months + 3);
+
+        // Entry 1 (at the 64-byte header plus one 16-byte entry) claims a record past the log
+        overwrite(payslipIndex, 64 + 16, ByteBuffer.allocate(8).putLong(Long.MAX_VALUE).flip());
+        verify("index entry past the log", directory, savedEmployees, savedPayslips, months + 4);
+
+        if (Files.exists(directory.resolve("payslips.idx.tmp")) || Files.exists(directory.resolve("employees.idx.tmp"))) {
+            throw new IllegalStateException("a reset left its temporary index behind");
+        }
+    }
+
+    /**
+     * Reopen the storage, compare it with what was saved, then pay a new month and record it
+     */
+    private static void verify(String damage, Path directory, Map<Integer, String> savedEmployees,
+                               Map<Integer, List<String>> savedPayslips, int newMonth)
+            throws IOException, SQLException {
+        try (EmbeddedStorage storage = EmbeddedStorage.open(directory)) {
+            for (Map.Entry<Integer, String> saved : savedEmployees.entrySet()) {
+                Employee employee = storage.employees().getEmployeeById(saved.getKey());
+                if (employee == null || !employee.getName().equals(saved.getValue())) {
+                    throw new IllegalStateException(damage + ": employee " + saved.getKey() + " is "
+                            + (employee == null ? "missing" : employee.getName()));
+                }
+            }
+            for (Map.Entry<Integer, List<String>> saved : savedPayslips.entrySet()) {
+                List<String> recovered = describe(storage, saved.getKey());
+                if (!recovered.equals(saved.getValue())) {
+                    throw new IllegalStateException(damage + ": month " + saved.getKey() + " has "
+                            + recovered.size() + " payslips, expected " + saved.getValue().size());
+                }
+            }
+            for (int month = newMonth; month <= 12; month++) {
+                if (!storage.payslips().getPayslipsByMonthAndYear(month, YEAR).isEmpty()) {
+                    throw new IllegalStateException(damage + ": month " + month + " survived a torn write");
+                }
+            }
+
+            payrollService(storage).generatePayrollForMonth(newMonth, YEAR);
+            List<String> paid = describe(storage, newMonth);
+            if (paid.size() != savedEmployees.size()) {
+                throw new IllegalStateException(damage + ": paid " + paid.size() + " employees after reopening");
+            }
+            savedPayslips.put(newMonth, paid);
+        }
+        System.out.println(damage + ": recovered");
+    }
+
+    private static PayrollService payrollService(EmbeddedStorage storage) {
+        return new PayrollService(storage.employees(), storage.payslips(), new EmbeddedPayrollRunDAO(),
+                TaxEngine.fromConfig());
+    }
+
+    /**
+     * A month's payslips as "payslipId:empId:department:net", also read back one by one
+     */
+    private static List<String> describe(EmbeddedStorage storage, int month) throws SQLException {
+        List<String> payslips = new ArrayList<>();
+        for (Payslip payslip : storage.payslips().getPayslipsByMonthAndYear(month, YEAR)) {
+            Payslip byId = storage.payslips().getPayslipById(payslip.getPayslipId());
+            if (byId == null || byId.getNetSalaryPaise() != payslip.getNetSalaryPaise()) {
+                throw new IllegalStateException("payslip " + payslip.getPayslipId() + " is not readable by ID");
+            }
+            payslips.add(payslip.getPayslipId() + ":" + payslip.getEmpId() + ":" + payslip.getDepartment() + ":"
+                    + payslip.getNetSalaryPaise());
+        }
+        return payslips;
+    }
+
+    private static void truncate(Path file, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        }
+    }
+
+    private static void overwrite(Path file, long position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+}
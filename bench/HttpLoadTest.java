@@ -0,0 +1,130 @@
+package bench;
+
+import api.PayrollHttpServer;
+import service.AsyncPayrollService;
+import service.PayrollService;
+import util.DBConnection;
+import util.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of the HTTP API: each client sends a GET, waits for the whole
+ * response, and sends the next, cycling through the paths. Reports requests/sec and
+ * latency percentiles for the measured period (after a warm-up) and counts by status.
+ *
+ * Usage: java bench.HttpLoadTest [baseUrl|local] [clients] [seconds] [path ...]
+ *
+ * With "local" (the default) the API is started in this JVM on a free port against the
+ * database in application.properties. Default paths: /api/employees/1 and
+ * /api/employees/1/payslips.
+ */
+public class HttpLoadTest {
+
+    private static final int WARMUP_SECONDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "local";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        List<String> paths = args.length > 3
+                ? Arrays.asList(args).subList(3, args.length)
+                : Arrays.asList("/api/employees/1", "/api/employees/1/payslips");
+
+        AsyncPayrollService payroll = null;
+        PayrollHttpServer server = null;
+        String baseUrl = target;
+        if (target.equals("local")) {
+            payroll = new AsyncPayrollService(new PayrollService());
+            server = new PayrollHttpServer(payroll, new InetSocketAddress("localhost", 0), 5000);
+            server.start();
+            baseUrl = "http://localhost:" + server.getPort();
+        }
+
+        try {
+            List<URI> uris = new ArrayList<>();
+            for (String path : paths) {
+                uris.add(URI.create(baseUrl + path));
+            }
+            System.out.printf("%d clients, %ds warm-up, %ds measured, %s%n", clients, WARMUP_SECONDS, seconds, uris);
+            run(uris, clients, WARMUP_SECONDS, null, null);
+            LatencyHistogram latency = new LatencyHistogram();
+            Map<String, AtomicLong> outcomes = new ConcurrentHashMap<>();
+            long elapsed = run(uris, clients, seconds, latency, outcomes);
+            report(latency, outcomes, elapsed);
+            if (server != null) {
+                System.out.println(DBConnection.getPoolStats());
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+                payroll.close();
+                DBConnection.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Run the clients for the given time; returns the elapsed nanoseconds
+     */
+    private static long run(List<URI> uris, int clients, int seconds, LatencyHistogram latency,
+                            Map<String, AtomicLong> outcomes) {
+        long start = System.nanoTime();
+        long end = start + Duration.ofSeconds(seconds).toNanos();
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+             ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int offset = c;
+                workers.execute(() -> {
+                    for (int i = offset; System.nanoTime() - end < 0; i++) {
+                        HttpRequest request = HttpRequest.newBuilder(uris.get(i % uris.size()))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long sent = System.nanoTime();
+                        String outcome;
+                        try {
+                            outcome = Integer.toString(client.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode());
+                        } catch (IOException e) {
+                            outcome = e.getClass().getSimpleName();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        if (latency != null) {
+                            latency.record(System.nanoTime() - sent);
+                            outcomes.computeIfAbsent(outcome, k -> new AtomicLong()).incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(LatencyHistogram latency, Map<String, AtomicLong> outcomes, long elapsedNanos) {
+        long requests = latency.getCount();
+        System.out.printf("requests=%d  throughput=%.0f req/s%n", requests, requests * 1e9 / elapsedNanos);
+        System.out.printf("latency ms: mean=%.2f p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                latency.getMeanNanos() / 1e6, latency.getPercentileNanos(50) / 1e6, latency.getPercentileNanos(90) / 1e6,
+                latency.getPercentileNanos(99) / 1e6, latency.getPercentileNanos(99.9) / 1e6, latency.getMaxNanos() / 1e6);
+        System.out.println("outcomes: " + new TreeMap<>(outcomes));
+    }
+}
@@ -0,0 +1,136 @@
+package bench;
+
+import dao.DepartmentRollupDAO;
+import dao.EmployeeDAO;
+import dao.PayrollDAO;
+import dao.YearToDateDAO;
+import model.Employee;
+import model.Payslip;
+import service.PayrollService;
+import util.DBConnection;
+import util.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares per-payslip latency of the old four-query generation sequence
+ * (employeeExists, payslipExists, getEmployeeById, savePayslip) with
+ * PayrollService.generatePayslip, against the database in application.properties.
+ *
+ * Usage: java bench.PayslipGenerationBench [employees] [year]
+ *
+ * Payslips are written for the given year (default 9999) and deleted afterwards.
+ */
+public class PayslipGenerationBench {
+
+    public static void main(String[] args) throws SQLException {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int year = args.length > 1 ? Integer.parseInt(args[1]) : 9999;
+
+        EmployeeDAO employeeDAO = new EmployeeDAO();
+        PayrollDAO payrollDAO = new PayrollDAO();
+        PayrollService payrollService = new PayrollService();
+
+        List<Integer> empIds = new ArrayList<>();
+        employeeDAO.forEachActiveEmployee(employee -> {
+            if (empIds.size() < employees) {
+                empIds.add(employee.getEmpId());
+            }
+        });
+        if (empIds.isEmpty()) {
+            System.out.println("No active employees to benchmark");
+            return;
+        }
+
+        deletePayslips(year);
+        try {
+            // Month 1 warms up the pool and the JIT, month 2 and 3 are measured
+            for (int empId : empIds) {
+                payrollService.generatePayslip(empId, 1, year);
+            }
+
+            long[] legacy = new long[empIds.size()];
+            for (int i = 0; i < empIds.size(); i++) {
+                long start = System.nanoTime();
+                legacyGeneratePayslip(employeeDAO, payrollDAO, payrollService, empIds.get(i), 2, year);
+                legacy[i] = System.nanoTime() - start;
+            }
+
+            long[] current = new long[empIds.size()];
+            for (int i = 0; i < empIds.size(); i++) {
+                long start = System.nanoTime();
+                payrollService.generatePayslip(empIds.get(i), 3, year);
+                current[i] = System.nanoTime() - start;
+            }
+
+            report("four queries (before)", legacy);
+            report("single connection (after)", current);
+            System.out.println(DBConnection.getPoolStats());
+        } finally {
+            deletePayslips(year);
+            DBConnection.shutdown();
+        }
+    }
+
+    /**
+     * The generation sequence PayrollService used before payslips were created on one connection
+     */
+    private static void legacyGeneratePayslip(EmployeeDAO employeeDAO, PayrollDAO payrollDAO,
+                                              PayrollService payrollService, int empId, int month, int year)
+            throws SQLException {
+        if (!employeeDAO.employeeExists(empId)) {
+            throw new IllegalArgumentException("Employee with ID " + empId + " does not exist");
+        }
+        if (payrollDAO.payslipExists(empId, month, year)) {
+            throw new IllegalArgumentException("Payslip already exists for employee " + empId);
+        }
+        Employee employee = employeeDAO.getEmployeeById(empId);
+        long gross = payrollService.calculateGrossSalary(employee.getBaseSalaryPaise(), employee.getHraPaise(),
+                employee.getAllowancePaise());
+        long pf = payrollService.calculateProvidentFund(gross);
+        long tax = payrollService.calculateIncomeTax(gross);
+        long healthInsurance = Money.ofRupees(500);
+        long deductions = payrollService.calculateTotalDeductions(tax, pf, healthInsurance);
+
+        Payslip payslip = new Payslip(empId, month, year, employee.getBaseSalaryPaise(), employee.getHraPaise(),
+                employee.getAllowancePaise());
+        payslip.setDepartment(employee.getDepartment());
+        payslip.setGrossSalaryPaise(gross);
+        payslip.setProvidentFundPaise(pf);
+        payslip.setIncomeTaxPaise(tax);
+        payslip.setHealthInsurancePaise(healthInsurance);
+        payslip.setTotalDeductionsPaise(deductions);
+        payslip.setNetSalaryPaise(payrollService.calculateNetSalary(gross, deductions));
+        payrollDAO.savePayslip(payslip);
+    }
+
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double avg = Arrays.stream(sorted).average().orElse(0) / 1000.0;
+        System.out.printf("%-28s n=%d avg=%.1fus p50=%.1fus p99=%.1fus max=%.1fus%n", label, sorted.length, avg,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1000.0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+
+    private static void deletePayslips(int year) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement("DELETE FROM payslips WHERE year = ?")) {
+            ps.setInt(1, year);
+            ps.executeUpdate();
+        }
+        new DepartmentRollupDAO().rebuild(year);
+        // Payslips of the year fall in the financial years starting in year - 1 and year
+        new YearToDateDAO().rebuild(year - 1);
+        new YearToDateDAO().rebuild(year);
+    }
+}
@@ -0,0 +1,133 @@
+package bench;
+
+import dao.DepartmentRollupDAO;
+import dao.EmployeeDAO;
+import dao.YearToDateDAO;
+import service.PayrollRunResult;
+import service.PayrollService;
+import util.DBConnection;
+import util.LatencyHistogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk payslip generation with and without the per-connection statement cache, against the
+ * database in application.properties. Each configuration runs in its own JVM so the pool,
+ * the driver and the JIT start cold every time:
+ * <ul>
+ *   <li>before: no statement cache, client-side prepares (the previous behavior)</li>
+ *   <li>cache: statement cache, client-side prepares</li>
+ *   <li>cache+server: statement cache, server-side prepares (the default)</li>
+ * </ul>
+ * Each run generates payslips one employee at a time for one month (two statements per
+ * payslip) and then runs the whole monthly payroll for the next month.
+ *
+ * Usage: java bench.StatementCacheBench [employees] [year]
+ *
+ * Payslips are written for the given year (default 9999) and deleted afterwards.
+ */
+public class StatementCacheBench {
+
+    private static final String[][] CONFIGURATIONS = {
+            {"before", "-Ddb.statementCache.size=0", "-Ddb.serverPrepare=false"},
+            {"cache", "-Ddb.serverPrepare=false"},
+            {"cache+server", "-Ddb.serverPrepare=true"},
+    };
+
+    public static void main(String[] args) throws IOException, InterruptedException, SQLException {
+        if (args.length > 0 && args[0].equals("--run")) {
+            run(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        String employees = args.length > 0 ? args[0] : "2000";
+        String year = args.length > 1 ? args[1] : "9999";
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (String[] configuration : CONFIGURATIONS) {
+            List<String> command = new ArrayList<>();
+            command.add(java);
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            for (int i = 1; i < configuration.length; i++) {
+                command.add(configuration[i]);
+            }
+            command.add(StatementCacheBench.class.getName());
+            command.add("--run");
+            command.add(configuration[0]);
+            command.add(employees);
+            command.add(year);
+
+            int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+            if (exit != 0) {
+                System.err.println(configuration[0] + " run failed with exit code " + exit);
+                return;
+            }
+        }
+    }
+
+    private static void run(String label, int employees, int year) throws SQLException {
+        EmployeeDAO employeeDAO = new EmployeeDAO();
+        PayrollService payrollService = new PayrollService();
+
+        List<Integer> empIds = new ArrayList<>();
+        employeeDAO.forEachActiveEmployee(employee -> {
+            if (empIds.size() < employees) {
+                empIds.add(employee.getEmpId());
+            }
+        });
+        if (empIds.isEmpty()) {
+            System.out.println("No active employees to benchmark");
+            return;
+        }
+
+        deletePayslips(year);
+        try {
+            // Month 1 warms up the pool and the JIT, month 2 and 3 are measured
+            for (int empId : empIds) {
+                payrollService.generatePayslip(empId, 1, year);
+            }
+
+            LatencyHistogram perPayslip = new LatencyHistogram();
+            long start = System.nanoTime();
+            for (int empId : empIds) {
+                long payslipStart = System.nanoTime();
+                payrollService.generatePayslip(empId, 2, year);
+                perPayslip.record(System.nanoTime() - payslipStart);
+            }
+            double perPayslipSeconds = (System.nanoTime() - start) / 1e9;
+
+            PayrollRunResult run = payrollService.generatePayrollForMonth(3, year);
+
+            DBConnection.PoolStats stats = DBConnection.getPoolStats();
+            System.out.printf("%-13s generatePayslip x%d: %.0f payslips/s, mean=%.1fus p50=%.1fus p99=%.1fus%n",
+                    label, empIds.size(), empIds.size() / perPayslipSeconds, perPayslip.getMeanNanos() / 1000.0,
+                    perPayslip.getPercentileNanos(50) / 1000.0, perPayslip.getPercentileNanos(99) / 1000.0);
+            System.out.printf("%-13s monthly run: %d payslips in %dms%n", label, run.getGenerated(),
+                    run.getElapsedMillis());
+            System.out.printf("%-13s statement cache: hits=%d misses=%d hitRate=%.1f%%%n", label,
+                    stats.getStatementCacheHits(), stats.getStatementCacheMisses(),
+                    stats.getStatementCacheHitRate() * 100);
+        } finally {
+            deletePayslips(year);
+            DBConnection.shutdown();
+        }
+    }
+
+    private static void deletePayslips(int year) throws SQLException {
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement("DELETE FROM payslips WHERE year = ?")) {
+            ps.setInt(1, year);
+            ps.executeUpdate();
+        }
+        new DepartmentRollupDAO().rebuild(year);
+        // Payslips of the year fall in the financial years starting in year - 1 and year
+        new YearToDateDAO().rebuild(year - 1);
+        new YearToDateDAO().rebuild(year);
+    }
+}
@@ -0,0 +1,199 @@
+package bench;
+
+import dao.EmployeeRepository;
+import dao.PayslipRepository;
+import dao.Repositories;
+import model.Employee;
+import service.PayrollService;
+import util.DBConnection;
+import util.LatencyHistogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Point lookups and month scans on the two storage backends (storage.backend), each in its
+ * own JVM:
+ * <ul>
+ *   <li>jdbc: the database in application.properties, using its active employees</li>
+ *   <li>embedded: a fresh directory under the temp dir, seeded with as many employees</li>
+ * </ul>
+ * Each run generates the monthly payroll for the given number of months, then measures
+ * getEmployeeById and getPayslipById on random ids and forEachPayslipByMonthAndYear over
+ * every month. Employees are read through the uncached repository.
+ *
+ * Usage: java bench.StorageBackendBench [employees] [months] [lookups] [year]
+ *
+ * Payslips are written for the given year (default 9999) and deleted afterwards; the
+ * embedded directory is removed.
+ */
+public class StorageBackendBench {
+
+    private static final int SCAN_ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException, InterruptedException, SQLException {
+        if (args.length > 0 && args[0].equals("--run")) {
+            run(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                    Integer.parseInt(args[4]));
+            return;
+        }
+        String employees = args.length > 0 ? args[0] : "2000";
+        String months = args.length > 1 ? args[1] : "12";
+        String lookups = args.length > 2 ? args[2] : "20000";
+        String year = args.length > 3 ? args[3] : "9999";
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Path directory = Files.createTempDirectory("payroll-embedded");
+        try {
+            String[][] configurations = {
+                    {"-Dstorage.backend=" + Repositories.JDBC},
+                    {"-Dstorage.backend=" + Repositories.EMBEDDED, "-Dstorage.embedded.dir=" + directory},
+            };
+            for (String[] configuration : configurations) {
+                List<String> command = new ArrayList<>();
+                command.add(java);
+                command.add("-cp");
+                command.add(System.getProperty("java.class.path"));
+                command.addAll(List.of(configuration));
+                command.add(StorageBackendBench.class.getName());
+                command.add("--run");
+                command.add(employees);
+                command.add(months);
+                command.add(lookups);
+                command.add(year);
+
+                int exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+                if (exit != 0) {
+                    System.err.println(configuration[0] + " run failed with exit code " + exit);
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static void run(int employees, int months, int lookups, int year) throws SQLException {
+        String label = Repositories.isEmbedded() ? Repositories.EMBEDDED : Repositories.JDBC;
+        EmployeeRepository employeeRepository = Repositories.employees();
+        PayslipRepository payslipRepository = Repositories.payslips();
+        PayrollService payrollService = new PayrollService();
+
+        try {
+            if (Repositories.isEmbedded()) {
+                for (int i = 0; i < employees; i++) {
+                    payrollService.addEmployee(new Employee(0, "Bench " + i, "bench" + i + "@example.com",
+                            "Dept " + (i % 10), "Engineer", "2020-04-01", 6_000_000L + i * 100L, 2_400_000L,
+                            500_000L));
+                }
+            }
+            List<Integer> empIds = new ArrayList<>();
+            employeeRepository.forEachActiveEmployee(employee -> {
+                if (empIds.size() < employees) {
+                    empIds.add(employee.getEmpId());
+                }
+            });
+            if (empIds.isEmpty()) {
+                System.out.println(label + ": no active employees to benchmark");
+                return;
+            }
+
+            deletePayslips(year);
+            long start = System.nanoTime();
+            for (int month = 1; month <= months; month++) {
+                payrollService.generatePayrollForMonth(month, year);
+            }
+            long generateMillis = (System.nanoTime() - start) / 1_000_000;
+
+            List<Integer> payslipIds = new ArrayList<>();
+            for (int month = 1; month <= months; month++) {
+                payslipRepository.forEachPayslipSummaryByMonthAndYear(month, year,
+                        summary -> payslipIds.add(summary.getPayslipId()));
+            }
+            System.out.printf("%-8s %d employees, %d payslips generated in %dms%n", label, empIds.size(),
+                    payslipIds.size(), generateMillis);
+
+            Random random = new Random(42);
+            LatencyHistogram employeeLookups = new LatencyHistogram();
+            LatencyHistogram payslipLookups = new LatencyHistogram();
+            // The first half of the lookups warms up, the second half is measured
+            for (int i = 0; i < lookups * 2; i++) {
+                int empId = empIds.get(random.nextInt(empIds.size()));
+                long lookupStart = System.nanoTime();
+                employeeRepository.getEmployeeById(empId);
+                long employeeNanos = System.nanoTime() - lookupStart;
+
+                int payslipId = payslipIds.get(random.nextInt(payslipIds.size()));
+                lookupStart = System.nanoTime();
+                payslipRepository.getPayslipById(payslipId);
+                long payslipNanos = System.nanoTime() - lookupStart;
+
+                if (i >= lookups) {
+                    employeeLookups.record(employeeNanos);
+                    payslipLookups.record(payslipNanos);
+                }
+            }
+            print(label, "getEmployeeById", employeeLookups);
+            print(label, "getPayslipById", payslipLookups);
+
+            long[] rows = {0};
+            long scanNanos = 0;
+            for (int round = 0; round <= SCAN_ROUNDS; round++) {
+                long scanStart = System.nanoTime();
+                for (int month = 1; month <= months; month++) {
+                    payslipRepository.forEachPayslipByMonthAndYear(month, year, payslip -> rows[0]++);
+                }
+                // Round 0 warms up
+                if (round == 0) {
+                    rows[0] = 0;
+                } else {
+                    scanNanos += System.nanoTime() - scanStart;
+                }
+            }
+            System.out.printf("%-8s month scan x%d: %.1fms per month, %.0f payslips/s%n", label,
+                    SCAN_ROUNDS * months, scanNanos / 1e6 / (SCAN_ROUNDS * months), rows[0] / (scanNanos / 1e9));
+        } finally {
+            try {
+                deletePayslips(year);
+            } finally {
+                Repositories.shutdown();
+            }
+        }
+    }
+
+    private static void print(String label, String operation, LatencyHistogram histogram) {
+        System.out.printf("%-8s %s x%d: mean=%.1fus p50=%.1fus p99=%.1fus%n", label, operation,
+                histogram.getCount(), histogram.getMeanNanos() / 1000.0, histogram.getPercentileNanos(50) / 1000.0,
+                histogram.getPercentileNanos(99) / 1000.0);
+    }
+
+    private static void deletePayslips(int year) throws SQLException {
+        // The embedded directory is a fresh one and removed afterwards
+        if (Repositories.isEmbedded()) {
+            return;
+        }
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement("DELETE FROM payslips WHERE year = ?")) {
+            ps.setInt(1, year);
+            ps.executeUpdate();
+        }
+        PayslipRepository payslipRepository = Repositories.payslips();
+        payslipRepository.rebuildDepartmentTotals(year);
+        // Payslips of the year fall in the financial years starting in year - 1 and year
+        payslipRepository.rebuildYearToDate(year - 1);
+        payslipRepository.rebuildYearToDate(year);
+    }
+}
@@ -0,0 +1,83 @@
+package bench.jmh;
+
+import model.Employee;
+import model.Payslip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.PayrollService;
+import util.Money;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the individual PayrollService calculations and of a full payslip computation
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PayrollCalculationBenchmark {
+
+    private static final int POPULATION = 4096;
+    private static final long HEALTH_INSURANCE = Money.ofRupees(500);
+
+    @Param({"TYPICAL", "SENIOR", "UNIFORM"})
+    public SalaryDistribution distribution;
+
+    private PayrollService payrollService;
+    private Employee[] employees;
+    private long[] grossSalaries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        payrollService = new PayrollService();
+        employees = distribution.employees(POPULATION);
+        grossSalaries = distribution.grossSalaries(POPULATION);
+    }
+
+    private int nextIndex() {
+        return next = (next + 1) & (POPULATION - 1);
+    }
+
+    @Benchmark
+    public long calculateGrossSalary() {
+        Employee employee = employees[nextIndex()];
+        return payrollService.calculateGrossSalary(employee.getBaseSalaryPaise(), employee.getHraPaise(),
+                employee.getAllowancePaise());
+    }
+
+    @Benchmark
+    public long calculateProvidentFund() {
+        return payrollService.calculateProvidentFund(grossSalaries[nextIndex()]);
+    }
+
+    @Benchmark
+    public long calculateIncomeTax() {
+        return payrollService.calculateIncomeTax(grossSalaries[nextIndex()]);
+    }
+
+    @Benchmark
+    public long calculateNetSalary() {
+        long gross = grossSalaries[nextIndex()];
+        long deductions = payrollService.calculateTotalDeductions(payrollService.calculateIncomeTax(gross),
+                payrollService.calculateProvidentFund(gross), HEALTH_INSURANCE);
+        return payrollService.calculateNetSalary(gross, deductions);
+    }
+
+    @Benchmark
+    public Payslip calculatePayslip() {
+        return payrollService.calculatePayslip(employees[nextIndex()], 3, 2024);
+    }
+}
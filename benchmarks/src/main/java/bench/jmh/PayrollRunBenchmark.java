@@ -0,0 +1,60 @@
+package bench.jmh;
+
+import model.Employee;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import service.PayrollService;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computing payslips for a whole workforce, without the database.
+ * One operation is one full run over N employees.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayrollRunBenchmark {
+
+    @Param({"1000", "20000"})
+    public int employees;
+
+    @Param({"TYPICAL", "UNIFORM"})
+    public SalaryDistribution distribution;
+
+    private PayrollService payrollService;
+    private Employee[] workforce;
+
+    @Setup
+    public void setUp() {
+        payrollService = new PayrollService();
+        workforce = distribution.employees(employees);
+    }
+
+    @Benchmark
+    public void sequential(Blackhole blackhole) {
+        for (Employee employee : workforce) {
+            blackhole.consume(payrollService.calculatePayslip(employee, 3, 2024));
+        }
+    }
+
+    @Benchmark
+    public void parallel(Blackhole blackhole) {
+        Arrays.stream(workforce).parallel()
+                .forEach(employee -> blackhole.consume(payrollService.calculatePayslip(employee, 3, 2024)));
+    }
+}
@@ -0,0 +1,88 @@
+package bench.jmh;
+
+import model.Employee;
+import model.Payslip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.PayrollService;
+import service.PayslipRenderer;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The payslip text rendering path: formatPayslip and printPayslip (to a discarding stream)
+ * against PayslipRenderer writing the same text as UTF-8 bytes into a reused buffer
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PayslipRenderingBenchmark {
+
+    private static final int POPULATION = 1024;
+
+    private PayrollService payrollService;
+    private PayslipRenderer renderer;
+    private Payslip[] payslips;
+    private PrintStream originalOut;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        payrollService = new PayrollService();
+        renderer = new PayslipRenderer();
+        Employee[] employees = SalaryDistribution.TYPICAL.employees(POPULATION);
+        payslips = new Payslip[POPULATION];
+        for (int i = 0; i < POPULATION; i++) {
+            payslips[i] = payrollService.calculatePayslip(employees[i], 3, 2024);
+            payslips[i].setPayslipId(i + 1);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void redirectStdout() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8));
+    }
+
+    @TearDown(Level.Iteration)
+    public void restoreStdout() {
+        System.setOut(originalOut);
+    }
+
+    private Payslip nextPayslip() {
+        next = (next + 1) & (POPULATION - 1);
+        return payslips[next];
+    }
+
+    @Benchmark
+    public String formatPayslip() {
+        return payrollService.formatPayslip(nextPayslip());
+    }
+
+    @Benchmark
+    public void printPayslip() {
+        payrollService.printPayslip(nextPayslip());
+    }
+
+    @Benchmark
+    public int renderPayslip() {
+        renderer.reset();
+        return renderer.appendLine(nextPayslip()).size();
+    }
+}
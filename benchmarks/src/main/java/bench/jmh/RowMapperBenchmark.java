@@ -0,0 +1,202 @@
+package bench.jmh;
+
+import dao.PayslipRowMapper;
+import dao.PayslipSummaryRowMapper;
+import model.Employee;
+import model.Payslip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.PayrollService;
+import util.Money;
+
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a scan of payslip rows: the old mapper (SELECT *, every column looked up by name on
+ * every row) against PayslipRowMapper (explicit columns, positions resolved once per ResultSet)
+ * and PayslipSummaryRowMapper (the list-view projection).
+ * Rows come from an in-memory ResultSet that resolves labels the way MySQL Connector/J does
+ * (exact-case hash lookup, then case-insensitive) and hands out already-decoded values, so the
+ * scores isolate column resolution and the number of columns read; the smaller rows of the
+ * explicit column lists also save network transfer and decoding, which this does not measure.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RowMapperBenchmark {
+
+    private static final String[] TABLE_COLUMNS = {"payslip_id", "emp_id", "month", "year", "department",
+            "base_salary", "hra", "allowance", "gross_salary", "income_tax", "provident_fund", "health_insurance", "total_deductions",
+            "net_salary", "generated_date", "created_at"};
+
+    @Param({"100000"})
+    public int rows;
+
+    private Object[][] selectStar;
+    private Object[][] payslipColumns;
+    private Object[][] summaryColumns;
+
+    @Setup
+    public void setUp() {
+        PayrollService payrollService = new PayrollService();
+        Employee[] employees = SalaryDistribution.TYPICAL.employees(rows);
+        Date generated = Date.valueOf("2024-03-31");
+        Timestamp created = Timestamp.valueOf("2024-03-31 10:15:00");
+
+        selectStar = new Object[rows][];
+        for (int i = 0; i < rows; i++) {
+            Payslip p = payrollService.calculatePayslip(employees[i], 3, 2024);
+            selectStar[i] = new Object[] {i + 1, p.getEmpId(), p.getMonth(), p.getYear(), p.getDepartment(),
+                    Money.toDecimal(p.getBaseSalaryPaise()), Money.toDecimal(p.getHraPaise()),
+                    Money.toDecimal(p.getAllowancePaise()), Money.toDecimal(p.getGrossSalaryPaise()),
+                    Money.toDecimal(p.getIncomeTaxPaise()), Money.toDecimal(p.getProvidentFundPaise()),
+                    Money.toDecimal(p.getHealthInsurancePaise()), Money.toDecimal(p.getTotalDeductionsPaise()),
+                    Money.toDecimal(p.getNetSalaryPaise()), generated, created};
+        }
+        payslipColumns = project(PayslipRowMapper.COLUMNS);
+        summaryColumns = project(PayslipSummaryRowMapper.COLUMNS);
+    }
+
+    private Object[][] project(String columns) {
+        String[] labels = columns.split(", ");
+        Object[][] projected = new Object[rows][labels.length];
+        for (int c = 0; c < labels.length; c++) {
+            int source = indexOf(labels[c]);
+            for (int i = 0; i < rows; i++) {
+                projected[i][c] = selectStar[i][source];
+            }
+        }
+        return projected;
+    }
+
+    private static int indexOf(String label) {
+        for (int i = 0; i < TABLE_COLUMNS.length; i++) {
+            if (TABLE_COLUMNS[i].equals(label)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(label);
+    }
+
+    @Benchmark
+    public long selectStarByName() throws SQLException {
+        ResultSet rs = resultSet(TABLE_COLUMNS, selectStar);
+        long net = 0;
+        while (rs.next()) {
+            net += mapByName(rs).getNetSalaryPaise();
+        }
+        return net;
+    }
+
+    @Benchmark
+    public long columnsByPosition() throws SQLException {
+        ResultSet rs = resultSet(PayslipRowMapper.COLUMNS.split(", "), payslipColumns);
+        PayslipRowMapper mapper = new PayslipRowMapper(rs);
+        long net = 0;
+        while (rs.next()) {
+            net += mapper.map().getNetSalaryPaise();
+        }
+        return net;
+    }
+
+    @Benchmark
+    public long summaryProjection() throws SQLException {
+        ResultSet rs = resultSet(PayslipSummaryRowMapper.COLUMNS.split(", "), summaryColumns);
+        PayslipSummaryRowMapper mapper = new PayslipSummaryRowMapper(rs);
+        long net = 0;
+        while (rs.next()) {
+            net += mapper.map().getNetSalaryPaise();
+        }
+        return net;
+    }
+
+    /**
+     * The mapper PayrollDAO used before PayslipRowMapper
+     */
+    private static Payslip mapByName(ResultSet rs) throws SQLException {
+        Payslip payslip = new Payslip();
+        payslip.setPayslipId(rs.getInt("payslip_id"));
+        payslip.setEmpId(rs.getInt("emp_id"));
+        payslip.setMonth(rs.getInt("month"));
+        payslip.setYear(rs.getInt("year"));
+        payslip.setDepartment(rs.getString("department"));
+        payslip.setBaseSalaryPaise(Money.fromDecimal(rs.getBigDecimal("base_salary")));
+        payslip.setHraPaise(Money.fromDecimal(rs.getBigDecimal("hra")));
+        payslip.setAllowancePaise(Money.fromDecimal(rs.getBigDecimal("allowance")));
+        payslip.setGrossSalaryPaise(Money.fromDecimal(rs.getBigDecimal("gross_salary")));
+        payslip.setIncomeTaxPaise(Money.fromDecimal(rs.getBigDecimal("income_tax")));
+        payslip.setProvidentFundPaise(Money.fromDecimal(rs.getBigDecimal("provident_fund")));
+        payslip.setHealthInsurancePaise(Money.fromDecimal(rs.getBigDecimal("health_insurance")));
+        payslip.setTotalDeductionsPaise(Money.fromDecimal(rs.getBigDecimal("total_deductions")));
+        payslip.setNetSalaryPaise(Money.fromDecimal(rs.getBigDecimal("net_salary")));
+        payslip.setGeneratedDate(rs.getDate("generated_date").toLocalDate());
+        return payslip;
+    }
+
+    /**
+     * A forward-only ResultSet over the rows; getX(String) resolves the label on every call, as drivers do
+     */
+    private static ResultSet resultSet(String[] labels, Object[][] rows) {
+        Map<String, Integer> exact = new HashMap<>();
+        Map<String, Integer> anyCase = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < labels.length; i++) {
+            exact.put(labels[i], i + 1);
+            anyCase.put(labels[i], i + 1);
+        }
+        int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++cursor[0] < rows.length;
+                        case "findColumn":
+                            return findColumn(exact, anyCase, (String) args[0]);
+                        case "getInt":
+                        case "getBigDecimal":
+                        case "getDate":
+                        case "getString":
+                        case "getTimestamp":
+                            int column = args[0] instanceof String
+                                    ? findColumn(exact, anyCase, (String) args[0])
+                                    : (Integer) args[0];
+                            return rows[cursor[0]][column - 1];
+                        case "close":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static int findColumn(Map<String, Integer> exact, Map<String, Integer> anyCase, String label)
+            throws SQLException {
+        Integer index = exact.get(label);
+        if (index == null) {
+            index = anyCase.get(label);
+        }
+        if (index == null) {
+            throw new SQLException("Column '" + label + "' not found");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,63 @@
+package bench.jmh;
+
+import model.Employee;
+import util.Money;
+
+import java.util.Random;
+
+/**
+ * Salary mixes used to drive the calculation benchmarks.
+ * Amounts are in whole paise, like values read back from DECIMAL(12,2) columns.
+ */
+public enum SalaryDistribution {
+
+    /** Most of the workforce, log-normal around a 60k base; nearly everyone in the first tax slab */
+    TYPICAL {
+        @Override
+        double baseSalary(Random random) {
+            return Math.exp(Math.log(60000) + random.nextGaussian() * 0.6);
+        }
+    },
+    /** Senior staff around a 300k base, straddling every tax slab */
+    SENIOR {
+        @Override
+        double baseSalary(Random random) {
+            return Math.exp(Math.log(300000) + random.nextGaussian() * 0.5);
+        }
+    },
+    /** Uniform from 20k to 1M, the worst case for slab branch prediction */
+    UNIFORM {
+        @Override
+        double baseSalary(Random random) {
+            return 20000 + random.nextDouble() * 980000;
+        }
+    };
+
+    abstract double baseSalary(Random random);
+
+    /**
+     * Employees with HRA at 20% and allowance at 5% of base salary
+     */
+    public Employee[] employees(int count) {
+        Random random = new Random(42);
+        Employee[] employees = new Employee[count];
+        for (int i = 0; i < count; i++) {
+            long base = Math.round(baseSalary(random) * Money.PAISE_PER_RUPEE);
+            employees[i] = new Employee(i + 1, "Employee " + (i + 1), "employee" + (i + 1) + "@company.com",
+                    "Engineering", "Developer", "2020-01-15", base, Math.round(base * 0.20), Math.round(base * 0.05));
+        }
+        return employees;
+    }
+
+    /**
+     * Gross salaries of the employees() population, in paise
+     */
+    public long[] grossSalaries(int count) {
+        Employee[] employees = employees(count);
+        long[] gross = new long[count];
+        for (int i = 0; i < count; i++) {
+            gross[i] = employees[i].getBaseSalaryPaise() + employees[i].getHraPaise() + employees[i].getAllowancePaise();
+        }
+        return gross;
+    }
+}
@@ -0,0 +1,132 @@
+package bench.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.TaxEngine;
+import util.Money;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaxEngine against the hardcoded three-slab if/else chain it replaced (3 slabs),
+ * and against a linear slab walk that recomputes cumulative amounts per call (20 slabs).
+ * Setup checks that both give identical results before anything is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TaxEngineBenchmark {
+
+    private static final int POPULATION = 4096;
+    private static final long SLAB_1_LIMIT = Money.ofRupees(300000);
+    private static final long SLAB_2_LIMIT = Money.ofRupees(500000);
+    private static final long SLAB_1_RATE = Money.parsePercent("0.05");
+    private static final long SLAB_2_RATE = Money.parsePercent("0.10");
+    private static final long SLAB_3_RATE = Money.parsePercent("0.20");
+
+    @Param({"3", "20"})
+    public int slabs;
+
+    @Param({"TYPICAL", "SENIOR", "UNIFORM"})
+    public SalaryDistribution distribution;
+
+    private long[] limits;
+    private long[] rates;
+    private TaxEngine engine;
+    private long[] grossSalaries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        if (slabs == 3) {
+            limits = new long[] {SLAB_1_LIMIT, SLAB_2_LIMIT};
+            rates = new long[] {SLAB_1_RATE, SLAB_2_RATE, SLAB_3_RATE};
+        } else {
+            // Slabs spread geometrically over the salary range
+            limits = new long[slabs - 1];
+            rates = new long[slabs];
+            for (int i = 0; i < slabs; i++) {
+                rates[i] = Money.percentMicros(i * 1.5);
+                if (i < slabs - 1) {
+                    limits[i] = Money.ofRupees(Math.round(60000.0 * Math.pow(1.25, i)));
+                }
+            }
+        }
+        engine = new TaxEngine(limits, rates);
+        grossSalaries = distribution.grossSalaries(POPULATION);
+
+        for (long gross : grossSalaries) {
+            if (baseline(gross) != engine.calculate(gross)) {
+                throw new IllegalStateException("TaxEngine disagrees with the baseline for " + Money.format(gross));
+            }
+        }
+    }
+
+    private long baseline(long gross) {
+        return slabs == 3 ? legacyTax(gross) : linearTax(gross, limits, rates);
+    }
+
+    private long nextGross() {
+        next = (next + 1) & (POPULATION - 1);
+        return grossSalaries[next];
+    }
+
+    @Benchmark
+    public long baseline() {
+        return baseline(nextGross());
+    }
+
+    @Benchmark
+    public long taxEngine() {
+        return engine.calculate(nextGross());
+    }
+
+    /**
+     * The if/else chain PayrollService used before TaxEngine, in exact paise arithmetic
+     */
+    static long legacyTax(long grossSalary) {
+        long products;
+        if (grossSalary <= SLAB_1_LIMIT) {
+            products = grossSalary * SLAB_1_RATE;
+        } else if (grossSalary <= SLAB_2_LIMIT) {
+            long slab1Amount = SLAB_1_LIMIT * SLAB_1_RATE;
+            long slab2Amount = (grossSalary - SLAB_1_LIMIT) * SLAB_2_RATE;
+            products = slab1Amount + slab2Amount;
+        } else {
+            long slab1Amount = SLAB_1_LIMIT * SLAB_1_RATE;
+            long slab2Amount = (SLAB_2_LIMIT - SLAB_1_LIMIT) * SLAB_2_RATE;
+            long slab3Amount = (grossSalary - SLAB_2_LIMIT) * SLAB_3_RATE;
+            products = slab1Amount + slab2Amount + slab3Amount;
+        }
+        return Money.fromPercentProducts(products);
+    }
+
+    /**
+     * The if/else approach generalised to any number of slabs
+     */
+    static long linearTax(long grossSalary, long[] limits, long[] rates) {
+        long products = 0;
+        long lower = 0;
+        for (int i = 0; i < rates.length; i++) {
+            if (i == limits.length || grossSalary <= limits[i]) {
+                products = products + (grossSalary - lower) * rates[i];
+                break;
+            }
+            products = products + (limits[i] - lower) * rates[i];
+            lower = limits[i];
+        }
+        return Money.fromPercentProducts(products);
+    }
+}
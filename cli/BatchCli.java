@@ -0,0 +1,401 @@
+package cli;
+
+import dao.Repositories;
+import dao.SalaryAuditWriter;
+import model.PayrollRegister;
+import model.PayrollTotals;
+import model.YearToDate;
+import service.EmployeeCsvImporter;
+import service.EmployeeImportResult;
+import service.PayrollRunResult;
+import service.PayrollService;
+import service.PayslipExportResult;
+import service.PayslipExporter;
+import service.TaxEngine;
+import util.Money;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Non-interactive subcommands of PayrollManagementSystem for scripts and cron jobs.
+ * Results go to stdout as CSV or JSON lines, diagnostics to stderr, and the exit code
+ * tells the caller what happened. Each command creates only the DAOs it uses, and the
+ * JMX registration of DAO metrics is skipped unless metrics.jmx.enabled is set explicitly.
+ */
+public final class BatchCli {
+
+    public static final int EXIT_OK = 0;
+    /** The command ran but some records failed or were rejected */
+    public static final int EXIT_PARTIAL = 1;
+    public static final int EXIT_USAGE = 2;
+    public static final int EXIT_DATABASE = 3;
+    /** A file could not be read or written, or its content (or another input) was rejected */
+    public static final int EXIT_IO = 4;
+
+    private static final Set<String> FLAGS = new HashSet<>(Arrays.asList("per-employee", "upsert", "incremental", "rebuild", "timing", "help"));
+
+    private static final String USAGE = String.join("\n",
+            "Usage: java PayrollManagementSystem <command> [options]",
+            "",
+            "Commands:",
+            "  generate --month M --year Y              Generate payslips for every unpaid active employee",
+            "         [--incremental]                   (copy last month's payslip where pay is unchanged)",
+            "  export --month M --year Y --out PATH     Write the month's payslips to PATH",
+            "         [--per-employee]                  (a directory of one file per employee)",
+            "  list employees                           List active employees",
+            "  list payslips --month M --year Y         List the month's payslips",
+            "  import --file CSV [--upsert]             Import employees from a CSV file",
+            "         [--rejects PATH]                  (rejected lines go to CSV.rejects.csv by default)",
+            "  rollup --year Y [--month M]              List department payroll totals by month",
+            "  rollup --rebuild [--year Y]              Recompute department totals from the payslips",
+            "  ytd --emp ID --year FY                   Year-to-date totals for the financial year from April FY",
+            "  ytd --rebuild [--year FY]                Recompute year-to-date totals from the payslips",
+            "",
+            "Options:",
+            "  --format csv|jsonl                       Output format (default csv)",
+            "  --timing                                 Report startup and time to first result on stderr",
+            "",
+            "Exit codes: 0 ok, 1 some records failed or were rejected, 2 usage error, 3 database error, 4 file or input error",
+            "");
+
+    private final Map<String, String> options = new HashMap<>();
+    private final List<String> arguments = new ArrayList<>();
+    private final Writer out;
+    private final Writer err;
+    private final long startNanos;
+    private final long startMillis;
+    private long firstResultNanos;
+
+    private BatchCli(long startNanos, long startMillis) {
+        this.startNanos = startNanos;
+        this.startMillis = startMillis;
+        this.out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        this.err = new OutputStreamWriter(System.err, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Run the command given by args and return the process exit code
+     */
+    public static int run(String[] args) {
+        long startNanos = System.nanoTime();
+        long startMillis = System.currentTimeMillis();
+        if (System.getProperty("metrics.jmx.enabled") == null) {
+            // Registering the MBean server costs more than a short command takes
+            System.setProperty("metrics.jmx.enabled", "false");
+        }
+        BatchCli cli = new BatchCli(startNanos, startMillis);
+        try {
+            return cli.execute(args);
+        } finally {
+            SalaryAuditWriter.shutdownInstance();
+            Repositories.shutdown();
+        }
+    }
+
+    private int execute(String[] args) {
+        try {
+            parse(args);
+            if (options.containsKey("help") || arguments.isEmpty()) {
+                out.write(USAGE);
+                return arguments.isEmpty() && !options.containsKey("help") ? EXIT_USAGE : EXIT_OK;
+            }
+            String command = arguments.get(0);
+            int exitCode;
+            switch (command) {
+                case "generate":
+                    exitCode = generate();
+                    break;
+                case "export":
+                    exitCode = export();
+                    break;
+                case "list":
+                    exitCode = list();
+                    break;
+                case "import":
+                    exitCode = importEmployees();
+                    break;
+                case "rollup":
+                    exitCode = rollup();
+                    break;
+                case "ytd":
+                    exitCode = yearToDate();
+                    break;
+                default:
+                    throw new UsageException("Unknown command: " + command);
+            }
+            if (options.containsKey("timing")) {
+                reportTiming(command);
+            }
+            return exitCode;
+        } catch (UsageException e) {
+            error(e.getMessage());
+            printQuietly(USAGE);
+            return EXIT_USAGE;
+        } catch (IllegalArgumentException e) {
+            // Rejected by the services: bad input data, such as a malformed CSV file or an unknown employee
+            error("Invalid input: " + e.getMessage());
+            return EXIT_IO;
+        } catch (SQLException e) {
+            error("Database error: " + e.getMessage());
+            return EXIT_DATABASE;
+        } catch (IOException e) {
+            error("File error: " + e.getMessage());
+            return EXIT_IO;
+        } catch (UncheckedIOException e) {
+            error("File error: " + e.getCause().getMessage());
+            return EXIT_IO;
+        } finally {
+            try {
+                out.flush();
+                err.flush();
+            } catch (IOException e) {
+                // stdout or stderr is gone; nothing left to report to
+            }
+        }
+    }
+
+    private int generate() throws SQLException, IOException {
+        int month = month();
+        int year = intOption("year");
+        PayrollService payrollService = new PayrollService(Repositories.employees(), Repositories.payslips(), TaxEngine.fromConfig());
+        PayrollRunResult result = payrollService.generatePayrollForMonth(month, year,
+                options.containsKey("incremental"));
+
+        RecordWriter writer = RecordWriter.create(format(), out,
+                "month", "year", "scanned", "generated", "cloned", "skipped", "failed", "elapsed_ms");
+        emit(writer, month, year, result.getEmployeesScanned(), result.getGenerated(), result.getCloned(),
+                result.getSkipped(), result.getFailures().size(), result.getElapsedMillis());
+
+        if (!result.getFailures().isEmpty()) {
+            RecordWriter failures = RecordWriter.create(format(), err, "emp_id", "reason");
+            for (PayrollRunResult.Failure failure : result.getFailures()) {
+                failures.write(failure.getEmpId(), failure.getReason());
+            }
+            return EXIT_PARTIAL;
+        }
+        return EXIT_OK;
+    }
+
+    private int export() throws SQLException, IOException {
+        int month = month();
+        int year = intOption("year");
+        Path target = Paths.get(requiredOption("out"));
+        PayslipExporter exporter = new PayslipExporter(Repositories.payslips());
+        PayslipExportResult result = options.containsKey("per-employee")
+                ? exporter.exportToDirectory(month, year, target)
+                : exporter.exportToFile(month, year, target);
+
+        RecordWriter writer = RecordWriter.create(format(), out,
+                "month", "year", "target", "payslips", "files", "bytes", "elapsed_ms");
+        emit(writer, month, year, result.getTarget().toAbsolutePath(), result.getPayslips(), result.getFiles(),
+                result.getBytes(), result.getElapsedMillis());
+        return EXIT_OK;
+    }
+
+    private int list() throws SQLException, IOException {
+        String what = arguments.size() > 1 ? arguments.get(1) : "";
+        if (what.equals("employees")) {
+            RecordWriter writer = RecordWriter.create(format(), out, "emp_id", "name", "email", "department",
+                    "designation", "join_date", "base_salary", "hra", "allowance");
+            Repositories.employees().forEachActiveEmployee(employee -> emitUnchecked(writer, employee.getEmpId(),
+                    employee.getName(), employee.getEmail(), employee.getDepartment(), employee.getDesignation(),
+                    employee.getJoinDate(), amount(employee.getBaseSalaryPaise()), amount(employee.getHraPaise()),
+                    amount(employee.getAllowancePaise())));
+            return EXIT_OK;
+        }
+        if (what.equals("payslips")) {
+            int month = month();
+            int year = intOption("year");
+            RecordWriter writer = RecordWriter.create(format(), out, "payslip_id", "emp_id", "month", "year",
+                    "base_salary", "hra", "allowance", "gross_salary", "income_tax", "provident_fund",
+                    "health_insurance", "total_deductions", "net_salary", "generated_date");
+            Repositories.payslips().forEachPayslipByMonthAndYear(month, year, payslip -> emitUnchecked(writer,
+                    payslip.getPayslipId(), payslip.getEmpId(), payslip.getMonth(), payslip.getYear(),
+                    amount(payslip.getBaseSalaryPaise()), amount(payslip.getHraPaise()), amount(payslip.getAllowancePaise()),
+                    amount(payslip.getGrossSalaryPaise()), amount(payslip.getIncomeTaxPaise()),
+                    amount(payslip.getProvidentFundPaise()), amount(payslip.getHealthInsurancePaise()),
+                    amount(payslip.getTotalDeductionsPaise()), amount(payslip.getNetSalaryPaise()),
+                    payslip.getGeneratedDate()));
+            return EXIT_OK;
+        }
+        throw new UsageException("Expected 'list employees' or 'list payslips'");
+    }
+
+    private int importEmployees() throws SQLException, IOException {
+        String file = requiredOption("file");
+        Path rejects = Paths.get(options.getOrDefault("rejects", file + ".rejects.csv"));
+        EmployeeCsvImporter importer = new EmployeeCsvImporter(Repositories.employees());
+        EmployeeImportResult result = importer.importFile(Paths.get(file), options.containsKey("upsert"), rejects);
+
+        RecordWriter writer = RecordWriter.create(format(), out,
+                "records", "inserted", "updated", "rejected", "reject_file", "elapsed_ms");
+        emit(writer, result.getRecordsRead(), result.getInserted(), result.getUpdated(), result.getRejected(),
+                result.getRejectFile() == null ? null : result.getRejectFile().toAbsolutePath(), result.getElapsedMillis());
+        return result.getRejected() > 0 ? EXIT_PARTIAL : EXIT_OK;
+    }
+
+    private int rollup() throws SQLException, IOException {
+        PayrollService payrollService = new PayrollService(Repositories.employees(), Repositories.payslips(), TaxEngine.fromConfig());
+        if (options.containsKey("rebuild")) {
+            long start = System.nanoTime();
+            int rows = options.containsKey("year")
+                    ? payrollService.rebuildDepartmentRollups(intOption("year"))
+                    : payrollService.rebuildDepartmentRollups();
+            RecordWriter writer = RecordWriter.create(format(), out, "year", "rows", "elapsed_ms");
+            emit(writer, options.get("year"), rows, (System.nanoTime() - start) / 1_000_000);
+            return EXIT_OK;
+        }
+
+        int year = intOption("year");
+        List<PayrollRegister> registers = options.containsKey("month")
+                ? Collections.singletonList(payrollService.getPayrollRegister(month(), year))
+                : payrollService.getPayrollRegistersForYear(year);
+        RecordWriter writer = RecordWriter.create(format(), out, "month", "year", "department", "headcount",
+                "gross_salary", "income_tax", "provident_fund", "total_deductions", "net_salary");
+        for (PayrollRegister register : registers) {
+            for (PayrollTotals totals : register.getDepartmentTotals()) {
+                emit(writer, register.getMonth(), register.getYear(), totals.getDepartment(), totals.getPayslipCount(),
+                        amount(totals.getTotalGrossPaise()), amount(totals.getTotalIncomeTaxPaise()),
+                        amount(totals.getTotalProvidentFundPaise()), amount(totals.getTotalDeductionsPaise()),
+                        amount(totals.getTotalNetPaise()));
+            }
+        }
+        return EXIT_OK;
+    }
+
+    private int yearToDate() throws SQLException, IOException {
+        PayrollService payrollService = new PayrollService(Repositories.employees(), Repositories.payslips(), TaxEngine.fromConfig());
+        if (options.containsKey("rebuild")) {
+            long start = System.nanoTime();
+            int rows = options.containsKey("year")
+                    ? payrollService.rebuildYearToDate(intOption("year"))
+                    : payrollService.rebuildYearToDate();
+            RecordWriter writer = RecordWriter.create(format(), out, "financial_year", "rows", "elapsed_ms");
+            emit(writer, options.get("year"), rows, (System.nanoTime() - start) / 1_000_000);
+            return EXIT_OK;
+        }
+
+        YearToDate ytd = payrollService.getYearToDate(intOption("emp"), intOption("year"));
+        RecordWriter writer = RecordWriter.create(format(), out, "emp_id", "financial_year", "payslips",
+                "gross_salary", "income_tax", "provident_fund", "health_insurance", "total_deductions", "net_salary");
+        emit(writer, ytd.getEmpId(), ytd.getFinancialYear(), ytd.getPayslipCount(), amount(ytd.getGrossSalaryPaise()),
+                amount(ytd.getIncomeTaxPaise()), amount(ytd.getProvidentFundPaise()),
+                amount(ytd.getHealthInsurancePaise()), amount(ytd.getTotalDeductionsPaise()),
+                amount(ytd.getNetSalaryPaise()));
+        return EXIT_OK;
+    }
+
+    /**
+     * Write a result record; the first one is flushed straight away so callers see it early
+     */
+    private void emit(RecordWriter writer, Object... values) throws IOException {
+        writer.write(values);
+        if (firstResultNanos == 0) {
+            firstResultNanos = System.nanoTime();
+            writer.flush();
+        }
+    }
+
+    private void emitUnchecked(RecordWriter writer, Object... values) {
+        try {
+            emit(writer, values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Time from JVM start to main, from main to the first result record, and in total
+     */
+    private void reportTiming(String command) throws IOException {
+        long now = System.nanoTime();
+        Long jvmStartMillis = ProcessHandle.current().info().startInstant().map(Instant::toEpochMilli).orElse(null);
+        RecordWriter timing = RecordWriter.create(format(), err,
+                "command", "jvm_to_main_ms", "first_result_ms", "total_ms");
+        timing.write(command,
+                jvmStartMillis == null ? null : startMillis - jvmStartMillis,
+                firstResultNanos == 0 ? null : (firstResultNanos - startNanos) / 1_000_000,
+                (now - startNanos) / 1_000_000);
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                arguments.add(arg);
+                continue;
+            }
+            String name = arg.substring(2);
+            if (FLAGS.contains(name)) {
+                options.put(name, "true");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                throw new UsageException("Missing value for " + arg);
+            }
+        }
+    }
+
+    private String format() {
+        return options.getOrDefault("format", "csv");
+    }
+
+    private String requiredOption(String name) {
+        String value = options.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new UsageException("Missing --" + name);
+        }
+        return value;
+    }
+
+    private int intOption(String name) {
+        String value = requiredOption(name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new UsageException("--" + name + " must be a number: " + value);
+        }
+    }
+
+    private int month() {
+        int month = intOption("month");
+        if (month < 1 || month > 12) {
+            throw new UsageException("Month must be between 1 and 12");
+        }
+        return month;
+    }
+
+    private static BigDecimal amount(long paise) {
+        return Money.toDecimal(paise);
+    }
+
+    private void error(String message) {
+        printQuietly("error: " + message + "\n");
+    }
+
+    private void printQuietly(String text) {
+        try {
+            err.write(text);
+        } catch (IOException e) {
+            // stderr is gone; nothing left to report to
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package cli;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes machine-readable records with a fixed set of columns, as CSV (one header line,
+ * then one line per record) or as JSON lines (one object per record).
+ * Numbers and booleans are written as is, other values as strings; null is empty in CSV
+ * and null in JSON.
+ */
+abstract class RecordWriter {
+
+    protected final Writer out;
+    protected final String[] columns;
+
+    private RecordWriter(Writer out, String[] columns) {
+        this.out = out;
+        this.columns = columns;
+    }
+
+    static RecordWriter create(String format, Writer out, String... columns) throws IOException {
+        switch (format) {
+            case "csv":
+                return new Csv(out, columns);
+            case "jsonl":
+                return new JsonLines(out, columns);
+            default:
+                throw new UsageException("Unknown format: " + format + " (expected csv or jsonl)");
+        }
+    }
+
+    /**
+     * Write one record; values are in column order
+     */
+    abstract void write(Object... values) throws IOException;
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    private static final class Csv extends RecordWriter {
+        private Csv(Writer out, String[] columns) throws IOException {
+            super(out, columns);
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(columns[i]);
+            }
+            out.write('\n');
+        }
+
+        @Override
+        void write(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                Object value = values[i];
+                if (value != null) {
+                    String text = value.toString();
+                    if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                        out.write('"');
+                        out.write(text.replace("\"", "\"\""));
+                        out.write('"');
+                    } else {
+                        out.write(text);
+                    }
+                }
+            }
+            out.write('\n');
+        }
+    }
+
+    private static final class JsonLines extends RecordWriter {
+        private JsonLines(Writer out, String[] columns) {
+            super(out, columns);
+        }
+
+        @Override
+        void write(Object... values) throws IOException {
+            out.write('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeString(columns[i]);
+                out.write(':');
+                Object value = values[i];
+                if (value == null) {
+                    out.write("null");
+                } else if (value instanceof Number || value instanceof Boolean) {
+                    out.write(value.toString());
+                } else {
+                    writeString(value.toString());
+                }
+            }
+            out.write("}\n");
+        }
+
+        private void writeString(String s) throws IOException {
+            out.write('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"':
+                        out.write("\\\"");
+                        break;
+                    case '\\':
+                        out.write("\\\\");
+                        break;
+                    case '\n':
+                        out.write("\\n");
+                        break;
+                    case '\r':
+                        out.write("\\r");
+                        break;
+                    case '\t':
+                        out.write("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            out.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.write(c);
+                        }
+                }
+            }
+            out.write('"');
+        }
+    }
+}
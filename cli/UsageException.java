@@ -0,0 +1,15 @@
+package cli;
+
+/**
+ * A command line that cannot be run as given: an unknown command or option value, or a
+ * missing option. BatchCli answers it with the usage text, unlike an IllegalArgumentException
+ * about the data the command read.
+ */
+final class UsageException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    UsageException(String message) {
+        super(message);
+    }
+}
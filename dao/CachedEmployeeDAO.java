@@ -0,0 +1,102 @@
+package dao;
+
+import model.Employee;
+import util.AppConfig;
+import util.BoundedCache;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * EmployeeDAO with a read-through cache of active employees keyed by empId.
+ * Writes made through this DAO invalidate the affected entry; changes made
+ * elsewhere become visible once the entry's time-to-live runs out.
+ */
+public class CachedEmployeeDAO extends EmployeeDAO {
+
+    private static final int CACHE_SIZE = AppConfig.getInt("cache.employee.maxSize", 100000);
+    private static final long CACHE_TTL_MILLIS = AppConfig.getLong("cache.employee.ttlSeconds", 300) * 1000L;
+
+    private final BoundedCache<Integer, Employee> cache;
+
+    public CachedEmployeeDAO() {
+        this(new BoundedCache<>(CACHE_SIZE, CACHE_TTL_MILLIS));
+    }
+
+    public CachedEmployeeDAO(BoundedCache<Integer, Employee> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Get employee by ID, from the cache when possible.
+     * Returns a copy so callers cannot change the cached instance.
+     * A row read while a write invalidated the cache is returned but not cached,
+     * since it may be the row from before that write.
+     */
+    @Override
+    public Employee getEmployeeById(int empId) throws SQLException {
+        Employee employee = cache.get(empId);
+        if (employee == null) {
+            long generation = cache.generation();
+            employee = super.getEmployeeById(empId);
+            if (employee == null) {
+                return null;
+            }
+            cache.putIfGeneration(empId, employee, generation);
+        }
+        return new Employee(employee);
+    }
+
+    @Override
+    public boolean employeeExists(int empId) throws SQLException {
+        return getEmployeeById(empId) != null;
+    }
+
+    @Override
+    public boolean addEmployee(Employee emp) throws SQLException {
+        try {
+            return super.addEmployee(emp);
+        } finally {
+            cache.invalidate(emp.getEmpId());
+        }
+    }
+
+    @Override
+    public boolean updateEmployeeSalary(int empId, long baseSalary, long hra, long allowance) throws SQLException {
+        try {
+            return super.updateEmployeeSalary(empId, baseSalary, hra, allowance);
+        } finally {
+            cache.invalidate(empId);
+        }
+    }
+
+    @Override
+    public boolean deleteEmployee(int empId) throws SQLException {
+        try {
+            return super.deleteEmployee(empId);
+        } finally {
+            cache.invalidate(empId);
+        }
+    }
+
+    /**
+     * Upserts overwrite rows by email, so any cached employee may be stale afterwards
+     */
+    @Override
+    public EmployeeBatchResult importEmployees(List<Employee> employees, boolean upsert) throws SQLException {
+        try {
+            return super.importEmployees(employees, upsert);
+        } finally {
+            if (upsert) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * The underlying cache, for its hit/miss/eviction counters
+     */
+    public BoundedCache<Integer, Employee> getCache() {
+        return cache;
+    }
+}
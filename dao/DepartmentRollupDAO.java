@@ -0,0 +1,268 @@
+package dao;
+
+import model.Payslip;
+import model.PayrollTotals;
+import util.AppConfig;
+import util.DaoMetrics;
+import util.DBConnection;
+import util.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Payslip totals per (department, month, year) in the department_payroll_rollup table, plus an
+ * in-memory mirror of it shared by the whole process.
+ * PayrollDAO and PayrollRunDAO update the table in the same transaction that inserts the payslips,
+ * so it always agrees with the payslips table. A payslip counts towards the department stored on
+ * it, its employee's department when it was saved, so moving an employee later (or rebuilding the
+ * rollups after that) leaves the totals of past months as they were. After commit the month is
+ * dropped from the mirror and reloaded on next use, and reads are answered from memory. Months loaded by this process are reloaded after rollup.mirror.ttlSeconds so writes by
+ * other processes show up.
+ */
+public class DepartmentRollupDAO {
+
+    private static final int ID_CHUNK_SIZE = Math.max(1, AppConfig.getInt("payroll.batch.size", 500));
+    private static final long MIRROR_TTL_NANOS = AppConfig.getLong("rollup.mirror.ttlSeconds", 60) * 1_000_000_000L;
+
+    private static final String ADD_TOTALS = " ON DUPLICATE KEY UPDATE headcount = headcount + VALUES(headcount), "
+            + "total_gross = total_gross + VALUES(total_gross), total_income_tax = total_income_tax + VALUES(total_income_tax), "
+            + "total_provident_fund = total_provident_fund + VALUES(total_provident_fund), "
+            + "total_deductions = total_deductions + VALUES(total_deductions), total_net = total_net + VALUES(total_net)";
+    private static final String INSERT_ROLLUP = "INSERT INTO department_payroll_rollup(department, month, year, headcount, "
+            + "total_gross, total_income_tax, total_provident_fund, total_deductions, total_net) ";
+    private static final String AGGREGATE_PAYSLIPS = "SELECT p.department, p.month, p.year, COUNT(*), SUM(p.gross_salary), "
+            + "SUM(p.income_tax), SUM(p.provident_fund), SUM(p.total_deductions), SUM(p.net_salary) "
+            + "FROM payslips p ";
+
+    private static final DaoMetrics.Operation GET_MONTH = DaoMetrics.operation("DepartmentRollupDAO.loadMonth");
+    private static final DaoMetrics.Operation REBUILD = DaoMetrics.operation("DepartmentRollupDAO.rebuild");
+
+    private static final ConcurrentHashMap<Integer, MonthRollup> MIRROR = new ConcurrentHashMap<>();
+    // Bumped on every change to the mirror, so a load that raced with a change is not installed
+    private static final AtomicLong MIRROR_VERSION = new AtomicLong();
+
+    /**
+     * Department totals for a month in department order; empty if nothing has been paid.
+     * Served from memory once the month has been loaded.
+     */
+    public List<PayrollTotals> getMonth(int month, int year) throws SQLException {
+        return mirrored(month, year).snapshot();
+    }
+
+    /**
+     * Totals of one department for a month, or null if nothing was paid to it
+     */
+    public PayrollTotals getDepartmentMonth(String department, int month, int year) throws SQLException {
+        return mirrored(month, year).get(department);
+    }
+
+    private MonthRollup mirrored(int month, int year) throws SQLException {
+        MonthRollup rollup = MIRROR.get(key(month, year));
+        if (rollup == null || System.nanoTime() - rollup.loadedAt > MIRROR_TTL_NANOS) {
+            rollup = loadMonth(month, year);
+        }
+        return rollup;
+    }
+
+    /**
+     * Recompute every rollup row from the payslips table, for repair
+     *
+     * @return the number of rollup rows written
+     */
+    public int rebuild() throws SQLException {
+        return rebuild("DELETE FROM department_payroll_rollup",
+                INSERT_ROLLUP + AGGREGATE_PAYSLIPS + "GROUP BY p.department, p.month, p.year", -1);
+    }
+
+    /**
+     * Recompute the rollup rows of one year from the payslips table
+     *
+     * @return the number of rollup rows written
+     */
+    public int rebuild(int year) throws SQLException {
+        return rebuild("DELETE FROM department_payroll_rollup WHERE year = ?",
+                INSERT_ROLLUP + AGGREGATE_PAYSLIPS + "WHERE p.year = ? GROUP BY p.department, p.month, p.year", year);
+    }
+
+    private int rebuild(String deleteSql, String insertSql, int year) throws SQLException {
+        long start = REBUILD.start();
+        int rows;
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement delete = con.prepareStatement(deleteSql);
+                 PreparedStatement insert = con.prepareStatement(insertSql)) {
+                if (year >= 0) {
+                    delete.setInt(1, year);
+                    insert.setInt(1, year);
+                }
+                delete.executeUpdate();
+                rows = insert.executeUpdate();
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            REBUILD.failure(start);
+            System.err.println("Error rebuilding department rollups: " + e.getMessage());
+            throw e;
+        }
+        MIRROR_VERSION.incrementAndGet();
+        MIRROR.clear();
+        REBUILD.success(start, rows);
+        return rows;
+    }
+
+    /**
+     * Add a payslip being inserted on con to its department, in the caller's transaction
+     */
+    void addPayslip(Connection con, Payslip payslip) throws SQLException {
+        String sql = INSERT_ROLLUP + "VALUES (?, ?, ?, 1, ?, ?, ?, ?, ?)" + ADD_TOTALS;
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setString(1, payslip.getDepartment());
+            ps.setInt(2, payslip.getMonth());
+            ps.setInt(3, payslip.getYear());
+            ps.setBigDecimal(4, Money.toDecimal(payslip.getGrossSalaryPaise()));
+            ps.setBigDecimal(5, Money.toDecimal(payslip.getIncomeTaxPaise()));
+            ps.setBigDecimal(6, Money.toDecimal(payslip.getProvidentFundPaise()));
+            ps.setBigDecimal(7, Money.toDecimal(payslip.getTotalDeductionsPaise()));
+            ps.setBigDecimal(8, Money.toDecimal(payslip.getNetSalaryPaise()));
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Add payslips inserted on con, identified by their generated IDs, in the caller's transaction.
+     * Totals are aggregated in the database, one statement per chunk of IDs.
+     */
+    void addPayslips(Connection con, List<Payslip> payslips) throws SQLException {
+        for (int from = 0; from < payslips.size(); from += ID_CHUNK_SIZE) {
+            List<Payslip> chunk = payslips.subList(from, Math.min(from + ID_CHUNK_SIZE, payslips.size()));
+            StringBuilder sql = new StringBuilder(INSERT_ROLLUP).append(AGGREGATE_PAYSLIPS).append("WHERE p.payslip_id IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+            }
+            sql.append(") GROUP BY p.department, p.month, p.year").append(ADD_TOTALS);
+
+            try (PreparedStatement ps = con.prepareStatement(sql.toString())) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    ps.setInt(i + 1, chunk.get(i).getPayslipId());
+                }
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Recompute one month's rollup rows from its payslips, in the caller's transaction
+     */
+    void rebuildMonth(Connection con, int month, int year) throws SQLException {
+        try (PreparedStatement delete = con.prepareStatement(
+                "DELETE FROM department_payroll_rollup WHERE month = ? AND year = ?");
+             PreparedStatement insert = con.prepareStatement(
+                     INSERT_ROLLUP + AGGREGATE_PAYSLIPS + "WHERE p.month = ? AND p.year = ? GROUP BY p.department, p.month, p.year")) {
+            delete.setInt(1, month);
+            delete.setInt(2, year);
+            delete.executeUpdate();
+            insert.setInt(1, month);
+            insert.setInt(2, year);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Drop the months of committed payslips from the mirror, to be reloaded on next use
+     */
+    static void committed(List<Payslip> payslips) {
+        Set<Integer> months = new HashSet<>();
+        for (Payslip payslip : payslips) {
+            months.add(key(payslip.getMonth(), payslip.getYear()));
+        }
+        MIRROR_VERSION.incrementAndGet();
+        MIRROR.keySet().removeAll(months);
+    }
+
+    /**
+     * Drop a month whose rollup rows changed in the database from the mirror
+     */
+    static void invalidate(int month, int year) {
+        MIRROR_VERSION.incrementAndGet();
+        MIRROR.remove(key(month, year));
+    }
+
+    private MonthRollup loadMonth(int month, int year) throws SQLException {
+        String sql = "SELECT department, headcount, total_gross, total_income_tax, total_provident_fund, total_deductions, "
+                + "total_net FROM department_payroll_rollup WHERE month = ? AND year = ? ORDER BY department";
+        long version = MIRROR_VERSION.get();
+        MonthRollup rollup = new MonthRollup();
+        long start = GET_MONTH.start();
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            ps.setInt(1, month);
+            ps.setInt(2, year);
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next()) {
+                rollup.departments.put(rs.getString(1), new PayrollTotals(rs.getString(1), rs.getInt(2),
+                        Money.fromDecimal(rs.getBigDecimal(3)), Money.fromDecimal(rs.getBigDecimal(4)),
+                        Money.fromDecimal(rs.getBigDecimal(5)), Money.fromDecimal(rs.getBigDecimal(6)),
+                        Money.fromDecimal(rs.getBigDecimal(7))));
+            }
+        } catch (SQLException e) {
+            GET_MONTH.failure(start);
+            System.err.println("Error loading department rollups: " + e.getMessage());
+            throw e;
+        }
+        GET_MONTH.success(start, rollup.departments.size());
+
+        // A payslip committed while we were reading may or may not be in what we read
+        if (MIRROR_VERSION.get() == version) {
+            MIRROR.put(key(month, year), rollup);
+        }
+        return rollup;
+    }
+
+    private static int key(int month, int year) {
+        return year * 100 + month;
+    }
+
+    /**
+     * Mirror of one month's rollup rows, keyed by department in department order
+     */
+    private static final class MonthRollup {
+        private final long loadedAt = System.nanoTime();
+        private final Map<String, PayrollTotals> departments = new LinkedHashMap<>();
+
+        private synchronized PayrollTotals get(String department) {
+            PayrollTotals totals = departments.get(department);
+            return totals == null ? null : copy(totals);
+        }
+
+        private synchronized List<PayrollTotals> snapshot() {
+            List<PayrollTotals> copy = new ArrayList<>(departments.size());
+            for (PayrollTotals totals : departments.values()) {
+                copy.add(copy(totals));
+            }
+            return copy;
+        }
+
+        private static PayrollTotals copy(PayrollTotals totals) {
+            return new PayrollTotals(totals.getDepartment(), totals.getPayslipCount(), totals.getTotalGrossPaise(),
+                    totals.getTotalIncomeTaxPaise(), totals.getTotalProvidentFundPaise(),
+                    totals.getTotalDeductionsPaise(), totals.getTotalNetPaise());
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package dao;
+
+import model.Employee;
+import store.LogTable;
+import store.Records;
+import util.AppConfig;
+import util.DaoMetrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * EmployeeRepository on the embedded backend (see EmbeddedStorage). Every change appends the
+ * whole employee to employees.log; employees.idx maps each emp_id to its latest version and
+ * whether it is active, so lookups and existence checks read no more than one record.
+ * Emails and departments of all employees are kept in memory, loaded when the storage opens.
+ * Salary changes are not audited (SalaryAuditWriter writes to MySQL), but every earlier
+ * version of an employee stays in the log.
+ */
+public class EmbeddedEmployeeDAO implements EmployeeRepository {
+
+    static final String TABLE = "employees";
+    static final int ENTRY_WIDTH = 16;
+    // Index entry: record offset (LogTable), then 1 if the employee is active
+    private static final int ACTIVE = 8;
+    private static final byte EMPLOYEE_RECORD = 1;
+
+    private static final int STREAM_PAGE_SIZE = Math.max(1, AppConfig.getInt("payroll.stream.pageSize", 1000));
+
+    private static final DaoMetrics.Operation ADD_EMPLOYEE = DaoMetrics.operation("EmbeddedEmployeeDAO.addEmployee");
+    private static final DaoMetrics.Operation UPDATE_SALARY = DaoMetrics.operation("EmbeddedEmployeeDAO.updateEmployeeSalary");
+    private static final DaoMetrics.Operation GET_BY_ID = DaoMetrics.operation("EmbeddedEmployeeDAO.getEmployeeById");
+    private static final DaoMetrics.Operation GET_ALL = DaoMetrics.operation("EmbeddedEmployeeDAO.getAllEmployees");
+    private static final DaoMetrics.Operation GET_PAGE = DaoMetrics.operation("EmbeddedEmployeeDAO.getActiveEmployeesPage");
+    private static final DaoMetrics.Operation GET_UNPAID_PAGE = DaoMetrics.operation("EmbeddedEmployeeDAO.getUnpaidEmployeesPage");
+    private static final DaoMetrics.Operation DELETE = DaoMetrics.operation("EmbeddedEmployeeDAO.deleteEmployee");
+    private static final DaoMetrics.Operation EXISTS = DaoMetrics.operation("EmbeddedEmployeeDAO.employeeExists");
+    private static final DaoMetrics.Operation IMPORT = DaoMetrics.operation("EmbeddedEmployeeDAO.importEmployees");
+
+    private final LogTable table;
+    private final ReadWriteLock lock;
+    // Lower-cased email of every employee, active or not, to its emp_id
+    private final Map<String, Integer> emails = new HashMap<>();
+    // Current department of every employee, which their payslips are totalled under
+    private final Map<Integer, String> departments = new HashMap<>();
+    private int lastEmpId;
+    private EmbeddedPayrollDAO payslips;
+
+    EmbeddedEmployeeDAO(LogTable table, ReadWriteLock lock) throws IOException {
+        this.table = table;
+        this.lock = lock;
+        for (int empId = 1; empId < table.capacity(); empId++) {
+            long offset = table.offsetOf(empId);
+            if (offset >= 0) {
+                remember(decode(table.read(offset)));
+            }
+        }
+    }
+
+    void setPayslips(EmbeddedPayrollDAO payslips) {
+        this.payslips = payslips;
+    }
+
+    /**
+     * Index an employee record read back from the log during recovery
+     */
+    static void index(LogTable table, long offset, ByteBuffer record) throws IOException {
+        Employee employee = decode(record);
+        table.setOffset(employee.getEmpId(), offset);
+        table.putInt(employee.getEmpId(), ACTIVE, employee.isActive() ? 1 : 0);
+    }
+
+    /**
+     * Add a new employee and set its generated ID. A second employee with the same email
+     * (in any case) is rejected with a duplicate key SQLException.
+     */
+    public boolean addEmployee(Employee emp) throws SQLException {
+        long start = ADD_EMPLOYEE.start();
+        lock.writeLock().lock();
+        try {
+            checkNotNull(emp);
+            if (emails.containsKey(emp.getEmail().toLowerCase(Locale.ROOT))) {
+                throw EmbeddedStorage.duplicateKey(emp.getEmail(), "email");
+            }
+            Employee stored = new Employee(emp);
+            stored.setEmpId(lastEmpId + 1);
+            write(Collections.singletonList(stored));
+            emp.setEmpId(stored.getEmpId());
+            ADD_EMPLOYEE.success(start, 1);
+            return true;
+        } catch (SQLException e) {
+            ADD_EMPLOYEE.failure(start);
+            System.err.println("Error adding employee: " + e.getMessage());
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Update an active employee's salary details by appending a new version of the employee
+     */
+    public boolean updateEmployeeSalary(int empId, long baseSalary, long hra, long allowance) throws SQLException {
+        long start = UPDATE_SALARY.start();
+        lock.writeLock().lock();
+        try {
+            Employee employee = activeEmployee(empId);
+            if (employee == null) {
+                UPDATE_SALARY.success(start, 0);
+                return false;
+            }
+            employee.setBaseSalaryPaise(baseSalary);
+            employee.setHraPaise(hra);
+            employee.setAllowancePaise(allowance);
+            write(Collections.singletonList(employee));
+            UPDATE_SALARY.success(start, 1);
+            return true;
+        } catch (SQLException e) {
+            UPDATE_SALARY.failure(start);
+            System.err.println("Error updating salary: " + e.getMessage());
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get employee by ID
+     */
+    public Employee getEmployeeById(int empId) throws SQLException {
+        long start = GET_BY_ID.start();
+        lock.readLock().lock();
+        try {
+            Employee employee = activeEmployee(empId);
+            GET_BY_ID.success(start, employee == null ? 0 : 1);
+            return employee;
+        } catch (SQLException e) {
+            GET_BY_ID.failure(start);
+            System.err.println("Error fetching employee: " + e.getMessage());
+            throw e;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get all active employees.
+     * Loads them all into memory; prefer streamActiveEmployees or getActiveEmployeesPage.
+     */
+    public List<Employee> getAllEmployees() throws SQLException {
+        long start = GET_ALL.start();
+        try {
+            List<Employee> employees = page(0, Integer.MAX_VALUE, 0, 0);
+            GET_ALL.success(start, employees.size());
+            return employees;
+        } catch (SQLException e) {
+            GET_ALL.failure(start);
+            System.err.println("Error fetching employees: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Get one page of active employees with emp_id greater than afterEmpId, in emp_id order.
+     * Pass 0 for the first page and the last emp_id of a page to get the next one.
+     */
+    public List<Employee> getActiveEmployeesPage(int afterEmpId, int pageSize) throws SQLException {
+        long start = GET_PAGE.start();
+        try {
+            List<Employee> employees = page(afterEmpId, pageSize, 0, 0);
+            GET_PAGE.success(start, employees.size());
+            return employees;
+        } catch (SQLException e) {
+            GET_PAGE.failure(start);
+            System.err.println("Error fetching employee page: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Pass every active employee to the consumer, one page at a time.
+     * The consumer runs without the storage lock held, so it may write.
+     */
+    public void forEachActiveEmployee(Consumer<Employee> consumer) throws SQLException {
+        int lastEmpId = 0;
+        List<Employee> page;
+        do {
+            page = getActiveEmployeesPage(lastEmpId, STREAM_PAGE_SIZE);
+            for (Employee employee : page) {
+                consumer.accept(employee);
+            }
+            if (!page.isEmpty()) {
+                lastEmpId = page.get(page.size() - 1).getEmpId();
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+    }
+
+    /**
+     * Pass every active employee without a payslip for the month to the consumer, one page at a time.
+     * Payslips are looked up in the in-memory month index, so only unpaid employees are read.
+     */
+    public void forEachUnpaidEmployee(int month, int year, Consumer<Employee> consumer) throws SQLException {
+        int lastEmpId = 0;
+        List<Employee> page;
+        do {
+            long start = GET_UNPAID_PAGE.start();
+            try {
+                page = page(lastEmpId, STREAM_PAGE_SIZE, month, year);
+                GET_UNPAID_PAGE.success(start, page.size());
+            } catch (SQLException e) {
+                GET_UNPAID_PAGE.failure(start);
+                System.err.println("Error fetching unpaid employees: " + e.getMessage());
+                throw e;
+            }
+            for (Employee employee : page) {
+                consumer.accept(employee);
+            }
+            if (!page.isEmpty()) {
+                lastEmpId = page.get(page.size() - 1).getEmpId();
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+    }
+
+    /**
+     * Up to pageSize active employees with emp_id greater than afterEmpId, in emp_id order;
+     * with a month other than 0, only those without a payslip for it
+     */
+    private List<Employee> page(int afterEmpId, int pageSize, int month, int year) throws SQLException {
+        List<Employee> employees = new ArrayList<>(Math.min(pageSize, 1024));
+        lock.readLock().lock();
+        try {
+            for (int empId = Math.max(afterEmpId, 0) + 1; empId <= lastEmpId && employees.size() < pageSize; empId++) {
+                if (table.getInt(empId, ACTIVE) == 1 && (month == 0 || !payslips.isPaid(empId, month, year))) {
+                    employees.add(read(table.offsetOf(empId)));
+                }
+            }
+            return employees;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Soft delete employee (mark as inactive)
+     */
+    public boolean deleteEmployee(int empId) throws SQLException {
+        long start = DELETE.start();
+        lock.writeLock().lock();
+        try {
+            long offset = empId > 0 ? table.offsetOf(empId) : -1;
+            if (offset < 0) {
+                DELETE.success(start, 0);
+                return false;
+            }
+            if (table.getInt(empId, ACTIVE) == 1) {
+                Employee employee = read(offset);
+                employee.setActive(false);
+                write(Collections.singletonList(employee));
+            }
+            DELETE.success(start, 1);
+            return true;
+        } catch (SQLException e) {
+            DELETE.failure(start);
+            System.err.println("Error deleting employee: " + e.getMessage());
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Check if employee exists, from the index alone
+     */
+    public boolean employeeExists(int empId) throws SQLException {
+        long start = EXISTS.start();
+        lock.readLock().lock();
+        try {
+            boolean exists = empId > 0 && table.getInt(empId, ACTIVE) == 1;
+            EXISTS.success(start, exists ? 1 : 0);
+            return exists;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write employees in one append, so the import is all or nothing. Emails are unique
+     * regardless of case: with upsert, an employee whose email already exists overwrites
+     * (and reactivates) that employee, keeping its emp_id and email; without it, the
+     * employee is reported as a duplicate and not written. Generated IDs are not set on the employees.
+     */
+    public EmployeeBatchResult importEmployees(List<Employee> employees, boolean upsert) throws SQLException {
+        EmployeeBatchResult result = new EmployeeBatchResult();
+        if (employees.isEmpty()) {
+            return result;
+        }
+
+        long start = IMPORT.start();
+        lock.writeLock().lock();
+        try {
+            // Versions to write by emp_id, so a later line for the same email replaces an earlier one
+            Map<Integer, Employee> versions = new HashMap<>();
+            Map<String, Integer> imported = new HashMap<>();
+            int nextEmpId = lastEmpId + 1;
+            for (Employee employee : employees) {
+                checkNotNull(employee);
+                String email = employee.getEmail().toLowerCase(Locale.ROOT);
+                Integer empId = imported.containsKey(email) ? imported.get(email) : emails.get(email);
+                if (empId != null && !upsert) {
+                    result.addDuplicate(employee);
+                    continue;
+                }
+                Employee stored = new Employee(employee);
+                if (empId != null) {
+                    result.addUpdated(employee);
+                    Employee previous = versions.containsKey(empId) ? versions.get(empId) : read(table.offsetOf(empId));
+                    stored.setEmail(previous.getEmail());
+                } else {
+                    result.addInserted(employee);
+                    empId = nextEmpId++;
+                    imported.put(email, empId);
+                }
+                stored.setEmpId(empId);
+                versions.put(empId, stored);
+            }
+            List<Employee> written = new ArrayList<>(versions.values());
+            written.sort((a, b) -> Integer.compare(a.getEmpId(), b.getEmpId()));
+            write(written);
+            IMPORT.success(start, result.getInserted().size() + result.getUpdated().size());
+            return result;
+        } catch (SQLException e) {
+            IMPORT.failure(start);
+            System.err.println("Error importing employees: " + e.getMessage());
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The active employee with the ID, or null; the caller holds the lock
+     */
+    Employee activeEmployee(int empId) throws SQLException {
+        if (empId <= 0 || table.getInt(empId, ACTIVE) != 1) {
+            return null;
+        }
+        return read(table.offsetOf(empId));
+    }
+
+    /**
+     * Whether an employee with the ID was ever added, active or not, as the payslips'
+     * foreign key requires; the caller holds the lock
+     */
+    boolean exists(int empId) {
+        return departments.containsKey(empId);
+    }
+
+    /**
+     * Reject a missing value in a column the employees table declares NOT NULL
+     */
+    private static void checkNotNull(Employee employee) throws SQLException {
+        if (employee.getName() == null) {
+            throw EmbeddedStorage.columnNull("name");
+        }
+        if (employee.getEmail() == null) {
+            throw EmbeddedStorage.columnNull("email");
+        }
+        if (employee.getDepartment() == null) {
+            throw EmbeddedStorage.columnNull("department");
+        }
+        if (employee.getDesignation() == null) {
+            throw EmbeddedStorage.columnNull("designation");
+        }
+        if (employee.getJoinDate() == null) {
+            throw EmbeddedStorage.columnNull("join_date");
+        }
+    }
+
+    /**
+     * The employee's current department, active or not; the caller holds the lock
+     */
+    String departmentOf(int empId) {
+        return departments.get(empId);
+    }
+
+    private Employee read(long offset) throws SQLException {
+        try {
+            return decode(table.read(offset));
+        } catch (IOException e) {
+            throw EmbeddedStorage.storageError(e);
+        }
+    }
+
+    /**
+     * Append the employees in one frame and index them; the caller holds the write lock
+     */
+    private void write(List<Employee> employees) throws SQLException {
+        if (employees.isEmpty()) {
+            return;
+        }
+        List<byte[]> records = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            records.add(encode(employee));
+        }
+        try {
+            long[] offsets = table.append(records);
+            for (int i = 0; i < offsets.length; i++) {
+                Employee employee = employees.get(i);
+                table.setOffset(employee.getEmpId(), offsets[i]);
+                table.putInt(employee.getEmpId(), ACTIVE, employee.isActive() ? 1 : 0);
+                remember(employee);
+            }
+            table.appended();
+        } catch (IOException e) {
+            throw EmbeddedStorage.storageError(e);
+        }
+    }
+
+    private void remember(Employee employee) {
+        emails.put(employee.getEmail().toLowerCase(Locale.ROOT), employee.getEmpId());
+        departments.put(employee.getEmpId(), employee.getDepartment());
+        lastEmpId = Math.max(lastEmpId, employee.getEmpId());
+    }
+
+    private static byte[] encode(Employee employee) {
+        byte[] name = Records.utf8(employee.getName());
+        byte[] email = Records.utf8(employee.getEmail());
+        byte[] department = Records.utf8(employee.getDepartment());
+        byte[] designation = Records.utf8(employee.getDesignation());
+        byte[] joinDate = Records.utf8(employee.getJoinDate());
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + Records.sizeOf(name) + Records.sizeOf(email)
+                + Records.sizeOf(department) + Records.sizeOf(designation) + Records.sizeOf(joinDate) + 3 * 8 + 1);
+        buffer.put(EMPLOYEE_RECORD).putInt(employee.getEmpId());
+        Records.putString(buffer, name);
+        Records.putString(buffer, email);
+        Records.putString(buffer, department);
+        Records.putString(buffer, designation);
+        Records.putString(buffer, joinDate);
+        buffer.putLong(employee.getBaseSalaryPaise()).putLong(employee.getHraPaise()).putLong(employee.getAllowancePaise());
+        buffer.put((byte) (employee.isActive() ? 1 : 0));
+        return buffer.array();
+    }
+
+    private static Employee decode(ByteBuffer record) throws IOException {
+        if (record.get() != EMPLOYEE_RECORD) {
+            throw new IOException("Not an employee record");
+        }
+        Employee employee = new Employee();
+        employee.setEmpId(record.getInt());
+        employee.setName(Records.getString(record));
+        employee.setEmail(Records.getString(record));
+        employee.setDepartment(Records.getString(record));
+        employee.setDesignation(Records.getString(record));
+        employee.setJoinDate(Records.getString(record));
+        employee.setBaseSalaryPaise(record.getLong());
+        employee.setHraPaise(record.getLong());
+        employee.setAllowancePaise(record.getLong());
+        employee.setActive(record.get() == 1);
+        return employee;
+    }
+}
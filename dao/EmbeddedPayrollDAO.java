@@ -0,0 +1,653 @@
+package dao;
+
+import model.Employee;
+import model.Payslip;
+import model.PayrollTotals;
+import model.PayslipSummary;
+import model.YearToDate;
+import store.IntIndex;
+import store.LogTable;
+import store.Records;
+import util.DaoMetrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * PayslipRepository on the embedded backend (see EmbeddedStorage). Payslips are appended to
+ * payslips.log together with the department their employee was in when they were saved;
+ * payslips.idx maps each payslip_id to its record, emp_id and month. When the storage opens,
+ * two in-memory indexes are built from payslips.idx without reading the log: each month's
+ * payslips by emp_id (month scans, the unique employee/month key) and each employee's
+ * payslips by month (history pages, year-to-date totals).
+ * Department totals are summed from a month's payslips on first use and kept until the month
+ * changes; year-to-date totals are summed on each read from at most twelve payslips.
+ */
+public class EmbeddedPayrollDAO implements PayslipRepository {
+
+    static final String TABLE = "payslips";
+    static final int ENTRY_WIDTH = 16;
+    // Index entry: record offset (LogTable), emp_id, then year * 100 + month
+    private static final int EMP_ID = 8;
+    private static final int PERIOD = 12;
+    private static final byte PAYSLIP_RECORD = 2;
+    private static final int RECORD_SIZE = 1 + 4 * 4 + 10 * 8;
+
+    private static final DaoMetrics.Operation SAVE_PAYSLIP = DaoMetrics.operation("EmbeddedPayrollDAO.savePayslip");
+    private static final DaoMetrics.Operation CREATE_PAYSLIP = DaoMetrics.operation("EmbeddedPayrollDAO.createPayslip");
+    private static final DaoMetrics.Operation SAVE_PAYSLIPS = DaoMetrics.operation("EmbeddedPayrollDAO.savePayslips");
+    private static final DaoMetrics.Operation GET_BY_ID = DaoMetrics.operation("EmbeddedPayrollDAO.getPayslipById");
+    private static final DaoMetrics.Operation GET_BY_EMPLOYEE = DaoMetrics.operation("EmbeddedPayrollDAO.getPayslipsByEmployeeId");
+    private static final DaoMetrics.Operation GET_HISTORY_PAGE = DaoMetrics.operation("EmbeddedPayrollDAO.getPayslipHistoryPage");
+    private static final DaoMetrics.Operation GET_BY_MONTH = DaoMetrics.operation("EmbeddedPayrollDAO.getPayslipsByMonthAndYear");
+    private static final DaoMetrics.Operation GET_MONTH_PAGE = DaoMetrics.operation("EmbeddedPayrollDAO.getPayslipsByMonthPage");
+    private static final DaoMetrics.Operation STREAM_BY_MONTH = DaoMetrics.operation("EmbeddedPayrollDAO.forEachPayslipByMonthAndYear");
+    private static final DaoMetrics.Operation GET_DEPARTMENT_TOTALS = DaoMetrics.operation("EmbeddedPayrollDAO.getDepartmentTotals");
+    private static final DaoMetrics.Operation GET_YTD = DaoMetrics.operation("EmbeddedPayrollDAO.getYearToDate");
+
+    private final LogTable table;
+    private final ReadWriteLock lock;
+    private final EmbeddedEmployeeDAO employees;
+    // year * 100 + month -> emp_id -> payslip_id
+    private final Map<Integer, IntIndex> months = new HashMap<>();
+    // emp_id -> year * 100 + month -> payslip_id
+    private final Map<Integer, IntIndex> histories = new HashMap<>();
+    // year * 100 + month -> department totals, dropped when a payslip of the month is saved
+    private final Map<Integer, List<PayrollTotals>> departmentTotals = new ConcurrentHashMap<>();
+    private int lastPayslipId;
+
+    EmbeddedPayrollDAO(LogTable table, ReadWriteLock lock, EmbeddedEmployeeDAO employees) {
+        this.table = table;
+        this.lock = lock;
+        this.employees = employees;
+        for (int payslipId = 1; payslipId < table.capacity(); payslipId++) {
+            if (table.offsetOf(payslipId) >= 0) {
+                remember(payslipId, table.getInt(payslipId, EMP_ID), table.getInt(payslipId, PERIOD));
+            }
+        }
+    }
+
+    /**
+     * Index a payslip record read back from the log during recovery
+     */
+    static void index(LogTable table, long offset, ByteBuffer record) throws IOException {
+        Payslip payslip = decode(record);
+        table.setOffset(payslip.getPayslipId(), offset);
+        table.putInt(payslip.getPayslipId(), EMP_ID, payslip.getEmpId());
+        table.putInt(payslip.getPayslipId(), PERIOD, period(payslip.getMonth(), payslip.getYear()));
+    }
+
+    /**
+     * Save payslip and set its generated ID; a second payslip for the employee and month is
+     * rejected with a duplicate key SQLException
+     */
+    public boolean savePayslip(Payslip payslip) throws SQLException {
+        long start = SAVE_PAYSLIP.start();
+        lock.writeLock().lock();
+        try {
+            if (isPaid(payslip.getEmpId(), payslip.getMonth(), payslip.getYear())) {
+                throw duplicate(payslip);
+            }
+            write(Collections.singletonList(payslip));
+            SAVE_PAYSLIP.success(start, 1);
+            return true;
+        } catch (SQLException e) {
+            SAVE_PAYSLIP.failure(start);
+            System.err.println("Error saving payslip: " + e.getMessage());
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fetch an active employee, compute the payslip with the calculator and save it, all under
+     * the write lock. Returns null if the employee does not exist.
+     */
+    public Payslip createPayslip(int empId, Function<Employee, Payslip> calculator) throws SQLException {
+        long start = CREATE_PAYSLIP.start();
+        lock.writeLock().lock();
+        try {
+            Employee employee = employees.activeEmployee(empId);
+            if (employee == null) {
+                CREATE_PAYSLIP.success(start, 0);
+                return null;
+            }
+            Payslip payslip = calculator.apply(employee);
+            if (isPaid(payslip.getEmpId(), payslip.getMonth(), payslip.getYear())) {
+                throw duplicate(payslip);
+            }
+            if (payslip.getDepartment() == null) {
+                payslip.setDepartment(employee.getDepartment());
+            }
+            write(Collections.singletonList(payslip));
+            CREATE_PAYSLIP.success(start, 1);
+            return payslip;
+        } catch (SQLException e) {
+            CREATE_PAYSLIP.failure(start);
+            if (!PayrollDAO.isDuplicateKey(e)) {
+                System.err.println("Error creating payslip: " + e.getMessage());
+            }
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Save payslips in one append, so the save is all or nothing. Generated payslip IDs are set
+     * on the saved payslips; payslips for an employee and month that already has one (or that
+     * appear twice in the list) are reported as duplicates.
+     */
+    public PayslipBatchResult savePayslips(List<Payslip> payslips) throws SQLException {
+        PayslipBatchResult result = new PayslipBatchResult();
+        if (payslips.isEmpty()) {
+            return result;
+        }
+
+        long start = SAVE_PAYSLIPS.start();
+        lock.writeLock().lock();
+        try {
+            List<Payslip> accepted = new ArrayList<>(payslips.size());
+            Set<Long> keys = new HashSet<>();
+            for (Payslip payslip : payslips) {
+                long key = (long) payslip.getEmpId() << 32 | period(payslip.getMonth(), payslip.getYear());
+                if (isPaid(payslip.getEmpId(), payslip.getMonth(), payslip.getYear()) || !keys.add(key)) {
+                    result.addDuplicate(payslip);
+                } else {
+                    accepted.add(payslip);
+                }
+            }
+            write(accepted);
+            for (Payslip payslip : accepted) {
+                result.addSaved(payslip);
+            }
+            SAVE_PAYSLIPS.success(start, result.getSavedCount());
+            return result;
+        } catch (SQLException e) {
+            SAVE_PAYSLIPS.failure(start);
+            System.err.println("Error saving payslip batch: " + e.getMessage());
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get payslip by ID, one index lookup and one read
+     */
+    public Payslip getPayslipById(int payslipId) throws SQLException {
+        long start = GET_BY_ID.start();
+        lock.readLock().lock();
+        try {
+            long offset = payslipId > 0 ? table.offsetOf(payslipId) : -1;
+            Payslip payslip = offset >= 0 ? read(offset) : null;
+            GET_BY_ID.success(start, payslip == null ? 0 : 1);
+            return payslip;
+        } catch (SQLException e) {
+            GET_BY_ID.failure(start);
+            System.err.println("Error fetching payslip: " + e.getMessage());
+            throw e;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get all payslips for an employee, newest first.
+     * Loads the whole history; prefer getPayslipHistoryPage.
+     */
+    public List<Payslip> getPayslipsByEmployeeId(int empId) throws SQLException {
+        long start = GET_BY_EMPLOYEE.start();
+        try {
+            List<Payslip> payslips = historyPage(empId, 0, 0, Integer.MAX_VALUE);
+            GET_BY_EMPLOYEE.success(start, payslips.size());
+            return payslips;
+        } catch (SQLException e) {
+            GET_BY_EMPLOYEE.failure(start);
+            System.err.println("Error fetching payslips: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Get one page of an employee's payslips for months before (beforeYear, beforeMonth), newest first,
+     * from the employee's in-memory history index
+     */
+    public List<Payslip> getPayslipHistoryPage(int empId, int beforeYear, int beforeMonth, int pageSize)
+            throws SQLException {
+        long start = GET_HISTORY_PAGE.start();
+        try {
+            List<Payslip> payslips = historyPage(empId, beforeYear, beforeMonth, pageSize);
+            GET_HISTORY_PAGE.success(start, payslips.size());
+            return payslips;
+        } catch (SQLException e) {
+            GET_HISTORY_PAGE.failure(start);
+            System.err.println("Error fetching payslip history: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Same page as getPayslipHistoryPage with only the list-view columns; the records are read whole
+     */
+    public List<PayslipSummary> getPayslipSummaryPage(int empId, int beforeYear, int beforeMonth, int pageSize)
+            throws SQLException {
+        List<PayslipSummary> summaries = new ArrayList<>();
+        for (Payslip payslip : getPayslipHistoryPage(empId, beforeYear, beforeMonth, pageSize)) {
+            summaries.add(summary(payslip));
+        }
+        return summaries;
+    }
+
+    private List<Payslip> historyPage(int empId, int beforeYear, int beforeMonth, int pageSize) throws SQLException {
+        List<Payslip> payslips = new ArrayList<>(Math.min(pageSize, 64));
+        lock.readLock().lock();
+        try {
+            IntIndex history = histories.get(empId);
+            if (history == null) {
+                return payslips;
+            }
+            int from = beforeYear == 0 ? history.size() - 1 : history.lowerPosition(period(beforeMonth, beforeYear));
+            for (int i = from; i >= 0 && payslips.size() < pageSize; i--) {
+                payslips.add(read(table.offsetOf(history.valueAt(i))));
+            }
+            return payslips;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get payslips for a specific month and year in emp_id order
+     */
+    public List<Payslip> getPayslipsByMonthAndYear(int month, int year) throws SQLException {
+        long start = GET_BY_MONTH.start();
+        List<Payslip> payslips = new ArrayList<>();
+        try {
+            for (long offset : monthOffsets(month, year)) {
+                payslips.add(read(offset));
+            }
+        } catch (SQLException e) {
+            GET_BY_MONTH.failure(start);
+            System.err.println("Error fetching payslips by month and year: " + e.getMessage());
+            throw e;
+        }
+        GET_BY_MONTH.success(start, payslips.size());
+        return payslips;
+    }
+
+    /**
+     * Get one page of a month's payslips with emp_id greater than afterEmpId, in emp_id order
+     */
+    public List<Payslip> getPayslipsByMonthPage(int month, int year, int afterEmpId, int pageSize) throws SQLException {
+        long start = GET_MONTH_PAGE.start();
+        List<Payslip> payslips = new ArrayList<>(Math.min(pageSize, 1024));
+        try {
+            for (long offset : monthOffsets(month, year, afterEmpId, pageSize)) {
+                payslips.add(read(offset));
+            }
+        } catch (SQLException e) {
+            GET_MONTH_PAGE.failure(start);
+            System.err.println("Error fetching payslip page by month and year: " + e.getMessage());
+            throw e;
+        }
+        GET_MONTH_PAGE.success(start, payslips.size());
+        return payslips;
+    }
+
+    /**
+     * Stream every payslip of a month to the consumer in emp_id order, reading one record at a time.
+     * The consumer runs without the storage lock held.
+     */
+    public void forEachPayslipByMonthAndYear(int month, int year, Consumer<Payslip> consumer) throws SQLException {
+        long start = STREAM_BY_MONTH.start();
+        try {
+            long[] offsets = monthOffsets(month, year);
+            for (long offset : offsets) {
+                consumer.accept(read(offset));
+            }
+            STREAM_BY_MONTH.success(start, offsets.length);
+        } catch (SQLException e) {
+            STREAM_BY_MONTH.failure(start);
+            System.err.println("Error streaming payslips by month and year: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Stream the list-view columns of every payslip of a month to the consumer in emp_id order
+     */
+    public void forEachPayslipSummaryByMonthAndYear(int month, int year, Consumer<PayslipSummary> consumer)
+            throws SQLException {
+        forEachPayslipByMonthAndYear(month, year, payslip -> consumer.accept(summary(payslip)));
+    }
+
+    private long[] monthOffsets(int month, int year) {
+        return monthOffsets(month, year, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Record offsets of up to limit of a month's payslips with emp_id greater than afterEmpId,
+     * in emp_id order. Records never move once written, so they can be read after the lock is released.
+     */
+    private long[] monthOffsets(int month, int year, int afterEmpId, int limit) {
+        lock.readLock().lock();
+        try {
+            IntIndex payslips = months.get(period(month, year));
+            if (payslips == null) {
+                return new long[0];
+            }
+            int from = afterEmpId == Integer.MAX_VALUE ? payslips.size() : payslips.lowerPosition(afterEmpId + 1) + 1;
+            long[] offsets = new long[Math.min(limit, payslips.size() - from)];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = table.offsetOf(payslips.valueAt(from + i));
+            }
+            return offsets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Check if payslip already exists for employee in a specific month/year, from memory
+     */
+    public boolean payslipExists(int empId, int month, int year) throws SQLException {
+        lock.readLock().lock();
+        try {
+            return isPaid(empId, month, year);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get IDs of employees who already have a payslip for a specific month/year, from memory
+     */
+    public Set<Integer> getPaidEmployeeIds(int month, int year) throws SQLException {
+        Set<Integer> empIds = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            IntIndex payslips = months.get(period(month, year));
+            for (int i = 0; payslips != null && i < payslips.size(); i++) {
+                empIds.add(payslips.keyAt(i));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return empIds;
+    }
+
+    /**
+     * Whether the employee has a payslip for the month; the caller holds the lock
+     */
+    boolean isPaid(int empId, int month, int year) {
+        IntIndex payslips = months.get(period(month, year));
+        return payslips != null && payslips.get(empId) >= 0;
+    }
+
+    /**
+     * Department totals for a month, summed from its payslips on first use and then served from memory
+     */
+    public List<PayrollTotals> getDepartmentTotals(int month, int year) throws SQLException {
+        List<PayrollTotals> totals = departmentTotals.get(period(month, year));
+        if (totals != null) {
+            return copy(totals);
+        }
+        long start = GET_DEPARTMENT_TOTALS.start();
+        lock.readLock().lock();
+        try {
+            totals = sumDepartments(month, year);
+            GET_DEPARTMENT_TOTALS.success(start, totals.size());
+            return copy(totals);
+        } catch (SQLException e) {
+            GET_DEPARTMENT_TOTALS.failure(start);
+            System.err.println("Error computing department totals: " + e.getMessage());
+            throw e;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sum a month's payslips per department and cache the result; the caller holds the lock,
+     * so no payslip of the month can be saved until the result is cached
+     */
+    private List<PayrollTotals> sumDepartments(int month, int year) throws SQLException {
+        Map<String, PayrollTotals> byDepartment = new TreeMap<>();
+        IntIndex payslips = months.get(period(month, year));
+        for (int i = 0; payslips != null && i < payslips.size(); i++) {
+            Payslip payslip = read(table.offsetOf(payslips.valueAt(i)));
+            String department = payslip.getDepartment();
+            PayrollTotals totals = byDepartment.computeIfAbsent(department == null ? "" : department,
+                    name -> new PayrollTotals(name, 0, 0, 0, 0, 0, 0));
+            totals.setPayslipCount(totals.getPayslipCount() + 1);
+            totals.setTotalGrossPaise(totals.getTotalGrossPaise() + payslip.getGrossSalaryPaise());
+            totals.setTotalIncomeTaxPaise(totals.getTotalIncomeTaxPaise() + payslip.getIncomeTaxPaise());
+            totals.setTotalProvidentFundPaise(totals.getTotalProvidentFundPaise() + payslip.getProvidentFundPaise());
+            totals.setTotalDeductionsPaise(totals.getTotalDeductionsPaise() + payslip.getTotalDeductionsPaise());
+            totals.setTotalNetPaise(totals.getTotalNetPaise() + payslip.getNetSalaryPaise());
+        }
+        List<PayrollTotals> totals = new ArrayList<>(byDepartment.values());
+        departmentTotals.put(period(month, year), totals);
+        return totals;
+    }
+
+    private static List<PayrollTotals> copy(List<PayrollTotals> totals) {
+        List<PayrollTotals> copies = new ArrayList<>(totals.size());
+        for (PayrollTotals t : totals) {
+            copies.add(new PayrollTotals(t.getDepartment(), t.getPayslipCount(), t.getTotalGrossPaise(),
+                    t.getTotalIncomeTaxPaise(), t.getTotalProvidentFundPaise(), t.getTotalDeductionsPaise(),
+                    t.getTotalNetPaise()));
+        }
+        return copies;
+    }
+
+    /**
+     * Totals of an employee's payslips in a financial year (April to March), summed from the
+     * employee's history index; null if there are none
+     */
+    public YearToDate getYearToDate(int empId, int financialYear) throws SQLException {
+        long start = GET_YTD.start();
+        lock.readLock().lock();
+        try {
+            IntIndex history = histories.get(empId);
+            YearToDate ytd = null;
+            for (int i = history == null ? -1 : history.lowerPosition(period(4, financialYear + 1));
+                 i >= 0 && history.keyAt(i) >= period(4, financialYear); i--) {
+                Payslip payslip = read(table.offsetOf(history.valueAt(i)));
+                if (ytd == null) {
+                    ytd = new YearToDate(empId, financialYear);
+                }
+                ytd.setPayslipCount(ytd.getPayslipCount() + 1);
+                ytd.setGrossSalaryPaise(ytd.getGrossSalaryPaise() + payslip.getGrossSalaryPaise());
+                ytd.setIncomeTaxPaise(ytd.getIncomeTaxPaise() + payslip.getIncomeTaxPaise());
+                ytd.setProvidentFundPaise(ytd.getProvidentFundPaise() + payslip.getProvidentFundPaise());
+                ytd.setHealthInsurancePaise(ytd.getHealthInsurancePaise() + payslip.getHealthInsurancePaise());
+                ytd.setTotalDeductionsPaise(ytd.getTotalDeductionsPaise() + payslip.getTotalDeductionsPaise());
+                ytd.setNetSalaryPaise(ytd.getNetSalaryPaise() + payslip.getNetSalaryPaise());
+            }
+            GET_YTD.success(start, ytd == null ? 0 : 1);
+            return ytd;
+        } catch (SQLException e) {
+            GET_YTD.failure(start);
+            System.err.println("Error fetching year-to-date totals: " + e.getMessage());
+            throw e;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the cached department totals (of every month, or of one year) and sum them again
+     *
+     * @return the number of (department, month) totals
+     */
+    public int rebuildDepartmentTotals(int year) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            int rows = 0;
+            for (int period : new ArrayList<>(months.keySet())) {
+                if (year == 0 || period / 100 == year) {
+                    departmentTotals.remove(period);
+                    rows += sumDepartments(period % 100, period / 100).size();
+                }
+            }
+            return rows;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Year-to-date totals are summed on read, so there is nothing to repair
+     *
+     * @return the number of (employee, financial year) totals there are
+     */
+    public int rebuildYearToDate(int financialYear) throws SQLException {
+        lock.readLock().lock();
+        try {
+            int rows = 0;
+            for (IntIndex history : histories.values()) {
+                int previous = Integer.MIN_VALUE;
+                for (int i = 0; i < history.size(); i++) {
+                    int period = history.keyAt(i);
+                    int year = YearToDate.financialYearOf(period % 100, period / 100);
+                    if (year != previous && (financialYear == 0 || year == financialYear)) {
+                        rows++;
+                    }
+                    previous = year;
+                }
+            }
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static SQLException duplicate(Payslip payslip) {
+        return EmbeddedStorage.duplicateKey(payslip.getEmpId() + "-" + payslip.getMonth() + "-" + payslip.getYear(),
+                "unique_payslip");
+    }
+
+    private Payslip read(long offset) throws SQLException {
+        try {
+            return decode(table.read(offset));
+        } catch (IOException e) {
+            throw EmbeddedStorage.storageError(e);
+        }
+    }
+
+    /**
+     * Assign IDs to the payslips, append them in one frame and index them; the caller holds the
+     * write lock. A payslip without a department is saved under its employee's current one.
+     * As in MySQL, a payslip for an unknown employee or without a generated date fails the
+     * whole write.
+     */
+    private void write(List<Payslip> payslips) throws SQLException {
+        if (payslips.isEmpty()) {
+            return;
+        }
+        int firstPayslipId = lastPayslipId + 1;
+        List<byte[]> records = new ArrayList<>(payslips.size());
+        for (int i = 0; i < payslips.size(); i++) {
+            Payslip payslip = payslips.get(i);
+            if (!employees.exists(payslip.getEmpId())) {
+                throw EmbeddedStorage.missingEmployee();
+            }
+            if (payslip.getGeneratedDate() == null) {
+                throw EmbeddedStorage.columnNull("generated_date");
+            }
+            if (payslip.getDepartment() == null) {
+                payslip.setDepartment(employees.departmentOf(payslip.getEmpId()));
+            }
+            records.add(encode(payslip, firstPayslipId + i));
+        }
+        try {
+            long[] offsets = table.append(records);
+            for (int i = 0; i < offsets.length; i++) {
+                Payslip payslip = payslips.get(i);
+                int payslipId = firstPayslipId + i;
+                int period = period(payslip.getMonth(), payslip.getYear());
+                payslip.setPayslipId(payslipId);
+                table.setOffset(payslipId, offsets[i]);
+                table.putInt(payslipId, EMP_ID, payslip.getEmpId());
+                table.putInt(payslipId, PERIOD, period);
+                remember(payslipId, payslip.getEmpId(), period);
+                departmentTotals.remove(period);
+            }
+            table.appended();
+        } catch (IOException e) {
+            throw EmbeddedStorage.storageError(e);
+        }
+    }
+
+    private void remember(int payslipId, int empId, int period) {
+        months.computeIfAbsent(period, key -> new IntIndex()).put(empId, payslipId);
+        histories.computeIfAbsent(empId, key -> new IntIndex()).put(period, payslipId);
+        lastPayslipId = Math.max(lastPayslipId, payslipId);
+    }
+
+    private static int period(int month, int year) {
+        return year * 100 + month;
+    }
+
+    private static PayslipSummary summary(Payslip payslip) {
+        return new PayslipSummary(payslip.getPayslipId(), payslip.getEmpId(), payslip.getMonth(), payslip.getYear(),
+                payslip.getGrossSalaryPaise(), payslip.getTotalDeductionsPaise(), payslip.getNetSalaryPaise());
+    }
+
+    private static byte[] encode(Payslip payslip, int payslipId) {
+        byte[] departmentBytes = Records.utf8(payslip.getDepartment());
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE + Records.sizeOf(departmentBytes));
+        buffer.put(PAYSLIP_RECORD).putInt(payslipId).putInt(payslip.getEmpId())
+                .putInt(payslip.getMonth()).putInt(payslip.getYear())
+                .putLong(payslip.getBaseSalaryPaise()).putLong(payslip.getHraPaise()).putLong(payslip.getAllowancePaise())
+                .putLong(payslip.getGrossSalaryPaise()).putLong(payslip.getIncomeTaxPaise())
+                .putLong(payslip.getProvidentFundPaise()).putLong(payslip.getHealthInsurancePaise())
+                .putLong(payslip.getTotalDeductionsPaise()).putLong(payslip.getNetSalaryPaise())
+                .putLong(payslip.getGeneratedDate().toEpochDay());
+        Records.putString(buffer, departmentBytes);
+        return buffer.array();
+    }
+
+    /**
+     * Decode a payslip record
+     */
+    private static Payslip decode(ByteBuffer record) throws IOException {
+        if (record.get() != PAYSLIP_RECORD) {
+            throw new IOException("Not a payslip record");
+        }
+        Payslip payslip = new Payslip();
+        payslip.setPayslipId(record.getInt());
+        payslip.setEmpId(record.getInt());
+        payslip.setMonth(record.getInt());
+        payslip.setYear(record.getInt());
+        payslip.setBaseSalaryPaise(record.getLong());
+        payslip.setHraPaise(record.getLong());
+        payslip.setAllowancePaise(record.getLong());
+        payslip.setGrossSalaryPaise(record.getLong());
+        payslip.setIncomeTaxPaise(record.getLong());
+        payslip.setProvidentFundPaise(record.getLong());
+        payslip.setHealthInsurancePaise(record.getLong());
+        payslip.setTotalDeductionsPaise(record.getLong());
+        payslip.setNetSalaryPaise(record.getLong());
+        payslip.setGeneratedDate(LocalDate.ofEpochDay(record.getLong()));
+        payslip.setDepartment(Records.getString(record));
+        return payslip;
+    }
+}
@@ -0,0 +1,24 @@
+package dao;
+
+import java.time.LocalDate;
+
+/**
+ * PayrollRunRepository for the embedded backend. Runs are not recorded and no payslip is ever
+ * cloned, so an incremental run computes every unpaid employee like a full one: the results
+ * are the same, only without the shortcut.
+ */
+public class EmbeddedPayrollRunDAO implements PayrollRunRepository {
+
+    public void startRun(int month, int year, String mode, String calculation) {
+    }
+
+    public void completeRun(int month, int year, int computed, int cloned) {
+    }
+
+    /**
+     * @return always 0
+     */
+    public int cloneUnchangedPayslips(int month, int year, String calculation, LocalDate generatedDate) {
+        return 0;
+    }
+}
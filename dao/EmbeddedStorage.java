@@ -0,0 +1,143 @@
+package dao;
+
+import store.LogTable;
+import util.AppConfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The embedded backend, for installations without a database server: employees and payslips
+ * in append-only logs with memory-mapped indexes (see store.LogTable), in one directory.
+ * Opening it recovers both tables from a crash. Both DAOs share one lock, so writes are
+ * serialised and reads run in parallel. Only one EmbeddedStorage at a time may have the
+ * directory open, which a lock on its storage.lock file enforces.
+ */
+public final class EmbeddedStorage implements Closeable {
+
+    // MySQL error codes for a NOT NULL column given no value and a missing foreign key parent
+    private static final int MYSQL_COLUMN_NULL = 1048;
+    private static final int MYSQL_NO_REFERENCED_ROW = 1452;
+
+    private static final boolean SYNC = AppConfig.getBoolean("storage.embedded.sync", true);
+    private static final long CHECKPOINT_BYTES = Math.max(1, AppConfig.getLong("storage.embedded.checkpointBytes", 4L << 20));
+
+    private final FileChannel lockFile;
+    private final LogTable employeeTable;
+    private final LogTable payslipTable;
+    private final EmbeddedEmployeeDAO employees;
+    private final EmbeddedPayrollDAO payslips;
+
+    private EmbeddedStorage(FileChannel lockFile, LogTable employeeTable, LogTable payslipTable) throws IOException {
+        ReadWriteLock lock = new ReentrantReadWriteLock();
+        this.lockFile = lockFile;
+        this.employeeTable = employeeTable;
+        this.payslipTable = payslipTable;
+        this.employees = new EmbeddedEmployeeDAO(employeeTable, lock);
+        this.payslips = new EmbeddedPayrollDAO(payslipTable, lock, employees);
+        employees.setPayslips(payslips);
+    }
+
+    /**
+     * Open the storage in a directory, creating it if needed
+     */
+    public static EmbeddedStorage open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel lockFile = FileChannel.open(directory.resolve("storage.lock"), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        LogTable employeeTable = null;
+        LogTable payslipTable = null;
+        try {
+            if (lockFile.tryLock() == null) {
+                throw new IOException(directory + " is in use by another process");
+            }
+            employeeTable = LogTable.open(directory, EmbeddedEmployeeDAO.TABLE, EmbeddedEmployeeDAO.ENTRY_WIDTH,
+                    SYNC, CHECKPOINT_BYTES, EmbeddedEmployeeDAO::index);
+            payslipTable = LogTable.open(directory, EmbeddedPayrollDAO.TABLE, EmbeddedPayrollDAO.ENTRY_WIDTH,
+                    SYNC, CHECKPOINT_BYTES, EmbeddedPayrollDAO::index);
+            return new EmbeddedStorage(lockFile, employeeTable, payslipTable);
+        } catch (OverlappingFileLockException e) {
+            closeAll(e, lockFile, employeeTable, payslipTable);
+            throw new IOException(directory + " is already open in this process", e);
+        } catch (IOException | RuntimeException e) {
+            closeAll(e, lockFile, employeeTable, payslipTable);
+            throw e;
+        }
+    }
+
+    private static void closeAll(Exception failure, Closeable... files) {
+        for (Closeable file : files) {
+            try {
+                if (file != null) {
+                    file.close();
+                }
+            } catch (IOException closeError) {
+                failure.addSuppressed(closeError);
+            }
+        }
+    }
+
+    public EmbeddedEmployeeDAO employees() {
+        return employees;
+    }
+
+    public EmbeddedPayrollDAO payslips() {
+        return payslips;
+    }
+
+    /**
+     * Checkpoint the indexes and close the files
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            employeeTable.close();
+        } finally {
+            try {
+                payslipTable.close();
+            } finally {
+                // Closing the channel releases the lock
+                lockFile.close();
+            }
+        }
+    }
+
+    /**
+     * A storage failure as the SQLException the repository interfaces throw
+     */
+    static SQLException storageError(IOException e) {
+        return new SQLException("Embedded storage error: " + e.getMessage(), "58030", e);
+    }
+
+    /**
+     * A unique key violation, reported the way MySQL does so PayrollDAO.isDuplicateKey recognises it
+     */
+    static SQLException duplicateKey(String entry, String key) {
+        return new SQLException("Duplicate entry '" + entry + "' for key '" + key + "'", "23000",
+                PayrollDAO.MYSQL_DUPLICATE_KEY);
+    }
+
+    /**
+     * A NOT NULL column without a value, reported the way MySQL does
+     */
+    static SQLException columnNull(String column) {
+        return new SQLException("Column '" + column + "' cannot be null", "23000", MYSQL_COLUMN_NULL);
+    }
+
+    /**
+     * A payslip for an emp_id no employee has, reported the way MySQL reports the fk_emp_id key
+     */
+    static SQLException missingEmployee() {
+        return new SQLException("Cannot add or update a child row: a foreign key constraint fails "
+                + "(`payslips`, CONSTRAINT `fk_emp_id` FOREIGN KEY (`emp_id`) REFERENCES `employees` (`emp_id`))",
+                "23000", MYSQL_NO_REFERENCED_ROW);
+    }
+}
@@ -0,0 +1,63 @@
+package dao;
+
+import model.Employee;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of importing a list of employees in batches
+ */
+public class EmployeeBatchResult {
+
+    private final List<Employee> inserted = new ArrayList<>();
+    private final List<Employee> updated = new ArrayList<>();
+    private final List<Employee> duplicates = new ArrayList<>();
+
+    void addInserted(Employee employee) {
+        inserted.add(employee);
+    }
+
+    void removeInserted(Employee employee) {
+        inserted.remove(employee);
+    }
+
+    void addUpdated(Employee employee) {
+        updated.add(employee);
+    }
+
+    void addDuplicate(Employee employee) {
+        duplicates.add(employee);
+    }
+
+    /**
+     * Employees written as new rows
+     */
+    public List<Employee> getInserted() {
+        return Collections.unmodifiableList(inserted);
+    }
+
+    /**
+     * Employees whose email already existed and whose row was overwritten (upsert only)
+     */
+    public List<Employee> getUpdated() {
+        return Collections.unmodifiableList(updated);
+    }
+
+    /**
+     * Employees not written because their email already exists (reject mode only)
+     */
+    public List<Employee> getDuplicates() {
+        return Collections.unmodifiableList(duplicates);
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeBatchResult{" +
+                "inserted=" + inserted.size() +
+                ", updated=" + updated.size() +
+                ", duplicates=" + duplicates.size() +
+                '}';
+    }
+}
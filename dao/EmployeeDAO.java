@@ -1,103 +1,304 @@
 package dao;
 
+import util.AppConfig;
+import util.DaoMetrics;
 import util.DBConnection;
+import util.Money;
 import model.Employee;
+import model.SalaryChange;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
-public class EmployeeDAO {
+/**
+ * EmployeeRepository on the employees table in MySQL
+ */
+public class EmployeeDAO implements EmployeeRepository {
+
+    private static final int STREAM_PAGE_SIZE = Math.max(1, AppConfig.getInt("payroll.stream.pageSize", 1000));
+    private static final int BATCH_SIZE = Math.max(1, AppConfig.getInt("payroll.batch.size", 500));
+    private static final String INSERT_EMPLOYEE_SQL = "INSERT INTO employees(name, email, department, designation, join_date, base_salary, hra, allowance, active) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT_EMPLOYEE_SQL = INSERT_EMPLOYEE_SQL
+            + " ON DUPLICATE KEY UPDATE name = VALUES(name), department = VALUES(department), designation = VALUES(designation),"
+            + " join_date = VALUES(join_date), base_salary = VALUES(base_salary), hra = VALUES(hra),"
+            + " allowance = VALUES(allowance), active = VALUES(active)";
+
+    private static final DaoMetrics.Operation ADD_EMPLOYEE = DaoMetrics.operation("EmployeeDAO.addEmployee");
+    private static final DaoMetrics.Operation UPDATE_SALARY = DaoMetrics.operation("EmployeeDAO.updateEmployeeSalary");
+    private static final DaoMetrics.Operation GET_BY_ID = DaoMetrics.operation("EmployeeDAO.getEmployeeById");
+    private static final DaoMetrics.Operation GET_ALL = DaoMetrics.operation("EmployeeDAO.getAllEmployees");
+    private static final DaoMetrics.Operation GET_PAGE = DaoMetrics.operation("EmployeeDAO.getActiveEmployeesPage");
+    private static final DaoMetrics.Operation GET_UNPAID_PAGE = DaoMetrics.operation("EmployeeDAO.getUnpaidEmployeesPage");
+    private static final DaoMetrics.Operation DELETE = DaoMetrics.operation("EmployeeDAO.deleteEmployee");
+    private static final DaoMetrics.Operation EXISTS = DaoMetrics.operation("EmployeeDAO.employeeExists");
+    private static final DaoMetrics.Operation IMPORT = DaoMetrics.operation("EmployeeDAO.importEmployees");
     
     /**
-     * Add a new employee to the database
+     * Add a new employee to the database and set its generated ID
      */
     public boolean addEmployee(Employee emp) throws SQLException {
-        String sql = "INSERT INTO employees(name, email, department, designation, join_date, base_salary, hra, allowance, active) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        long start = ADD_EMPLOYEE.start();
         
         try (Connection con = DBConnection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+             PreparedStatement ps = con.prepareStatement(INSERT_EMPLOYEE_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-            ps.setString(1, emp.getName());
-            ps.setString(2, emp.getEmail());
-            ps.setString(3, emp.getDepartment());
-            ps.setString(4, emp.getDesignation());
-            ps.setDate(5, Date.valueOf(emp.getJoinDate()));
-            ps.setDouble(6, emp.getBaseSalary());
-            ps.setDouble(7, emp.getHra());
-            ps.setDouble(8, emp.getAllowance());
-            ps.setBoolean(9, emp.isActive());
+            bindEmployee(ps, emp);
             
             int rowsAffected = ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    emp.setEmpId(keys.getInt(1));
+                }
+            }
+            ADD_EMPLOYEE.success(start, rowsAffected);
             return rowsAffected > 0;
         } catch (SQLException e) {
+            ADD_EMPLOYEE.failure(start);
             System.err.println("Error adding employee: " + e.getMessage());
             throw e;
         }
     }
 
     /**
-     * Update employee salary details
+     * Update employee salary details; amounts in paise.
+     * With auditing on, the old amounts are read and locked in the same transaction, and the
+     * change is handed to SalaryAuditWriter once committed.
      */
-    public boolean updateEmployeeSalary(int empId, double baseSalary, double hra, double allowance) throws SQLException {
-        String sql = "UPDATE employees SET base_salary = ?, hra = ?, allowance = ? WHERE emp_id = ? AND active = true";
+    public boolean updateEmployeeSalary(int empId, long baseSalary, long hra, long allowance) throws SQLException {
+        long start = UPDATE_SALARY.start();
         
-        try (Connection con = DBConnection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
-            
-            ps.setDouble(1, baseSalary);
-            ps.setDouble(2, hra);
-            ps.setDouble(3, allowance);
-            ps.setInt(4, empId);
-            
-            int rowsAffected = ps.executeUpdate();
+        try (Connection con = DBConnection.getConnection()) {
+            if (!SalaryAuditWriter.isEnabled()) {
+                int rowsAffected = executeSalaryUpdate(con, empId, baseSalary, hra, allowance);
+                UPDATE_SALARY.success(start, rowsAffected);
+                return rowsAffected > 0;
+            }
+
+            con.setAutoCommit(false);
+            long[] before;
+            int rowsAffected;
+            try {
+                before = lockSalary(con, empId);
+                if (before == null) {
+                    con.rollback();
+                    UPDATE_SALARY.success(start, 0);
+                    return false;
+                }
+                rowsAffected = executeSalaryUpdate(con, empId, baseSalary, hra, allowance);
+                con.commit();
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            }
+            SalaryChange change = salaryChange(empId, before, baseSalary, hra, allowance);
+            if (change.isChange()) {
+                SalaryAuditWriter.getInstance().record(change);
+            }
+            UPDATE_SALARY.success(start, rowsAffected);
             return rowsAffected > 0;
         } catch (SQLException e) {
+            UPDATE_SALARY.failure(start);
             System.err.println("Error updating salary: " + e.getMessage());
             throw e;
         }
     }
 
+    private int executeSalaryUpdate(Connection con, int empId, long baseSalary, long hra, long allowance)
+            throws SQLException {
+        String sql = "UPDATE employees SET base_salary = ?, hra = ?, allowance = ? WHERE emp_id = ? AND active = true";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setBigDecimal(1, Money.toDecimal(baseSalary));
+            ps.setBigDecimal(2, Money.toDecimal(hra));
+            ps.setBigDecimal(3, Money.toDecimal(allowance));
+            ps.setInt(4, empId);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Current base salary, HRA and allowance of an active employee, locked until the
+     * transaction ends; null if there is no such employee
+     */
+    private long[] lockSalary(Connection con, int empId) throws SQLException {
+        String sql = "SELECT base_salary, hra, allowance FROM employees WHERE emp_id = ? AND active = true FOR UPDATE";
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setInt(1, empId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new long[] {Money.fromDecimal(rs.getBigDecimal(1)), Money.fromDecimal(rs.getBigDecimal(2)),
+                        Money.fromDecimal(rs.getBigDecimal(3))};
+            }
+        }
+    }
+
+    private static SalaryChange salaryChange(int empId, long[] before, long baseSalary, long hra, long allowance) {
+        return new SalaryChange(empId, before[0], baseSalary, before[1], hra, before[2], allowance,
+                System.currentTimeMillis(), SalaryAuditWriter.changedBy());
+    }
+
     /**
      * Get employee by ID
      */
     public Employee getEmployeeById(int empId) throws SQLException {
-        String sql = "SELECT * FROM employees WHERE emp_id = ? AND active = true";
-        
-        try (Connection con = DBConnection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
-            
+        long start = GET_BY_ID.start();
+        try (Connection con = DBConnection.getConnection()) {
+            Employee employee = getEmployeeById(con, empId);
+            GET_BY_ID.success(start, employee == null ? 0 : 1);
+            return employee;
+        } catch (SQLException e) {
+            GET_BY_ID.failure(start);
+            System.err.println("Error fetching employee: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Get employee by ID using a connection owned by the caller
+     */
+    Employee getEmployeeById(Connection con, int empId) throws SQLException {
+        String sql = "SELECT " + EmployeeRowMapper.COLUMNS + " FROM employees WHERE emp_id = ? AND active = true";
+
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
             ps.setInt(1, empId);
             ResultSet rs = ps.executeQuery();
-            
+
             if (rs.next()) {
-                return mapResultSetToEmployee(rs);
+                return new EmployeeRowMapper(rs).map();
             }
-        } catch (SQLException e) {
-            System.err.println("Error fetching employee: " + e.getMessage());
-            throw e;
         }
         return null;
     }
 
     /**
-     * Get all active employees
+     * Get all active employees.
+     * Loads the whole table into memory; prefer streamActiveEmployees or getActiveEmployeesPage.
      */
     public List<Employee> getAllEmployees() throws SQLException {
         List<Employee> employees = new ArrayList<>();
-        String sql = "SELECT * FROM employees WHERE active = true ORDER BY emp_id";
+        String sql = "SELECT " + EmployeeRowMapper.COLUMNS + " FROM employees WHERE active = true ORDER BY emp_id";
+        long start = GET_ALL.start();
         
         try (Connection con = DBConnection.getConnection();
              Statement stmt = con.createStatement()) {
             
             ResultSet rs = stmt.executeQuery(sql);
+            EmployeeRowMapper mapper = new EmployeeRowMapper(rs);
             while (rs.next()) {
-                employees.add(mapResultSetToEmployee(rs));
+                employees.add(mapper.map());
             }
         } catch (SQLException e) {
+            GET_ALL.failure(start);
             System.err.println("Error fetching employees: " + e.getMessage());
             throw e;
         }
+        GET_ALL.success(start, employees.size());
+        return employees;
+    }
+
+    /**
+     * Get one page of active employees with emp_id greater than afterEmpId, in emp_id order.
+     * Pass 0 for the first page and the last emp_id of a page to get the next one.
+     */
+    public List<Employee> getActiveEmployeesPage(int afterEmpId, int pageSize) throws SQLException {
+        List<Employee> employees = new ArrayList<>(pageSize);
+        String sql = "SELECT " + EmployeeRowMapper.COLUMNS + " FROM employees WHERE active = true AND emp_id > ? ORDER BY emp_id LIMIT ?";
+        long start = GET_PAGE.start();
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            ps.setFetchSize(pageSize);
+            ps.setInt(1, afterEmpId);
+            ps.setInt(2, pageSize);
+            ResultSet rs = ps.executeQuery();
+            EmployeeRowMapper mapper = new EmployeeRowMapper(rs);
+
+            while (rs.next()) {
+                employees.add(mapper.map());
+            }
+        } catch (SQLException e) {
+            GET_PAGE.failure(start);
+            System.err.println("Error fetching employee page: " + e.getMessage());
+            throw e;
+        }
+        GET_PAGE.success(start, employees.size());
+        return employees;
+    }
+
+    /**
+     * Pass every active employee to the consumer, one page at a time
+     */
+    public void forEachActiveEmployee(Consumer<Employee> consumer) throws SQLException {
+        int lastEmpId = 0;
+        List<Employee> page;
+        do {
+            page = getActiveEmployeesPage(lastEmpId, STREAM_PAGE_SIZE);
+            for (Employee employee : page) {
+                consumer.accept(employee);
+            }
+            if (!page.isEmpty()) {
+                lastEmpId = page.get(page.size() - 1).getEmpId();
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+    }
+
+    /**
+     * Pass every active employee without a payslip for the month to the consumer, one page at a time.
+     * The anti-join runs in the database, so only the unpaid employees are transferred.
+     */
+    public void forEachUnpaidEmployee(int month, int year, Consumer<Employee> consumer) throws SQLException {
+        int lastEmpId = 0;
+        List<Employee> page;
+        do {
+            page = getUnpaidEmployeesPage(month, year, lastEmpId, STREAM_PAGE_SIZE);
+            for (Employee employee : page) {
+                consumer.accept(employee);
+            }
+            if (!page.isEmpty()) {
+                lastEmpId = page.get(page.size() - 1).getEmpId();
+            }
+        } while (page.size() == STREAM_PAGE_SIZE);
+    }
+
+    /**
+     * One page of active employees with no payslip for the month, with emp_id greater than afterEmpId
+     */
+    private List<Employee> getUnpaidEmployeesPage(int month, int year, int afterEmpId, int pageSize)
+            throws SQLException {
+        List<Employee> employees = new ArrayList<>(pageSize);
+        String sql = "SELECT " + EmployeeRowMapper.COLUMNS + " FROM employees e WHERE e.active = true AND e.emp_id > ? "
+                + "AND NOT EXISTS (SELECT 1 FROM payslips p WHERE p.emp_id = e.emp_id AND p.month = ? AND p.year = ?) "
+                + "ORDER BY e.emp_id LIMIT ?";
+        long start = GET_UNPAID_PAGE.start();
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            ps.setInt(1, afterEmpId);
+            ps.setInt(2, month);
+            ps.setInt(3, year);
+            ps.setInt(4, pageSize);
+            ResultSet rs = ps.executeQuery();
+            EmployeeRowMapper mapper = new EmployeeRowMapper(rs);
+
+            while (rs.next()) {
+                employees.add(mapper.map());
+            }
+        } catch (SQLException e) {
+            GET_UNPAID_PAGE.failure(start);
+            System.err.println("Error fetching unpaid employees: " + e.getMessage());
+            throw e;
+        }
+        GET_UNPAID_PAGE.success(start, employees.size());
         return employees;
     }
 
@@ -106,14 +307,17 @@ public class EmployeeDAO {
      */
     public boolean deleteEmployee(int empId) throws SQLException {
         String sql = "UPDATE employees SET active = false WHERE emp_id = ?";
+        long start = DELETE.start();
         
         try (Connection con = DBConnection.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
             
             ps.setInt(1, empId);
             int rowsAffected = ps.executeUpdate();
+            DELETE.success(start, rowsAffected);
             return rowsAffected > 0;
         } catch (SQLException e) {
+            DELETE.failure(start);
             System.err.println("Error deleting employee: " + e.getMessage());
             throw e;
         }
@@ -124,6 +328,7 @@ public class EmployeeDAO {
      */
     public boolean employeeExists(int empId) throws SQLException {
         String sql = "SELECT COUNT(*) FROM employees WHERE emp_id = ? AND active = true";
+        long start = EXISTS.start();
         
         try (Connection con = DBConnection.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
@@ -131,31 +336,163 @@ public class EmployeeDAO {
             ps.setInt(1, empId);
             ResultSet rs = ps.executeQuery();
             
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
+            boolean exists = rs.next() && rs.getInt(1) > 0;
+            EXISTS.success(start, exists ? 1 : 0);
+            return exists;
         } catch (SQLException e) {
+            EXISTS.failure(start);
             System.err.println("Error checking employee existence: " + e.getMessage());
             throw e;
         }
-        return false;
     }
 
     /**
-     * Map ResultSet to Employee object
+     * Write employees in JDBC batches of the configured size inside a single transaction.
+     * Emails are unique: with upsert, an employee whose email already exists overwrites
+     * (and reactivates) that row; without it, the employee is reported as a duplicate
+     * and not written. Existing emails are looked up first so inserts, updates and
+     * duplicates can be told apart. Generated IDs are not set on the employees.
+     * Salary changes made by upserts are audited once the import commits.
+     */
+    public EmployeeBatchResult importEmployees(List<Employee> employees, boolean upsert) throws SQLException {
+        EmployeeBatchResult result = new EmployeeBatchResult();
+        if (employees.isEmpty()) {
+            return result;
+        }
+
+        long start = IMPORT.start();
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(upsert ? UPSERT_EMPLOYEE_SQL : INSERT_EMPLOYEE_SQL)) {
+                // The email column's collation is case-insensitive, so compare lower-cased
+                Map<String, long[]> salaries = findExistingSalaries(con, employees, upsert && SalaryAuditWriter.isEnabled());
+                Set<String> knownEmails = new HashSet<>(salaries.keySet());
+                List<SalaryChange> changes = new ArrayList<>();
+                List<Employee> batch = new ArrayList<>(Math.min(BATCH_SIZE, employees.size()));
+                for (Employee employee : employees) {
+                    String email = employee.getEmail().toLowerCase(Locale.ROOT);
+                    boolean known = !knownEmails.add(email);
+                    if (known && !upsert) {
+                        result.addDuplicate(employee);
+                        continue;
+                    }
+                    if (known) {
+                        result.addUpdated(employee);
+                        long[] before = salaries.get(email);
+                        if (before != null) {
+                            changes.add(salaryChange((int) before[3], before, employee.getBaseSalaryPaise(),
+                                    employee.getHraPaise(), employee.getAllowancePaise()));
+                            // A later line for the same email changes it again
+                            salaries.put(email, new long[] {employee.getBaseSalaryPaise(), employee.getHraPaise(),
+                                    employee.getAllowancePaise(), before[3]});
+                        }
+                    } else {
+                        result.addInserted(employee);
+                    }
+                    batch.add(employee);
+                    if (batch.size() == BATCH_SIZE) {
+                        executeImportBatch(con, ps, batch, result);
+                        batch.clear();
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    executeImportBatch(con, ps, batch, result);
+                }
+                con.commit();
+                for (SalaryChange change : changes) {
+                    if (change.isChange()) {
+                        SalaryAuditWriter.getInstance().record(change);
+                    }
+                }
+                IMPORT.success(start, result.getInserted().size() + result.getUpdated().size());
+                return result;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            IMPORT.failure(start);
+            System.err.println("Error importing employees: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Send one batch; if an email was inserted by someone else since it was looked up,
+     * undo the batch and insert row by row so only the conflicting employees are rejected
+     */
+    private void executeImportBatch(Connection con, PreparedStatement ps, List<Employee> batch,
+                                    EmployeeBatchResult result) throws SQLException {
+        Savepoint savepoint = con.setSavepoint();
+        try {
+            for (Employee employee : batch) {
+                bindEmployee(ps, employee);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            con.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            ps.clearBatch();
+            if (!PayrollDAO.isDuplicateKey(e)) {
+                throw e;
+            }
+            con.rollback(savepoint);
+            for (Employee employee : batch) {
+                bindEmployee(ps, employee);
+                try {
+                    ps.executeUpdate();
+                } catch (SQLException rowError) {
+                    if (!PayrollDAO.isDuplicateKey(rowError)) {
+                        throw rowError;
+                    }
+                    result.removeInserted(employee);
+                    result.addDuplicate(employee);
+                }
+            }
+        }
+    }
+
+    /**
+     * Employees among the given ones that are already in the table, active or not, by lower-cased
+     * email: base salary, HRA, allowance and emp_id. With lock, the rows stay locked until the
+     * transaction ends, so the amounts are the ones an upsert overwrites.
+     */
+    private Map<String, long[]> findExistingSalaries(Connection con, List<Employee> employees, boolean lock)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT email, base_salary, hra, allowance, emp_id FROM employees WHERE email IN (");
+        for (int i = 0; i < employees.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(lock ? ") FOR UPDATE" : ")");
+
+        Map<String, long[]> salaries = new HashMap<>();
+        try (PreparedStatement ps = con.prepareStatement(sql.toString())) {
+            for (int i = 0; i < employees.size(); i++) {
+                ps.setString(i + 1, employees.get(i).getEmail());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    salaries.put(rs.getString(1).toLowerCase(Locale.ROOT), new long[] {
+                            Money.fromDecimal(rs.getBigDecimal(2)), Money.fromDecimal(rs.getBigDecimal(3)),
+                            Money.fromDecimal(rs.getBigDecimal(4)), rs.getInt(5)});
+                }
+            }
+        }
+        return salaries;
+    }
+
+    /**
+     * Bind employee values to the INSERT_EMPLOYEE_SQL parameters
      */
-    private Employee mapResultSetToEmployee(ResultSet rs) throws SQLException {
-        Employee emp = new Employee();
-        emp.setEmpId(rs.getInt("emp_id"));
-        emp.setName(rs.getString("name"));
-        emp.setEmail(rs.getString("email"));
-        emp.setDepartment(rs.getString("department"));
-        emp.setDesignation(rs.getString("designation"));
-        emp.setJoinDate(rs.getDate("join_date").toString());
-        emp.setBaseSalary(rs.getDouble("base_salary"));
-        emp.setHra(rs.getDouble("hra"));
-        emp.setAllowance(rs.getDouble("allowance"));
-        emp.setActive(rs.getBoolean("active"));
-        return emp;
+    private void bindEmployee(PreparedStatement ps, Employee emp) throws SQLException {
+        ps.setString(1, emp.getName());
+        ps.setString(2, emp.getEmail());
+        ps.setString(3, emp.getDepartment());
+        ps.setString(4, emp.getDesignation());
+        ps.setDate(5, Date.valueOf(emp.getJoinDate()));
+        ps.setBigDecimal(6, Money.toDecimal(emp.getBaseSalaryPaise()));
+        ps.setBigDecimal(7, Money.toDecimal(emp.getHraPaise()));
+        ps.setBigDecimal(8, Money.toDecimal(emp.getAllowancePaise()));
+        ps.setBoolean(9, emp.isActive());
     }
 }
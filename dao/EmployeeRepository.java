@@ -0,0 +1,123 @@
+package dao;
+
+import model.Employee;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Storage of employees. EmployeeDAO keeps them in MySQL and EmbeddedEmployeeDAO in local
+ * files; Repositories picks one from storage.backend. Amounts are in paise.
+ */
+public interface EmployeeRepository {
+
+    /**
+     * Add a new employee and set its generated ID
+     */
+    boolean addEmployee(Employee emp) throws SQLException;
+
+    /**
+     * Update an active employee's salary details
+     */
+    boolean updateEmployeeSalary(int empId, long baseSalary, long hra, long allowance) throws SQLException;
+
+    /**
+     * Get an active employee by ID, or null
+     */
+    Employee getEmployeeById(int empId) throws SQLException;
+
+    /**
+     * Get all active employees in emp_id order.
+     * Loads them all into memory; prefer streamActiveEmployees or getActiveEmployeesPage.
+     */
+    List<Employee> getAllEmployees() throws SQLException;
+
+    /**
+     * Get one page of active employees with emp_id greater than afterEmpId, in emp_id order.
+     * Pass 0 for the first page and the last emp_id of a page to get the next one.
+     */
+    List<Employee> getActiveEmployeesPage(int afterEmpId, int pageSize) throws SQLException;
+
+    /**
+     * Pass every active employee to the consumer in emp_id order, without loading them all into memory
+     */
+    void forEachActiveEmployee(Consumer<Employee> consumer) throws SQLException;
+
+    /**
+     * Pass every active employee without a payslip for the month to the consumer, in emp_id order
+     */
+    void forEachUnpaidEmployee(int month, int year, Consumer<Employee> consumer) throws SQLException;
+
+    /**
+     * Soft delete an employee (mark as inactive)
+     */
+    boolean deleteEmployee(int empId) throws SQLException;
+
+    /**
+     * Whether an active employee has the ID
+     */
+    boolean employeeExists(int empId) throws SQLException;
+
+    /**
+     * Write employees all or nothing. Emails are unique: with upsert, an employee whose email
+     * already exists overwrites (and reactivates) that employee; without it, the employee is
+     * reported as a duplicate and not written. Generated IDs are not set on the employees.
+     */
+    EmployeeBatchResult importEmployees(List<Employee> employees, boolean upsert) throws SQLException;
+
+    /**
+     * Stream all active employees in emp_id order, fetching one page at a time.
+     * At most one page is in memory. Errors while streaming are thrown as UncheckedSQLException.
+     */
+    default Stream<Employee> streamActiveEmployees(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        Iterator<Employee> iterator = new Iterator<Employee>() {
+            private List<Employee> page = new ArrayList<>();
+            private int index;
+            private int lastEmpId;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (index < page.size()) {
+                    return true;
+                }
+                if (exhausted) {
+                    return false;
+                }
+                try {
+                    page = getActiveEmployeesPage(lastEmpId, pageSize);
+                } catch (SQLException e) {
+                    throw new UncheckedSQLException(e);
+                }
+                index = 0;
+                exhausted = page.size() < pageSize;
+                if (page.isEmpty()) {
+                    return false;
+                }
+                lastEmpId = page.get(page.size() - 1).getEmpId();
+                return true;
+            }
+
+            @Override
+            public Employee next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.get(index++);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+    }
+}
@@ -0,0 +1,62 @@
+package dao;
+
+import model.Employee;
+import util.Money;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the rows of an employee query to Employee objects by column position,
+ * resolved once per ResultSet. Queries should select COLUMNS.
+ */
+public final class EmployeeRowMapper {
+
+    /** The columns an Employee is built from, for SELECT lists */
+    public static final String COLUMNS = "emp_id, name, email, department, designation, join_date, "
+            + "base_salary, hra, allowance, active";
+
+    private final ResultSet rs;
+    private final int empId;
+    private final int name;
+    private final int email;
+    private final int department;
+    private final int designation;
+    private final int joinDate;
+    private final int baseSalary;
+    private final int hra;
+    private final int allowance;
+    private final int active;
+
+    public EmployeeRowMapper(ResultSet rs) throws SQLException {
+        this.rs = rs;
+        this.empId = rs.findColumn("emp_id");
+        this.name = rs.findColumn("name");
+        this.email = rs.findColumn("email");
+        this.department = rs.findColumn("department");
+        this.designation = rs.findColumn("designation");
+        this.joinDate = rs.findColumn("join_date");
+        this.baseSalary = rs.findColumn("base_salary");
+        this.hra = rs.findColumn("hra");
+        this.allowance = rs.findColumn("allowance");
+        this.active = rs.findColumn("active");
+    }
+
+    /**
+     * Map the row the ResultSet is positioned on
+     */
+    public Employee map() throws SQLException {
+        Employee emp = new Employee();
+        emp.setEmpId(rs.getInt(empId));
+        emp.setName(rs.getString(name));
+        emp.setEmail(rs.getString(email));
+        emp.setDepartment(rs.getString(department));
+        emp.setDesignation(rs.getString(designation));
+        emp.setJoinDate(rs.getDate(joinDate).toString());
+        emp.setBaseSalaryPaise(Money.fromDecimal(rs.getBigDecimal(baseSalary)));
+        emp.setHraPaise(Money.fromDecimal(rs.getBigDecimal(hra)));
+        emp.setAllowancePaise(Money.fromDecimal(rs.getBigDecimal(allowance)));
+        emp.setActive(rs.getBoolean(active));
+        return emp;
+    }
+}
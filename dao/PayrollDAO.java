@@ -1,51 +1,259 @@
 package dao;
 
+import util.AppConfig;
+import util.DaoMetrics;
 import util.DBConnection;
+import util.Money;
+import model.Employee;
 import model.Payslip;
+import model.PayrollTotals;
+import model.PayslipSummary;
+import model.YearToDate;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
-public class PayrollDAO {
+/**
+ * PayslipRepository on the payslips table in MySQL, with the department totals in
+ * department_payroll_rollup (see DepartmentRollupDAO) and the year-to-date totals in
+ * employee_ytd (see YearToDateDAO)
+ */
+public class PayrollDAO implements PayslipRepository {
+
+    static final int MYSQL_DUPLICATE_KEY = 1062;
+    private static final int BATCH_SIZE = Math.max(1, AppConfig.getInt("payroll.batch.size", 500));
+    private static final String INSERT_PAYSLIP_SQL = "INSERT INTO payslips(emp_id, month, year, department, base_salary, hra, allowance, gross_salary, income_tax, provident_fund, health_insurance, total_deductions, net_salary, generated_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final DaoMetrics.Operation SAVE_PAYSLIP = DaoMetrics.operation("PayrollDAO.savePayslip");
+    private static final DaoMetrics.Operation CREATE_PAYSLIP = DaoMetrics.operation("PayrollDAO.createPayslip");
+    private static final DaoMetrics.Operation SAVE_PAYSLIPS = DaoMetrics.operation("PayrollDAO.savePayslips");
+    private static final DaoMetrics.Operation GET_BY_ID = DaoMetrics.operation("PayrollDAO.getPayslipById");
+    private static final DaoMetrics.Operation GET_BY_EMPLOYEE = DaoMetrics.operation("PayrollDAO.getPayslipsByEmployeeId");
+    private static final DaoMetrics.Operation GET_HISTORY_PAGE = DaoMetrics.operation("PayrollDAO.getPayslipHistoryPage");
+    private static final DaoMetrics.Operation GET_SUMMARY_PAGE = DaoMetrics.operation("PayrollDAO.getPayslipSummaryPage");
+    private static final DaoMetrics.Operation GET_BY_MONTH = DaoMetrics.operation("PayrollDAO.getPayslipsByMonthAndYear");
+    private static final DaoMetrics.Operation GET_MONTH_PAGE = DaoMetrics.operation("PayrollDAO.getPayslipsByMonthPage");
+    private static final DaoMetrics.Operation STREAM_BY_MONTH = DaoMetrics.operation("PayrollDAO.forEachPayslipByMonthAndYear");
+    private static final DaoMetrics.Operation STREAM_SUMMARY_BY_MONTH = DaoMetrics.operation("PayrollDAO.forEachPayslipSummaryByMonthAndYear");
+    private static final DaoMetrics.Operation EXISTS = DaoMetrics.operation("PayrollDAO.payslipExists");
+    private static final DaoMetrics.Operation GET_PAID_IDS = DaoMetrics.operation("PayrollDAO.getPaidEmployeeIds");
+
+    private final EmployeeDAO employeeDAO = new EmployeeDAO();
+    private final DepartmentRollupDAO rollupDAO = new DepartmentRollupDAO();
+    private final YearToDateDAO yearToDateDAO = new YearToDateDAO();
     
     /**
-     * Save payslip to database
+     * Save payslip to database, adding it to its department's rollup and its employee's
+     * year-to-date totals in the same transaction
      */
     public boolean savePayslip(Payslip payslip) throws SQLException {
-        String sql = "INSERT INTO payslips(emp_id, month, year, base_salary, hra, allowance, gross_salary, income_tax, provident_fund, health_insurance, total_deductions, net_salary, generated_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        try (Connection con = DBConnection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
-            
-            ps.setInt(1, payslip.getEmpId());
-            ps.setInt(2, payslip.getMonth());
-            ps.setInt(3, payslip.getYear());
-            ps.setDouble(4, payslip.getBaseSalary());
-            ps.setDouble(5, payslip.getHra());
-            ps.setDouble(6, payslip.getAllowance());
-            ps.setDouble(7, payslip.getGrossSalary());
-            ps.setDouble(8, payslip.getIncomeTax());
-            ps.setDouble(9, payslip.getProvidentFund());
-            ps.setDouble(10, payslip.getHealthInsurance());
-            ps.setDouble(11, payslip.getTotalDeductions());
-            ps.setDouble(12, payslip.getNetSalary());
-            ps.setDate(13, Date.valueOf(payslip.getGeneratedDate()));
-            
-            int rowsAffected = ps.executeUpdate();
+        long start = SAVE_PAYSLIP.start();
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            int rowsAffected;
+            try (PreparedStatement ps = con.prepareStatement(INSERT_PAYSLIP_SQL)) {
+                bindPayslip(ps, payslip);
+                rowsAffected = ps.executeUpdate();
+                rollupDAO.addPayslip(con, payslip);
+                yearToDateDAO.addPayslip(con, payslip);
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+            DepartmentRollupDAO.invalidate(payslip.getMonth(), payslip.getYear());
+            SAVE_PAYSLIP.success(start, rowsAffected);
             return rowsAffected > 0;
         } catch (SQLException e) {
+            SAVE_PAYSLIP.failure(start);
             System.err.println("Error saving payslip: " + e.getMessage());
             throw e;
         }
     }
 
+    /**
+     * Fetch an active employee, compute the payslip with the calculator and insert it,
+     * all on one connection in one transaction together with its department rollup and
+     * year-to-date totals. Returns null if the employee does not exist.
+     * A payslip that already exists for the month/year surfaces as a duplicate key
+     * SQLException (see isDuplicateKey) rather than being checked for up front.
+     */
+    public Payslip createPayslip(int empId, Function<Employee, Payslip> calculator) throws SQLException {
+        long start = CREATE_PAYSLIP.start();
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                Employee employee = employeeDAO.getEmployeeById(con, empId);
+                if (employee == null) {
+                    con.rollback();
+                    CREATE_PAYSLIP.success(start, 0);
+                    return null;
+                }
+
+                Payslip payslip = calculator.apply(employee);
+                if (payslip.getDepartment() == null) {
+                    payslip.setDepartment(employee.getDepartment());
+                }
+                try (PreparedStatement ps = con.prepareStatement(INSERT_PAYSLIP_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    bindPayslip(ps, payslip);
+                    ps.executeUpdate();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        if (keys.next()) {
+                            payslip.setPayslipId(keys.getInt(1));
+                        }
+                    }
+                }
+                rollupDAO.addPayslip(con, payslip);
+                yearToDateDAO.addPayslip(con, payslip);
+                con.commit();
+                DepartmentRollupDAO.invalidate(payslip.getMonth(), payslip.getYear());
+                CREATE_PAYSLIP.success(start, 1);
+                return payslip;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            CREATE_PAYSLIP.failure(start);
+            if (!isDuplicateKey(e)) {
+                System.err.println("Error creating payslip: " + e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Save payslips in JDBC batches of the configured size inside a single transaction.
+     * Generated payslip IDs are set on the saved payslips. Payslips that collide with an
+     * existing one for the same employee and month/year are reported as duplicates
+     * instead of failing the whole save; any other error rolls everything back. The saved
+     * payslips are added to the department rollups and year-to-date totals in the same transaction.
+     */
+    public PayslipBatchResult savePayslips(List<Payslip> payslips) throws SQLException {
+        return savePayslips(payslips, BATCH_SIZE);
+    }
+
+    /**
+     * Save payslips using the given number of rows per executeBatch call
+     */
+    public PayslipBatchResult savePayslips(List<Payslip> payslips, int batchSize) throws SQLException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        PayslipBatchResult result = new PayslipBatchResult();
+        if (payslips.isEmpty()) {
+            return result;
+        }
+
+        long start = SAVE_PAYSLIPS.start();
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(INSERT_PAYSLIP_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (int from = 0; from < payslips.size(); from += batchSize) {
+                    List<Payslip> batch = payslips.subList(from, Math.min(from + batchSize, payslips.size()));
+                    executeInsertBatch(con, ps, batch, result);
+                }
+                rollupDAO.addPayslips(con, result.getSaved());
+                yearToDateDAO.addPayslips(con, result.getSaved());
+                con.commit();
+                DepartmentRollupDAO.committed(result.getSaved());
+                SAVE_PAYSLIPS.success(start, result.getSavedCount());
+                return result;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            SAVE_PAYSLIPS.failure(start);
+            System.err.println("Error saving payslip batch: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Insert one batch; if it hits the unique_payslip key, undo it and insert row by row
+     * so only the conflicting payslips are rejected
+     */
+    private void executeInsertBatch(Connection con, PreparedStatement ps, List<Payslip> batch,
+                                    PayslipBatchResult result) throws SQLException {
+        Savepoint savepoint = con.setSavepoint();
+        try {
+            for (Payslip payslip : batch) {
+                bindPayslip(ps, payslip);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (Payslip payslip : batch) {
+                    if (keys.next()) {
+                        payslip.setPayslipId(keys.getInt(1));
+                    }
+                    result.addSaved(payslip);
+                }
+            }
+            con.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            ps.clearBatch();
+            if (!isDuplicateKey(e)) {
+                throw e;
+            }
+            con.rollback(savepoint);
+            for (Payslip payslip : batch) {
+                insertSingle(ps, payslip, result);
+            }
+        }
+    }
+
+    private void insertSingle(PreparedStatement ps, Payslip payslip, PayslipBatchResult result) throws SQLException {
+        bindPayslip(ps, payslip);
+        try {
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            if (isDuplicateKey(e)) {
+                result.addDuplicate(payslip);
+                return;
+            }
+            throw e;
+        }
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            if (keys.next()) {
+                payslip.setPayslipId(keys.getInt(1));
+            }
+        }
+        result.addSaved(payslip);
+    }
+
+    /**
+     * Whether the exception, or one chained to it, is a MySQL duplicate key error
+     */
+    public static boolean isDuplicateKey(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                SQLException sqlException = (SQLException) t;
+                if (sqlException.getErrorCode() == MYSQL_DUPLICATE_KEY) {
+                    return true;
+                }
+                SQLException next = sqlException.getNextException();
+                if (next != null && next != t && isDuplicateKey(next)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Get payslip by ID
      */
     public Payslip getPayslipById(int payslipId) throws SQLException {
-        String sql = "SELECT * FROM payslips WHERE payslip_id = ?";
+        String sql = "SELECT " + PayslipRowMapper.COLUMNS + " FROM payslips WHERE payslip_id = ?";
+        long start = GET_BY_ID.start();
         
         try (Connection con = DBConnection.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
@@ -53,45 +261,142 @@ public class PayrollDAO {
             ps.setInt(1, payslipId);
             ResultSet rs = ps.executeQuery();
             
-            if (rs.next()) {
-                return mapResultSetToPayslip(rs);
-            }
+            Payslip payslip = rs.next() ? new PayslipRowMapper(rs).map() : null;
+            GET_BY_ID.success(start, payslip == null ? 0 : 1);
+            return payslip;
         } catch (SQLException e) {
+            GET_BY_ID.failure(start);
             System.err.println("Error fetching payslip: " + e.getMessage());
             throw e;
         }
-        return null;
     }
 
     /**
-     * Get all payslips for an employee
+     * Get all payslips for an employee, newest first.
+     * Loads the whole history; prefer getPayslipHistoryPage or getLatestPayslips.
      */
     public List<Payslip> getPayslipsByEmployeeId(int empId) throws SQLException {
         List<Payslip> payslips = new ArrayList<>();
-        String sql = "SELECT * FROM payslips WHERE emp_id = ? ORDER BY year DESC, month DESC";
+        String sql = "SELECT " + PayslipRowMapper.COLUMNS + " FROM payslips WHERE emp_id = ? ORDER BY year DESC, month DESC";
+        long start = GET_BY_EMPLOYEE.start();
         
         try (Connection con = DBConnection.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
             
             ps.setInt(1, empId);
             ResultSet rs = ps.executeQuery();
+            PayslipRowMapper mapper = new PayslipRowMapper(rs);
             
             while (rs.next()) {
-                payslips.add(mapResultSetToPayslip(rs));
+                payslips.add(mapper.map());
             }
         } catch (SQLException e) {
+            GET_BY_EMPLOYEE.failure(start);
             System.err.println("Error fetching payslips: " + e.getMessage());
             throw e;
         }
+        GET_BY_EMPLOYEE.success(start, payslips.size());
+        return payslips;
+    }
+
+    /**
+     * Get one page of an employee's payslips for months before (beforeYear, beforeMonth), newest first.
+     * Pass 0, 0 for the latest payslips, and the year and month of the last payslip of a page to get
+     * the next one. Served from idx_emp_history: the page is picked from the index alone and only
+     * its rows are read from the table, so a page costs the same however long the history is.
+     */
+    public List<Payslip> getPayslipHistoryPage(int empId, int beforeYear, int beforeMonth, int pageSize)
+            throws SQLException {
+        String sql = "SELECT " + PayslipRowMapper.COLUMNS + " FROM (" + historyPageSql("payslip_id", beforeYear) + ") page "
+                + "JOIN payslips p USING (payslip_id) ORDER BY year DESC, month DESC";
+        List<Payslip> payslips = new ArrayList<>(pageSize);
+        long start = GET_HISTORY_PAGE.start();
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            bindHistoryPage(ps, empId, beforeYear, beforeMonth, pageSize);
+            ResultSet rs = ps.executeQuery();
+            PayslipRowMapper mapper = new PayslipRowMapper(rs);
+
+            while (rs.next()) {
+                payslips.add(mapper.map());
+            }
+        } catch (SQLException e) {
+            GET_HISTORY_PAGE.failure(start);
+            System.err.println("Error fetching payslip history: " + e.getMessage());
+            throw e;
+        }
+        GET_HISTORY_PAGE.success(start, payslips.size());
         return payslips;
     }
 
+    /**
+     * Get an employee's latest payslips, newest first
+     */
+    public List<Payslip> getLatestPayslips(int empId, int limit) throws SQLException {
+        return getPayslipHistoryPage(empId, 0, 0, limit);
+    }
+
+    /**
+     * Same page as getPayslipHistoryPage, with only the columns list views show.
+     * idx_emp_history holds all of them, so the page is read from the index without touching the table.
+     */
+    public List<PayslipSummary> getPayslipSummaryPage(int empId, int beforeYear, int beforeMonth, int pageSize)
+            throws SQLException {
+        String sql = historyPageSql(PayslipSummaryRowMapper.COLUMNS, beforeYear);
+        List<PayslipSummary> summaries = new ArrayList<>(pageSize);
+        long start = GET_SUMMARY_PAGE.start();
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            bindHistoryPage(ps, empId, beforeYear, beforeMonth, pageSize);
+            ResultSet rs = ps.executeQuery();
+            PayslipSummaryRowMapper mapper = new PayslipSummaryRowMapper(rs);
+
+            while (rs.next()) {
+                summaries.add(mapper.map());
+            }
+        } catch (SQLException e) {
+            GET_SUMMARY_PAGE.failure(start);
+            System.err.println("Error fetching payslip history: " + e.getMessage());
+            throw e;
+        }
+        GET_SUMMARY_PAGE.success(start, summaries.size());
+        return summaries;
+    }
+
+    /**
+     * One page of an employee's history in idx_emp_history order. The latest page (beforeYear 0)
+     * has no range predicate and just reads the first entries of the employee's index range.
+     */
+    private static String historyPageSql(String columns, int beforeYear) {
+        return "SELECT " + columns + " FROM payslips WHERE emp_id = ? "
+                + (beforeYear == 0 ? "" : "AND (year < ? OR (year = ? AND month < ?)) ")
+                + "ORDER BY year DESC, month DESC LIMIT ?";
+    }
+
+    private static void bindHistoryPage(PreparedStatement ps, int empId, int beforeYear, int beforeMonth, int pageSize)
+            throws SQLException {
+        ps.setInt(1, empId);
+        if (beforeYear == 0) {
+            ps.setInt(2, pageSize);
+        } else {
+            ps.setInt(2, beforeYear);
+            ps.setInt(3, beforeYear);
+            ps.setInt(4, beforeMonth);
+            ps.setInt(5, pageSize);
+        }
+    }
+
     /**
      * Get payslips for a specific month and year
      */
     public List<Payslip> getPayslipsByMonthAndYear(int month, int year) throws SQLException {
         List<Payslip> payslips = new ArrayList<>();
-        String sql = "SELECT * FROM payslips WHERE month = ? AND year = ? ORDER BY emp_id";
+        String sql = "SELECT " + PayslipRowMapper.COLUMNS + " FROM payslips WHERE month = ? AND year = ? ORDER BY emp_id";
+        long start = GET_BY_MONTH.start();
         
         try (Connection con = DBConnection.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
@@ -99,22 +404,139 @@ public class PayrollDAO {
             ps.setInt(1, month);
             ps.setInt(2, year);
             ResultSet rs = ps.executeQuery();
+            PayslipRowMapper mapper = new PayslipRowMapper(rs);
             
             while (rs.next()) {
-                payslips.add(mapResultSetToPayslip(rs));
+                payslips.add(mapper.map());
             }
         } catch (SQLException e) {
+            GET_BY_MONTH.failure(start);
             System.err.println("Error fetching payslips by month and year: " + e.getMessage());
             throw e;
         }
+        GET_BY_MONTH.success(start, payslips.size());
+        return payslips;
+    }
+
+    /**
+     * Get one page of a month's payslips with emp_id greater than afterEmpId, in emp_id order,
+     * from a range of the idx_month_year index
+     */
+    public List<Payslip> getPayslipsByMonthPage(int month, int year, int afterEmpId, int pageSize) throws SQLException {
+        List<Payslip> payslips = new ArrayList<>(pageSize);
+        String sql = "SELECT " + PayslipRowMapper.COLUMNS + " FROM payslips WHERE month = ? AND year = ? AND emp_id > ? "
+                + "ORDER BY emp_id LIMIT ?";
+        long start = GET_MONTH_PAGE.start();
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            ps.setFetchSize(pageSize);
+            ps.setInt(1, month);
+            ps.setInt(2, year);
+            ps.setInt(3, afterEmpId);
+            ps.setInt(4, pageSize);
+            ResultSet rs = ps.executeQuery();
+            PayslipRowMapper mapper = new PayslipRowMapper(rs);
+
+            while (rs.next()) {
+                payslips.add(mapper.map());
+            }
+        } catch (SQLException e) {
+            GET_MONTH_PAGE.failure(start);
+            System.err.println("Error fetching payslip page by month and year: " + e.getMessage());
+            throw e;
+        }
+        GET_MONTH_PAGE.success(start, payslips.size());
         return payslips;
     }
 
+    /**
+     * Department totals for a month from the department rollups, served from their in-memory mirror
+     */
+    public List<PayrollTotals> getDepartmentTotals(int month, int year) throws SQLException {
+        return rollupDAO.getMonth(month, year);
+    }
+
+    public YearToDate getYearToDate(int empId, int financialYear) throws SQLException {
+        return yearToDateDAO.getYearToDate(empId, financialYear);
+    }
+
+    public int rebuildDepartmentTotals(int year) throws SQLException {
+        return year == 0 ? rollupDAO.rebuild() : rollupDAO.rebuild(year);
+    }
+
+    public int rebuildYearToDate(int financialYear) throws SQLException {
+        return financialYear == 0 ? yearToDateDAO.rebuild() : yearToDateDAO.rebuild(financialYear);
+    }
+
+    /**
+     * Stream every payslip of a month to the consumer in emp_id order without loading them into memory
+     */
+    public void forEachPayslipByMonthAndYear(int month, int year, Consumer<Payslip> consumer) throws SQLException {
+        String sql = "SELECT " + PayslipRowMapper.COLUMNS + " FROM payslips WHERE month = ? AND year = ? ORDER BY emp_id";
+        long start = STREAM_BY_MONTH.start();
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setInt(1, month);
+            ps.setInt(2, year);
+            long rows = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                PayslipRowMapper mapper = new PayslipRowMapper(rs);
+                while (rs.next()) {
+                    consumer.accept(mapper.map());
+                    rows++;
+                }
+            }
+            STREAM_BY_MONTH.success(start, rows);
+        } catch (SQLException e) {
+            STREAM_BY_MONTH.failure(start);
+            System.err.println("Error streaming payslips by month and year: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Stream the list-view columns of every payslip of a month to the consumer in emp_id order
+     */
+    public void forEachPayslipSummaryByMonthAndYear(int month, int year, Consumer<PayslipSummary> consumer)
+            throws SQLException {
+        String sql = "SELECT " + PayslipSummaryRowMapper.COLUMNS + " FROM payslips WHERE month = ? AND year = ? ORDER BY emp_id";
+        long start = STREAM_SUMMARY_BY_MONTH.start();
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setInt(1, month);
+            ps.setInt(2, year);
+            long rows = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                PayslipSummaryRowMapper mapper = new PayslipSummaryRowMapper(rs);
+                while (rs.next()) {
+                    consumer.accept(mapper.map());
+                    rows++;
+                }
+            }
+            STREAM_SUMMARY_BY_MONTH.success(start, rows);
+        } catch (SQLException e) {
+            STREAM_SUMMARY_BY_MONTH.failure(start);
+            System.err.println("Error streaming payslips by month and year: " + e.getMessage());
+            throw e;
+        }
+    }
+
     /**
      * Check if payslip already exists for employee in a specific month/year
      */
     public boolean payslipExists(int empId, int month, int year) throws SQLException {
         String sql = "SELECT COUNT(*) FROM payslips WHERE emp_id = ? AND month = ? AND year = ?";
+        long start = EXISTS.start();
         
         try (Connection con = DBConnection.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
@@ -124,35 +546,60 @@ public class PayrollDAO {
             ps.setInt(3, year);
             ResultSet rs = ps.executeQuery();
             
-            if (rs.next()) {
-                return rs.getInt(1) > 0;
-            }
+            boolean exists = rs.next() && rs.getInt(1) > 0;
+            EXISTS.success(start, exists ? 1 : 0);
+            return exists;
         } catch (SQLException e) {
+            EXISTS.failure(start);
             System.err.println("Error checking payslip existence: " + e.getMessage());
             throw e;
         }
-        return false;
     }
 
     /**
-     * Map ResultSet to Payslip object
-     */
-    private Payslip mapResultSetToPayslip(ResultSet rs) throws SQLException {
-        Payslip payslip = new Payslip();
-        payslip.setPayslipId(rs.getInt("payslip_id"));
-        payslip.setEmpId(rs.getInt("emp_id"));
-        payslip.setMonth(rs.getInt("month"));
-        payslip.setYear(rs.getInt("year"));
-        payslip.setBaseSalary(rs.getDouble("base_salary"));
-        payslip.setHra(rs.getDouble("hra"));
-        payslip.setAllowance(rs.getDouble("allowance"));
-        payslip.setGrossSalary(rs.getDouble("gross_salary"));
-        payslip.setIncomeTax(rs.getDouble("income_tax"));
-        payslip.setProvidentFund(rs.getDouble("provident_fund"));
-        payslip.setHealthInsurance(rs.getDouble("health_insurance"));
-        payslip.setTotalDeductions(rs.getDouble("total_deductions"));
-        payslip.setNetSalary(rs.getDouble("net_salary"));
-        payslip.setGeneratedDate(rs.getDate("generated_date").toLocalDate());
-        return payslip;
+     * Get IDs of employees who already have a payslip for a specific month/year
+     */
+    public Set<Integer> getPaidEmployeeIds(int month, int year) throws SQLException {
+        Set<Integer> empIds = new HashSet<>();
+        String sql = "SELECT emp_id FROM payslips WHERE month = ? AND year = ?";
+        long start = GET_PAID_IDS.start();
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            ps.setInt(1, month);
+            ps.setInt(2, year);
+            ResultSet rs = ps.executeQuery();
+
+            while (rs.next()) {
+                empIds.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            GET_PAID_IDS.failure(start);
+            System.err.println("Error fetching paid employees: " + e.getMessage());
+            throw e;
+        }
+        GET_PAID_IDS.success(start, empIds.size());
+        return empIds;
+    }
+
+    /**
+     * Bind payslip values to the INSERT_PAYSLIP_SQL parameters
+     */
+    private void bindPayslip(PreparedStatement ps, Payslip payslip) throws SQLException {
+        ps.setInt(1, payslip.getEmpId());
+        ps.setInt(2, payslip.getMonth());
+        ps.setInt(3, payslip.getYear());
+        ps.setString(4, payslip.getDepartment());
+        ps.setBigDecimal(5, Money.toDecimal(payslip.getBaseSalaryPaise()));
+        ps.setBigDecimal(6, Money.toDecimal(payslip.getHraPaise()));
+        ps.setBigDecimal(7, Money.toDecimal(payslip.getAllowancePaise()));
+        ps.setBigDecimal(8, Money.toDecimal(payslip.getGrossSalaryPaise()));
+        ps.setBigDecimal(9, Money.toDecimal(payslip.getIncomeTaxPaise()));
+        ps.setBigDecimal(10, Money.toDecimal(payslip.getProvidentFundPaise()));
+        ps.setBigDecimal(11, Money.toDecimal(payslip.getHealthInsurancePaise()));
+        ps.setBigDecimal(12, Money.toDecimal(payslip.getTotalDeductionsPaise()));
+        ps.setBigDecimal(13, Money.toDecimal(payslip.getNetSalaryPaise()));
+        ps.setDate(14, Date.valueOf(payslip.getGeneratedDate()));
     }
 }
@@ -0,0 +1,163 @@
+package dao;
+
+import model.YearToDate;
+import util.DaoMetrics;
+import util.DBConnection;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Bookkeeping for bulk payroll runs in the payroll_runs table.
+ * Each run records a watermark (the database time when it started) and a fingerprint of the
+ * calculation rules it used. Payslips of the run were computed from employee rows read after
+ * the watermark, so an employee whose updated_at is still before it has the same pay next month
+ * and the payslip can be copied instead of recomputed.
+ */
+public class PayrollRunDAO implements PayrollRunRepository {
+
+    // Never equal to a real fingerprint, so a month computed under two sets of rules is never cloned from
+    private static final String MIXED_CALCULATION = "mixed";
+
+    private static final DaoMetrics.Operation START_RUN = DaoMetrics.operation("PayrollRunDAO.startRun");
+    private static final DaoMetrics.Operation COMPLETE_RUN = DaoMetrics.operation("PayrollRunDAO.completeRun");
+    private static final DaoMetrics.Operation CLONE = DaoMetrics.operation("PayrollRunDAO.cloneUnchangedPayslips");
+
+    // Last month's payslips that can be copied to this month; see cloneUnchangedPayslips
+    private static final String CLONE_SOURCE = "FROM payroll_runs r "
+            + "JOIN payslips p ON p.month = r.month AND p.year = r.year "
+            + "JOIN employees e ON e.emp_id = p.emp_id "
+            + "WHERE r.month = ? AND r.year = ? AND r.calculation = ? "
+            + "AND e.active = true AND e.updated_at < r.watermark "
+            + "AND e.base_salary = p.base_salary AND e.hra = p.hra AND e.allowance = p.allowance "
+            + "AND NOT EXISTS (SELECT 1 FROM payslips c WHERE c.emp_id = p.emp_id AND c.month = ? AND c.year = ?)";
+
+    private final DepartmentRollupDAO rollupDAO = new DepartmentRollupDAO();
+
+    /**
+     * Record the start of a run for the month and set its watermark to the current database time.
+     * Running a month again keeps the earlier watermark, since payslips from the first attempt
+     * may have been computed before the second one started.
+     */
+    public void startRun(int month, int year, String mode, String calculation) throws SQLException {
+        String sql = "INSERT INTO payroll_runs(month, year, mode, calculation, watermark, started_at) "
+                + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) "
+                + "ON DUPLICATE KEY UPDATE calculation = IF(calculation = VALUES(calculation), calculation, '"
+                + MIXED_CALCULATION + "'), watermark = LEAST(watermark, VALUES(watermark)), mode = VALUES(mode), "
+                + "started_at = VALUES(started_at), completed_at = NULL";
+        long start = START_RUN.start();
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            ps.setInt(1, month);
+            ps.setInt(2, year);
+            ps.setString(3, mode);
+            ps.setString(4, calculation);
+            int rowsAffected = ps.executeUpdate();
+            START_RUN.success(start, rowsAffected);
+        } catch (SQLException e) {
+            START_RUN.failure(start);
+            System.err.println("Error recording payroll run: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Mark the month's run as finished with the number of payslips it computed and cloned
+     */
+    public void completeRun(int month, int year, int computed, int cloned) throws SQLException {
+        String sql = "UPDATE payroll_runs SET completed_at = CURRENT_TIMESTAMP, payslips_computed = ?, payslips_cloned = ? "
+                + "WHERE month = ? AND year = ?";
+        long start = COMPLETE_RUN.start();
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            ps.setInt(1, computed);
+            ps.setInt(2, cloned);
+            ps.setInt(3, month);
+            ps.setInt(4, year);
+            int rowsAffected = ps.executeUpdate();
+            COMPLETE_RUN.success(start, rowsAffected);
+        } catch (SQLException e) {
+            COMPLETE_RUN.failure(start);
+            System.err.println("Error recording payroll run: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Copy last month's payslip to the month for every active employee whose pay has not changed,
+     * in one INSERT ... SELECT. A payslip is copied only if last month's run used the same
+     * calculation rules, the employee was last updated before that run's watermark, and the
+     * payslip's salary components still match the employee's (which also covers payslips
+     * generated one at a time outside a run). Employees already paid for the month are left alone.
+     * The copies are added to the year-to-date totals and the month's department rollups are
+     * recomputed in the same transaction.
+     *
+     * @return the number of payslips copied; 0 if last month has no run to copy from
+     */
+    public int cloneUnchangedPayslips(int month, int year, String calculation, LocalDate generatedDate)
+            throws SQLException {
+        String cloneSql = "INSERT INTO payslips(emp_id, month, year, department, base_salary, hra, allowance, gross_salary, "
+                + "income_tax, provident_fund, health_insurance, total_deductions, net_salary, generated_date) "
+                + "SELECT p.emp_id, ?, ?, e.department, p.base_salary, p.hra, p.allowance, p.gross_salary, p.income_tax, "
+                + "p.provident_fund, p.health_insurance, p.total_deductions, p.net_salary, ? "
+                + CLONE_SOURCE;
+        // Same rows as cloneSql, run first: its locking reads keep the set of payslips to clone
+        // fixed until commit, so the YTD totals get exactly the payslips cloneSql inserts
+        String ytdSql = YearToDateDAO.INSERT_YTD
+                + "SELECT p.emp_id, ?, 1, p.gross_salary, p.income_tax, p.provident_fund, p.health_insurance, "
+                + "p.total_deductions, p.net_salary " + CLONE_SOURCE + YearToDateDAO.ADD_TOTALS;
+        long start = CLONE.start();
+
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            int cloned;
+            try (PreparedStatement ytd = con.prepareStatement(ytdSql);
+                 PreparedStatement ps = con.prepareStatement(cloneSql)) {
+                ytd.setInt(1, YearToDate.financialYearOf(month, year));
+                bindCloneSource(ytd, 2, month, year, calculation);
+                ytd.executeUpdate();
+
+                ps.setInt(1, month);
+                ps.setInt(2, year);
+                ps.setDate(3, Date.valueOf(generatedDate));
+                bindCloneSource(ps, 4, month, year, calculation);
+                cloned = ps.executeUpdate();
+                if (cloned > 0) {
+                    rollupDAO.rebuildMonth(con, month, year);
+                }
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+            if (cloned > 0) {
+                DepartmentRollupDAO.invalidate(month, year);
+            }
+            CLONE.success(start, cloned);
+            return cloned;
+        } catch (SQLException e) {
+            CLONE.failure(start);
+            System.err.println("Error copying unchanged payslips: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Bind the CLONE_SOURCE parameters starting at index
+     */
+    private static void bindCloneSource(PreparedStatement ps, int index, int month, int year, String calculation)
+            throws SQLException {
+        ps.setInt(index, month == 1 ? 12 : month - 1);
+        ps.setInt(index + 1, month == 1 ? year - 1 : year);
+        ps.setString(index + 2, calculation);
+        ps.setInt(index + 3, month);
+        ps.setInt(index + 4, year);
+    }
+}
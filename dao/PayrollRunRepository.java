@@ -0,0 +1,33 @@
+package dao;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Bookkeeping for bulk payroll runs, which lets a run copy last month's payslips of employees
+ * whose pay has not changed instead of recomputing them. PayrollRunDAO keeps runs in MySQL;
+ * EmbeddedPayrollRunDAO keeps none and never copies.
+ */
+public interface PayrollRunRepository {
+
+    String MODE_FULL = "FULL";
+    String MODE_INCREMENTAL = "INCREMENTAL";
+
+    /**
+     * Record the start of a run for the month with the fingerprint of its calculation rules
+     */
+    void startRun(int month, int year, String mode, String calculation) throws SQLException;
+
+    /**
+     * Mark the month's run as finished with the number of payslips it computed and cloned
+     */
+    void completeRun(int month, int year, int computed, int cloned) throws SQLException;
+
+    /**
+     * Copy last month's payslip to the month for every active employee whose pay has not changed
+     * since last month's run under the same calculation rules
+     *
+     * @return the number of payslips copied
+     */
+    int cloneUnchangedPayslips(int month, int year, String calculation, LocalDate generatedDate) throws SQLException;
+}
@@ -0,0 +1,50 @@
+package dao;
+
+import model.Payslip;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of saving a list of payslips in batches
+ */
+public class PayslipBatchResult {
+
+    private final List<Payslip> saved = new ArrayList<>();
+    private final List<Payslip> duplicates = new ArrayList<>();
+
+    void addSaved(Payslip payslip) {
+        saved.add(payslip);
+    }
+
+    void addDuplicate(Payslip payslip) {
+        duplicates.add(payslip);
+    }
+
+    /**
+     * Payslips that were inserted, with their generated payslip IDs set
+     */
+    public List<Payslip> getSaved() {
+        return Collections.unmodifiableList(saved);
+    }
+
+    /**
+     * Payslips rejected because the employee already has one for that month/year
+     */
+    public List<Payslip> getDuplicates() {
+        return Collections.unmodifiableList(duplicates);
+    }
+
+    public int getSavedCount() {
+        return saved.size();
+    }
+
+    @Override
+    public String toString() {
+        return "PayslipBatchResult{" +
+                "saved=" + saved.size() +
+                ", duplicates=" + duplicates.size() +
+                '}';
+    }
+}
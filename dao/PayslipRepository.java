@@ -0,0 +1,122 @@
+package dao;
+
+import model.Employee;
+import model.Payslip;
+import model.PayrollTotals;
+import model.PayslipSummary;
+import model.YearToDate;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Storage of payslips and of the totals kept alongside them: per department and month, and per
+ * employee and financial year. PayrollDAO keeps them in MySQL and EmbeddedPayrollDAO in local
+ * files; Repositories picks one from storage.backend. A payslip is unique per employee and
+ * month/year; a second one is rejected with a duplicate key SQLException (see
+ * PayrollDAO.isDuplicateKey).
+ */
+public interface PayslipRepository {
+
+    /**
+     * Save a payslip
+     */
+    boolean savePayslip(Payslip payslip) throws SQLException;
+
+    /**
+     * Fetch an active employee, compute the payslip with the calculator and save it atomically.
+     * Returns null if the employee does not exist.
+     */
+    Payslip createPayslip(int empId, Function<Employee, Payslip> calculator) throws SQLException;
+
+    /**
+     * Save payslips all or nothing, reporting those that collide with an existing payslip as
+     * duplicates instead of failing. Generated payslip IDs are set on the saved payslips.
+     */
+    PayslipBatchResult savePayslips(List<Payslip> payslips) throws SQLException;
+
+    /**
+     * Get payslip by ID, or null
+     */
+    Payslip getPayslipById(int payslipId) throws SQLException;
+
+    /**
+     * Get all payslips for an employee, newest first.
+     * Loads the whole history; prefer getPayslipHistoryPage.
+     */
+    List<Payslip> getPayslipsByEmployeeId(int empId) throws SQLException;
+
+    /**
+     * Get one page of an employee's payslips for months before (beforeYear, beforeMonth), newest first.
+     * Pass 0, 0 for the latest payslips, and the year and month of the last payslip of a page to get the next one.
+     */
+    List<Payslip> getPayslipHistoryPage(int empId, int beforeYear, int beforeMonth, int pageSize) throws SQLException;
+
+    /**
+     * Same page as getPayslipHistoryPage, with only the columns list views show
+     */
+    List<PayslipSummary> getPayslipSummaryPage(int empId, int beforeYear, int beforeMonth, int pageSize)
+            throws SQLException;
+
+    /**
+     * Get payslips for a specific month and year in emp_id order
+     */
+    List<Payslip> getPayslipsByMonthAndYear(int month, int year) throws SQLException;
+
+    /**
+     * Get one page of a month's payslips with emp_id greater than afterEmpId, in emp_id order.
+     * Pass 0 for the first page and the last emp_id of a page to get the next one.
+     */
+    List<Payslip> getPayslipsByMonthPage(int month, int year, int afterEmpId, int pageSize) throws SQLException;
+
+    /**
+     * Stream every payslip of a month to the consumer in emp_id order without loading them into memory
+     */
+    void forEachPayslipByMonthAndYear(int month, int year, Consumer<Payslip> consumer) throws SQLException;
+
+    /**
+     * Stream the list-view columns of every payslip of a month to the consumer in emp_id order
+     */
+    void forEachPayslipSummaryByMonthAndYear(int month, int year, Consumer<PayslipSummary> consumer)
+            throws SQLException;
+
+    /**
+     * Check if payslip already exists for employee in a specific month/year
+     */
+    boolean payslipExists(int empId, int month, int year) throws SQLException;
+
+    /**
+     * Get IDs of employees who already have a payslip for a specific month/year
+     */
+    Set<Integer> getPaidEmployeeIds(int month, int year) throws SQLException;
+
+    /**
+     * Payslip totals per department for a month, in department order; empty if nothing has been paid.
+     * A payslip counts towards its employee's department when it was saved.
+     */
+    List<PayrollTotals> getDepartmentTotals(int month, int year) throws SQLException;
+
+    /**
+     * Totals of an employee's payslips in a financial year, or null if none has been saved
+     */
+    YearToDate getYearToDate(int empId, int financialYear) throws SQLException;
+
+    /**
+     * Recompute the department totals of every month, or of one year, from the payslips, for repair
+     *
+     * @param year the year, or 0 for all of them
+     * @return the number of (department, month) totals written
+     */
+    int rebuildDepartmentTotals(int year) throws SQLException;
+
+    /**
+     * Recompute the year-to-date totals of every financial year, or of one, from the payslips, for repair
+     *
+     * @param financialYear the financial year, or 0 for all of them
+     * @return the number of (employee, financial year) totals written
+     */
+    int rebuildYearToDate(int financialYear) throws SQLException;
+}
@@ -0,0 +1,79 @@
+package dao;
+
+import model.Payslip;
+import util.Money;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the rows of a payslip query to Payslip objects by column position.
+ * Positions are resolved from the column labels once, when the mapper is created for a
+ * ResultSet, instead of looking every column up by name on every row. Queries should select
+ * COLUMNS (in any order, with or without a table alias).
+ */
+public final class PayslipRowMapper {
+
+    /** The columns a Payslip is built from, for SELECT lists */
+    public static final String COLUMNS = "payslip_id, emp_id, month, year, department, base_salary, hra, allowance, "
+            + "gross_salary, income_tax, provident_fund, health_insurance, total_deductions, net_salary, generated_date";
+
+    private final ResultSet rs;
+    private final int payslipId;
+    private final int empId;
+    private final int month;
+    private final int year;
+    private final int department;
+    private final int baseSalary;
+    private final int hra;
+    private final int allowance;
+    private final int grossSalary;
+    private final int incomeTax;
+    private final int providentFund;
+    private final int healthInsurance;
+    private final int totalDeductions;
+    private final int netSalary;
+    private final int generatedDate;
+
+    public PayslipRowMapper(ResultSet rs) throws SQLException {
+        this.rs = rs;
+        this.payslipId = rs.findColumn("payslip_id");
+        this.empId = rs.findColumn("emp_id");
+        this.month = rs.findColumn("month");
+        this.year = rs.findColumn("year");
+        this.department = rs.findColumn("department");
+        this.baseSalary = rs.findColumn("base_salary");
+        this.hra = rs.findColumn("hra");
+        this.allowance = rs.findColumn("allowance");
+        this.grossSalary = rs.findColumn("gross_salary");
+        this.incomeTax = rs.findColumn("income_tax");
+        this.providentFund = rs.findColumn("provident_fund");
+        this.healthInsurance = rs.findColumn("health_insurance");
+        this.totalDeductions = rs.findColumn("total_deductions");
+        this.netSalary = rs.findColumn("net_salary");
+        this.generatedDate = rs.findColumn("generated_date");
+    }
+
+    /**
+     * Map the row the ResultSet is positioned on
+     */
+    public Payslip map() throws SQLException {
+        Payslip payslip = new Payslip();
+        payslip.setPayslipId(rs.getInt(payslipId));
+        payslip.setEmpId(rs.getInt(empId));
+        payslip.setMonth(rs.getInt(month));
+        payslip.setYear(rs.getInt(year));
+        payslip.setDepartment(rs.getString(department));
+        payslip.setBaseSalaryPaise(Money.fromDecimal(rs.getBigDecimal(baseSalary)));
+        payslip.setHraPaise(Money.fromDecimal(rs.getBigDecimal(hra)));
+        payslip.setAllowancePaise(Money.fromDecimal(rs.getBigDecimal(allowance)));
+        payslip.setGrossSalaryPaise(Money.fromDecimal(rs.getBigDecimal(grossSalary)));
+        payslip.setIncomeTaxPaise(Money.fromDecimal(rs.getBigDecimal(incomeTax)));
+        payslip.setProvidentFundPaise(Money.fromDecimal(rs.getBigDecimal(providentFund)));
+        payslip.setHealthInsurancePaise(Money.fromDecimal(rs.getBigDecimal(healthInsurance)));
+        payslip.setTotalDeductionsPaise(Money.fromDecimal(rs.getBigDecimal(totalDeductions)));
+        payslip.setNetSalaryPaise(Money.fromDecimal(rs.getBigDecimal(netSalary)));
+        payslip.setGeneratedDate(rs.getDate(generatedDate).toLocalDate());
+        return payslip;
+    }
+}
@@ -0,0 +1,46 @@
+package dao;
+
+import model.PayslipSummary;
+import util.Money;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the rows of a list-view query to PayslipSummary objects by column position,
+ * resolved once per ResultSet. Queries should select COLUMNS.
+ */
+public final class PayslipSummaryRowMapper {
+
+    /** The columns a PayslipSummary is built from, for SELECT lists */
+    public static final String COLUMNS = "payslip_id, emp_id, month, year, gross_salary, total_deductions, net_salary";
+
+    private final ResultSet rs;
+    private final int payslipId;
+    private final int empId;
+    private final int month;
+    private final int year;
+    private final int grossSalary;
+    private final int totalDeductions;
+    private final int netSalary;
+
+    public PayslipSummaryRowMapper(ResultSet rs) throws SQLException {
+        this.rs = rs;
+        this.payslipId = rs.findColumn("payslip_id");
+        this.empId = rs.findColumn("emp_id");
+        this.month = rs.findColumn("month");
+        this.year = rs.findColumn("year");
+        this.grossSalary = rs.findColumn("gross_salary");
+        this.totalDeductions = rs.findColumn("total_deductions");
+        this.netSalary = rs.findColumn("net_salary");
+    }
+
+    /**
+     * Map the row the ResultSet is positioned on
+     */
+    public PayslipSummary map() throws SQLException {
+        return new PayslipSummary(rs.getInt(payslipId), rs.getInt(empId), rs.getInt(month), rs.getInt(year),
+                Money.fromDecimal(rs.getBigDecimal(grossSalary)), Money.fromDecimal(rs.getBigDecimal(totalDeductions)),
+                Money.fromDecimal(rs.getBigDecimal(netSalary)));
+    }
+}
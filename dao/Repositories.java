@@ -0,0 +1,95 @@
+package dao;
+
+import util.AppConfig;
+import util.DBConnection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Picks the storage backend from storage.backend in application.properties:
+ * <ul>
+ *   <li>jdbc (the default): MySQL through DBConnection</li>
+ *   <li>embedded: files under storage.embedded.dir (see EmbeddedStorage), no database server</li>
+ * </ul>
+ * The embedded storage is opened on first use and shared by the whole process.
+ */
+public final class Repositories {
+
+    public static final String JDBC = "jdbc";
+    public static final String EMBEDDED = "embedded";
+
+    private static final String BACKEND = AppConfig.get("storage.backend", JDBC).trim().toLowerCase(Locale.ROOT);
+    private static final Path EMBEDDED_DIR = Paths.get(AppConfig.get("storage.embedded.dir", "data"));
+
+    private static EmbeddedStorage embeddedStorage;
+
+    private Repositories() {
+    }
+
+    /**
+     * Whether storage.backend selects the embedded backend
+     */
+    public static boolean isEmbedded() {
+        if (!BACKEND.equals(JDBC) && !BACKEND.equals(EMBEDDED)) {
+            throw new IllegalStateException("Unknown storage.backend '" + BACKEND + "'; use " + JDBC + " or " + EMBEDDED);
+        }
+        return BACKEND.equals(EMBEDDED);
+    }
+
+    /**
+     * Employees without a cache, for batch jobs that read each employee once
+     */
+    public static EmployeeRepository employees() {
+        return isEmbedded() ? embeddedStorage().employees() : new EmployeeDAO();
+    }
+
+    /**
+     * Employees behind a read-through cache (see CachedEmployeeDAO) on the JDBC backend.
+     * The embedded backend already answers lookups from its memory-mapped index, so it is not cached.
+     */
+    public static EmployeeRepository cachedEmployees() {
+        return isEmbedded() ? embeddedStorage().employees() : new CachedEmployeeDAO();
+    }
+
+    public static PayslipRepository payslips() {
+        return isEmbedded() ? embeddedStorage().payslips() : new PayrollDAO();
+    }
+
+    public static PayrollRunRepository payrollRuns() {
+        return isEmbedded() ? new EmbeddedPayrollRunDAO() : new PayrollRunDAO();
+    }
+
+    /**
+     * The process-wide embedded storage, opened (and recovered) on first use
+     */
+    public static synchronized EmbeddedStorage embeddedStorage() {
+        if (embeddedStorage == null) {
+            try {
+                embeddedStorage = EmbeddedStorage.open(EMBEDDED_DIR);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open embedded storage in " + EMBEDDED_DIR.toAbsolutePath(), e);
+            }
+        }
+        return embeddedStorage;
+    }
+
+    /**
+     * Close the embedded storage if it was opened and shut the connection pool down;
+     * call after SalaryAuditWriter.shutdownInstance()
+     */
+    public static synchronized void shutdown() {
+        if (embeddedStorage != null) {
+            try {
+                embeddedStorage.close();
+            } catch (IOException e) {
+                System.err.println("Error closing embedded storage: " + e.getMessage());
+            }
+            embeddedStorage = null;
+        }
+        DBConnection.shutdown();
+    }
+}
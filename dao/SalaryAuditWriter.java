@@ -0,0 +1,564 @@
+package dao;
+
+import model.SalaryChange;
+import util.AppConfig;
+import util.DaoMetrics;
+import util.DBConnection;
+import util.Money;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes salary changes to salary_audit_log off the caller's thread.
+ * record() puts the change in a bounded ring buffer and returns; a background thread drains
+ * it into JDBC batches, so a bulk revision costs one multi-row INSERT per batch instead of one
+ * INSERT per update. When the buffer is full the caller waits up to audit.enqueueTimeoutMs and
+ * then writes its record itself, so changes are slowed down rather than lost. shutdown() (also
+ * run from a JVM shutdown hook) writes everything still queued before returning.
+ * A batch the database still refuses after a few attempts is appended to audit.spillFile and
+ * forced to disk. The background thread writes the spill file to the database once a batch
+ * succeeds again, including in the next process to audit a change, and then removes it; a
+ * process stopped in the middle of that may leave some records to be written twice.
+ */
+public final class SalaryAuditWriter {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(AppConfig.get("audit.enabled", "true"));
+    private static final int QUEUE_CAPACITY = Math.max(1, AppConfig.getInt("audit.queueCapacity", 8192));
+    private static final int BATCH_SIZE = Math.max(1, AppConfig.getInt("audit.batchSize", 500));
+    private static final long ENQUEUE_TIMEOUT_MS = AppConfig.getLong("audit.enqueueTimeoutMs", 1000);
+    private static final String CHANGED_BY = truncate(AppConfig.get("audit.changedBy",
+            System.getProperty("user.name", "payroll")), 50);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+    private static final Path SPILL_FILE = Paths.get(AppConfig.get("audit.spillFile", "salary_audit_spill.tsv"));
+    private static final String INSERT_AUDIT_SQL = "INSERT INTO salary_audit_log(emp_id, old_base_salary, new_base_salary, "
+            + "old_hra, new_hra, old_allowance, new_allowance, changed_at, changed_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final DaoMetrics.Operation WRITE_BATCH = DaoMetrics.operation("SalaryAuditWriter.writeBatch");
+
+    private static volatile SalaryAuditWriter instance;
+
+    private final ArrayBlockingQueue<Pending> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+    private volatile boolean closed;
+    private final Object spillLock = new Object();
+    private volatile boolean spillPending = Files.exists(SPILL_FILE);
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder backpressureWaits = new LongAdder();
+    private final LongAdder directWrites = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong lastLagNanos = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    private SalaryAuditWriter() {
+        writer = new Thread(this::drainLoop, "salary-audit-writer");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Whether salary changes are audited (audit.enabled)
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * The process-wide writer, started on first use
+     */
+    public static SalaryAuditWriter getInstance() {
+        SalaryAuditWriter writer = instance;
+        if (writer == null) {
+            synchronized (SalaryAuditWriter.class) {
+                writer = instance;
+                if (writer == null) {
+                    writer = new SalaryAuditWriter();
+                    writer.writer.start();
+                    SalaryAuditWriter started = writer;
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> started.shutdown(SHUTDOWN_TIMEOUT_MS),
+                            "salary-audit-shutdown"));
+                    instance = writer;
+                }
+            }
+        }
+        return writer;
+    }
+
+    /**
+     * Flush and stop the process-wide writer if it was ever started; call before DBConnection.shutdown()
+     */
+    public static void shutdownInstance() {
+        SalaryAuditWriter writer = instance;
+        if (writer != null) {
+            writer.shutdown(SHUTDOWN_TIMEOUT_MS);
+        }
+    }
+
+    /**
+     * Stats of the process-wide writer, or null if nothing has been audited yet
+     */
+    public static AuditStats getInstanceStats() {
+        SalaryAuditWriter writer = instance;
+        return writer == null ? null : writer.getStats();
+    }
+
+    /**
+     * Queue a committed change for writing. Waits if the buffer is full, and writes the
+     * change on this thread if it is still full after audit.enqueueTimeoutMs or the writer
+     * has been shut down.
+     */
+    public void record(SalaryChange change) {
+        Pending pending = new Pending(change, System.nanoTime());
+        if (!closed) {
+            boolean queued = queue.offer(pending);
+            if (!queued) {
+                backpressureWaits.increment();
+                try {
+                    queued = queue.offer(pending, ENQUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (queued) {
+                enqueued.increment();
+                if (closed) {
+                    // Shut down while we were queueing; the writer may already have exited
+                    writeRemaining();
+                }
+                return;
+            }
+        }
+        directWrites.increment();
+        writeWithRetry(Collections.singletonList(pending));
+    }
+
+    /**
+     * Stop accepting work for the background thread and write everything queued.
+     * Returns false if the queue could not be emptied within the timeout.
+     */
+    public boolean shutdown(long timeoutMillis) {
+        closed = true;
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeRemaining();
+        return queue.isEmpty();
+    }
+
+    public AuditStats getStats() {
+        Pending oldest = queue.peek();
+        long oldestNanos = oldest == null ? 0 : System.nanoTime() - oldest.enqueuedNanos;
+        return new AuditStats(queue.size(), QUEUE_CAPACITY, enqueued.sum(), written.sum(), batches.sum(),
+                backpressureWaits.sum(), directWrites.sum(), spilled.sum(), replayed.sum(), dropped.sum(), oldestNanos, lastLagNanos.get(),
+                maxLagNanos.get());
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(BATCH_SIZE);
+        if (spillPending) {
+            replaySpill();
+        }
+        while (true) {
+            Pending first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // Only shutdown stops the writer; the queue is emptied by writeRemaining
+                return;
+            }
+            if (first == null) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            if (writeWithRetry(batch) && spillPending) {
+                // The database is back; write what was spilled while it was not
+                replaySpill();
+            }
+            batch.clear();
+        }
+    }
+
+    private synchronized void writeRemaining() {
+        List<Pending> batch = new ArrayList<>(BATCH_SIZE);
+        while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+            writeWithRetry(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Write a batch, retrying a few times; records that still cannot be written are spilled
+     *
+     * @return whether the batch reached the database
+     */
+    private boolean writeWithRetry(List<Pending> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writeBatch(batch);
+                return true;
+            } catch (SQLException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    System.err.println("Error writing salary audit log, " + batch.size() + " records kept in "
+                            + SPILL_FILE + ": " + e.getMessage());
+                    spill(batch);
+                    return false;
+                }
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Append records to the spill file and force it to disk. Only records that cannot be spilled
+     * either are lost; they are logged to stderr.
+     */
+    private void spill(List<Pending> batch) {
+        StringBuilder lines = new StringBuilder();
+        for (Pending pending : batch) {
+            lines.append(toLine(pending.change)).append('\n');
+        }
+        synchronized (spillLock) {
+            try (FileChannel channel = FileChannel.open(SPILL_FILE, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer bytes = StandardCharsets.UTF_8.encode(lines.toString());
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+                spilled.add(batch.size());
+                spillPending = true;
+                return;
+            } catch (IOException e) {
+                System.err.println("Error writing salary audit spill file " + SPILL_FILE + ": " + e.getMessage());
+            }
+        }
+        dropped.add(batch.size());
+        for (Pending pending : batch) {
+            System.err.println("Unwritten salary audit record: " + pending.change);
+        }
+    }
+
+    /**
+     * Write the spilled records to the database in batches and remove the spill file. If the
+     * database fails again, the records not yet written are kept in the file for the next try.
+     */
+    private void replaySpill() {
+        synchronized (spillLock) {
+            List<String> lines;
+            try {
+                lines = Files.exists(SPILL_FILE) ? Files.readAllLines(SPILL_FILE, StandardCharsets.UTF_8)
+                        : Collections.emptyList();
+            } catch (IOException e) {
+                System.err.println("Error reading salary audit spill file " + SPILL_FILE + ": " + e.getMessage());
+                spillPending = false;
+                return;
+            }
+            int from = 0;
+            try {
+                while (from < lines.size()) {
+                    int to = Math.min(from + BATCH_SIZE, lines.size());
+                    List<Pending> batch = new ArrayList<>(to - from);
+                    long now = System.nanoTime();
+                    for (String line : lines.subList(from, to)) {
+                        SalaryChange change = fromLine(line);
+                        if (change != null) {
+                            batch.add(new Pending(change, now));
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        writeBatch(batch);
+                        replayed.add(batch.size());
+                    }
+                    from = to;
+                }
+                Files.deleteIfExists(SPILL_FILE);
+                spillPending = false;
+            } catch (SQLException e) {
+                System.err.println("Error replaying salary audit spill file, " + (lines.size() - from)
+                        + " records kept: " + e.getMessage());
+                keep(lines.subList(from, lines.size()));
+            } catch (IOException e) {
+                System.err.println("Error removing salary audit spill file " + SPILL_FILE + ": " + e.getMessage());
+                spillPending = false;
+            }
+        }
+    }
+
+    /**
+     * Replace the spill file with the records not yet written
+     */
+    private void keep(List<String> lines) {
+        Path rest = SPILL_FILE.resolveSibling(SPILL_FILE.getFileName() + ".tmp");
+        try {
+            Files.write(rest, lines, StandardCharsets.UTF_8);
+            try (FileChannel channel = FileChannel.open(rest, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(rest, SPILL_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The file still holds every record; some may be written twice on the next replay
+            System.err.println("Error rewriting salary audit spill file " + SPILL_FILE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * A change as one tab-separated spill file line
+     */
+    private static String toLine(SalaryChange change) {
+        return change.getEmpId() + "\t" + change.getOldBaseSalaryPaise() + "\t" + change.getNewBaseSalaryPaise()
+                + "\t" + change.getOldHraPaise() + "\t" + change.getNewHraPaise() + "\t" + change.getOldAllowancePaise()
+                + "\t" + change.getNewAllowancePaise() + "\t" + change.getChangedAtMillis() + "\t"
+                + change.getChangedBy().replaceAll("[\\t\\r\\n]", " ");
+    }
+
+    /**
+     * Parse a spill file line, or return null (logged) if it is damaged, e.g. cut off by a crash
+     */
+    private static SalaryChange fromLine(String line) {
+        String[] fields = line.split("\t", -1);
+        try {
+            if (fields.length == 9) {
+                return new SalaryChange(Integer.parseInt(fields[0]), Long.parseLong(fields[1]),
+                        Long.parseLong(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4]),
+                        Long.parseLong(fields[5]), Long.parseLong(fields[6]), Long.parseLong(fields[7]), fields[8]);
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        System.err.println("Skipping damaged salary audit spill record: " + line);
+        return null;
+    }
+
+    private void writeBatch(List<Pending> batch) throws SQLException {
+        long start = WRITE_BATCH.start();
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(INSERT_AUDIT_SQL)) {
+                for (Pending pending : batch) {
+                    bindChange(ps, pending.change);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            WRITE_BATCH.failure(start);
+            throw e;
+        }
+        WRITE_BATCH.success(start, batch.size());
+
+        long now = System.nanoTime();
+        written.add(batch.size());
+        batches.increment();
+        // The first record of a batch has waited longest
+        long lag = now - batch.get(0).enqueuedNanos;
+        lastLagNanos.set(lag);
+        long max;
+        while (lag > (max = maxLagNanos.get()) && !maxLagNanos.compareAndSet(max, lag)) {
+            // retry until the maximum is updated
+        }
+    }
+
+    private static void bindChange(PreparedStatement ps, SalaryChange change) throws SQLException {
+        ps.setInt(1, change.getEmpId());
+        ps.setBigDecimal(2, Money.toDecimal(change.getOldBaseSalaryPaise()));
+        ps.setBigDecimal(3, Money.toDecimal(change.getNewBaseSalaryPaise()));
+        ps.setBigDecimal(4, Money.toDecimal(change.getOldHraPaise()));
+        ps.setBigDecimal(5, Money.toDecimal(change.getNewHraPaise()));
+        ps.setBigDecimal(6, Money.toDecimal(change.getOldAllowancePaise()));
+        ps.setBigDecimal(7, Money.toDecimal(change.getNewAllowancePaise()));
+        ps.setTimestamp(8, new Timestamp(change.getChangedAtMillis()));
+        ps.setString(9, change.getChangedBy());
+    }
+
+    /**
+     * Name recorded in changed_by: audit.changedBy, or the user running the application
+     */
+    static String changedBy() {
+        return CHANGED_BY;
+    }
+
+    private static String truncate(String value, int length) {
+        return value.length() <= length ? value : value.substring(0, length);
+    }
+
+    private static final class Pending {
+        private final SalaryChange change;
+        private final long enqueuedNanos;
+
+        private Pending(SalaryChange change, long enqueuedNanos) {
+            this.change = change;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
+    /**
+     * Point-in-time view of the audit queue
+     */
+    public static final class AuditStats {
+        private final int queueDepth;
+        private final int queueCapacity;
+        private final long enqueued;
+        private final long written;
+        private final long batches;
+        private final long backpressureWaits;
+        private final long directWrites;
+        private final long spilled;
+        private final long replayed;
+        private final long dropped;
+        private final long oldestQueuedNanos;
+        private final long lastLagNanos;
+        private final long maxLagNanos;
+
+        private AuditStats(int queueDepth, int queueCapacity, long enqueued, long written, long batches,
+                           long backpressureWaits, long directWrites, long spilled, long replayed, long dropped,
+                           long oldestQueuedNanos,
+                           long lastLagNanos, long maxLagNanos) {
+            this.queueDepth = queueDepth;
+            this.queueCapacity = queueCapacity;
+            this.enqueued = enqueued;
+            this.written = written;
+            this.batches = batches;
+            this.backpressureWaits = backpressureWaits;
+            this.directWrites = directWrites;
+            this.spilled = spilled;
+            this.replayed = replayed;
+            this.dropped = dropped;
+            this.oldestQueuedNanos = oldestQueuedNanos;
+            this.lastLagNanos = lastLagNanos;
+            this.maxLagNanos = maxLagNanos;
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public long getEnqueued() {
+            return enqueued;
+        }
+
+        /**
+         * Records written to salary_audit_log, by the background thread or by callers
+         */
+        public long getWritten() {
+            return written;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        /**
+         * Times a caller found the queue full and had to wait
+         */
+        public long getBackpressureWaits() {
+            return backpressureWaits;
+        }
+
+        /**
+         * Records a caller wrote itself because the queue stayed full or the writer was shut down
+         */
+        public long getDirectWrites() {
+            return directWrites;
+        }
+
+        /**
+         * Records kept in the spill file because the database refused them after retrying
+         */
+        public long getSpilled() {
+            return spilled;
+        }
+
+        /**
+         * Records written to salary_audit_log from the spill file
+         */
+        public long getReplayed() {
+            return replayed;
+        }
+
+        /**
+         * Records that could neither be written nor spilled; they are logged to stderr
+         */
+        public long getDropped() {
+            return dropped;
+        }
+
+        /**
+         * How long the oldest queued record has been waiting, i.e. how far the log is behind
+         */
+        public double getCurrentLagMillis() {
+            return oldestQueuedNanos / 1_000_000.0;
+        }
+
+        /**
+         * Time from enqueue to commit of the oldest record in the last batch written
+         */
+        public double getLastLagMillis() {
+            return lastLagNanos / 1_000_000.0;
+        }
+
+        public double getMaxLagMillis() {
+            return maxLagNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return "AuditStats{" +
+                    "queueDepth=" + queueDepth +
+                    ", queueCapacity=" + queueCapacity +
+                    ", enqueued=" + enqueued +
+                    ", written=" + written +
+                    ", batches=" + batches +
+                    ", backpressureWaits=" + backpressureWaits +
+                    ", directWrites=" + directWrites +
+                    ", spilled=" + spilled +
+                    ", replayed=" + replayed +
+                    ", dropped=" + dropped +
+                    ", currentLagMs=" + String.format("%.3f", getCurrentLagMillis()) +
+                    ", lastLagMs=" + String.format("%.3f", getLastLagMillis()) +
+                    ", maxLagMs=" + String.format("%.3f", getMaxLagMillis()) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dao;
+
+import java.sql.SQLException;
+
+/**
+ * Wraps an SQLException thrown where checked exceptions cannot propagate,
+ * such as inside a lazily evaluated Stream
+ */
+public class UncheckedSQLException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedSQLException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
@@ -0,0 +1,163 @@
+package dao;
+
+import model.Payslip;
+import model.YearToDate;
+import util.AppConfig;
+import util.DaoMetrics;
+import util.DBConnection;
+import util.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Year-to-date payslip totals per employee and financial year in the employee_ytd table.
+ * PayrollDAO and PayrollRunDAO add every payslip to its row in the same transaction that inserts
+ * it, so a YTD lookup is one primary key read however many payslips the employee has.
+ */
+public class YearToDateDAO {
+
+    private static final int BATCH_SIZE = Math.max(1, AppConfig.getInt("payroll.batch.size", 500));
+
+    // The financial year (April-March) of a payslip row aliased p
+    private static final String FINANCIAL_YEAR = "IF(p.month >= 4, p.year, p.year - 1)";
+    static final String INSERT_YTD = "INSERT INTO employee_ytd(emp_id, financial_year, payslip_count, gross_salary, "
+            + "income_tax, provident_fund, health_insurance, total_deductions, net_salary) ";
+    static final String ADD_TOTALS = " ON DUPLICATE KEY UPDATE payslip_count = payslip_count + VALUES(payslip_count), "
+            + "gross_salary = gross_salary + VALUES(gross_salary), income_tax = income_tax + VALUES(income_tax), "
+            + "provident_fund = provident_fund + VALUES(provident_fund), "
+            + "health_insurance = health_insurance + VALUES(health_insurance), "
+            + "total_deductions = total_deductions + VALUES(total_deductions), net_salary = net_salary + VALUES(net_salary)";
+    private static final String AGGREGATE_PAYSLIPS = "SELECT p.emp_id, " + FINANCIAL_YEAR + ", COUNT(*), "
+            + "SUM(p.gross_salary), SUM(p.income_tax), SUM(p.provident_fund), SUM(p.health_insurance), "
+            + "SUM(p.total_deductions), SUM(p.net_salary) FROM payslips p ";
+    private static final String ADD_PAYSLIP_SQL = INSERT_YTD + "VALUES (?, ?, 1, ?, ?, ?, ?, ?, ?)" + ADD_TOTALS;
+    private static final String GROUP_BY = " GROUP BY p.emp_id, " + FINANCIAL_YEAR;
+
+    private static final DaoMetrics.Operation GET_YTD = DaoMetrics.operation("YearToDateDAO.getYearToDate");
+    private static final DaoMetrics.Operation REBUILD = DaoMetrics.operation("YearToDateDAO.rebuild");
+
+    /**
+     * Totals of an employee's payslips in a financial year, or null if none has been saved
+     */
+    public YearToDate getYearToDate(int empId, int financialYear) throws SQLException {
+        String sql = "SELECT payslip_count, gross_salary, income_tax, provident_fund, health_insurance, "
+                + "total_deductions, net_salary FROM employee_ytd WHERE emp_id = ? AND financial_year = ?";
+        long start = GET_YTD.start();
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+
+            ps.setInt(1, empId);
+            ps.setInt(2, financialYear);
+            ResultSet rs = ps.executeQuery();
+
+            YearToDate ytd = null;
+            if (rs.next()) {
+                ytd = new YearToDate(empId, financialYear);
+                ytd.setPayslipCount(rs.getInt(1));
+                ytd.setGrossSalaryPaise(Money.fromDecimal(rs.getBigDecimal(2)));
+                ytd.setIncomeTaxPaise(Money.fromDecimal(rs.getBigDecimal(3)));
+                ytd.setProvidentFundPaise(Money.fromDecimal(rs.getBigDecimal(4)));
+                ytd.setHealthInsurancePaise(Money.fromDecimal(rs.getBigDecimal(5)));
+                ytd.setTotalDeductionsPaise(Money.fromDecimal(rs.getBigDecimal(6)));
+                ytd.setNetSalaryPaise(Money.fromDecimal(rs.getBigDecimal(7)));
+            }
+            GET_YTD.success(start, ytd == null ? 0 : 1);
+            return ytd;
+        } catch (SQLException e) {
+            GET_YTD.failure(start);
+            System.err.println("Error fetching year-to-date totals: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Recompute every YTD row from the payslips table, for repair
+     *
+     * @return the number of YTD rows written
+     */
+    public int rebuild() throws SQLException {
+        return rebuild("DELETE FROM employee_ytd", INSERT_YTD + AGGREGATE_PAYSLIPS + GROUP_BY, -1);
+    }
+
+    /**
+     * Recompute the YTD rows of one financial year from the payslips table
+     *
+     * @return the number of YTD rows written
+     */
+    public int rebuild(int financialYear) throws SQLException {
+        return rebuild("DELETE FROM employee_ytd WHERE financial_year = ?",
+                INSERT_YTD + AGGREGATE_PAYSLIPS + "WHERE " + FINANCIAL_YEAR + " = ?" + GROUP_BY, financialYear);
+    }
+
+    private int rebuild(String deleteSql, String insertSql, int financialYear) throws SQLException {
+        long start = REBUILD.start();
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement delete = con.prepareStatement(deleteSql);
+                 PreparedStatement insert = con.prepareStatement(insertSql)) {
+                if (financialYear >= 0) {
+                    delete.setInt(1, financialYear);
+                    insert.setInt(1, financialYear);
+                }
+                delete.executeUpdate();
+                int rows = insert.executeUpdate();
+                con.commit();
+                REBUILD.success(start, rows);
+                return rows;
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            REBUILD.failure(start);
+            System.err.println("Error rebuilding year-to-date totals: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Add a payslip being inserted on con to its employee's YTD row, in the caller's transaction
+     */
+    void addPayslip(Connection con, Payslip payslip) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(ADD_PAYSLIP_SQL)) {
+            bindPayslip(ps, payslip);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Add payslips inserted on con to their employees' YTD rows, in the caller's transaction.
+     * Rows are sent in JDBC batches of payroll.batch.size.
+     */
+    void addPayslips(Connection con, List<Payslip> payslips) throws SQLException {
+        if (payslips.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = con.prepareStatement(ADD_PAYSLIP_SQL)) {
+            for (int i = 0; i < payslips.size(); i++) {
+                bindPayslip(ps, payslips.get(i));
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void bindPayslip(PreparedStatement ps, Payslip payslip) throws SQLException {
+        ps.setInt(1, payslip.getEmpId());
+        ps.setInt(2, YearToDate.financialYearOf(payslip.getMonth(), payslip.getYear()));
+        ps.setBigDecimal(3, Money.toDecimal(payslip.getGrossSalaryPaise()));
+        ps.setBigDecimal(4, Money.toDecimal(payslip.getIncomeTaxPaise()));
+        ps.setBigDecimal(5, Money.toDecimal(payslip.getProvidentFundPaise()));
+        ps.setBigDecimal(6, Money.toDecimal(payslip.getHealthInsurancePaise()));
+        ps.setBigDecimal(7, Money.toDecimal(payslip.getTotalDeductionsPaise()));
+        ps.setBigDecimal(8, Money.toDecimal(payslip.getNetSalaryPaise()));
+    }
+}
@@ -30,6 +30,7 @@ CREATE TABLE IF NOT EXISTS payslips (
     emp_id INT NOT NULL,
     month INT NOT NULL,
     year INT NOT NULL,
+    department VARCHAR(50) NOT NULL,
     base_salary DECIMAL(12, 2) NOT NULL,
     hra DECIMAL(12, 2) NOT NULL,
     allowance DECIMAL(12, 2) NOT NULL,
@@ -43,8 +44,10 @@ CREATE TABLE IF NOT EXISTS payslips (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT fk_emp_id FOREIGN KEY (emp_id) REFERENCES employees(emp_id) ON DELETE CASCADE,
     UNIQUE KEY unique_payslip (emp_id, month, year),
-    INDEX idx_emp_id (emp_id),
-    INDEX idx_month_year (month, year),
+    -- Employee history newest first; covers the list-view columns so history pages need no table reads
+    INDEX idx_emp_history (emp_id, year, month, gross_salary, total_deductions, net_salary),
+    -- A month's payslips in emp_id order, for keyset pages of a month
+    INDEX idx_month_year (month, year, emp_id),
     INDEX idx_generated_date (generated_date)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
@@ -65,6 +68,54 @@ CREATE TABLE IF NOT EXISTS salary_audit_log (
     INDEX idx_changed_at (changed_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- Create department payroll rollup, maintained in the same transaction as payslip inserts
+-- (rebuild it with: java PayrollManagementSystem rollup --rebuild)
+CREATE TABLE IF NOT EXISTS department_payroll_rollup (
+    department VARCHAR(50) NOT NULL,
+    month INT NOT NULL,
+    year INT NOT NULL,
+    headcount INT NOT NULL,
+    total_gross DECIMAL(16, 2) NOT NULL,
+    total_income_tax DECIMAL(16, 2) NOT NULL,
+    total_provident_fund DECIMAL(16, 2) NOT NULL,
+    total_deductions DECIMAL(16, 2) NOT NULL,
+    total_net DECIMAL(16, 2) NOT NULL,
+    PRIMARY KEY (year, month, department)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Create year-to-date totals per employee and financial year (April-March, keyed by the
+-- calendar year it starts in), maintained in the same transaction as payslip inserts
+-- (rebuild it with: java PayrollManagementSystem ytd --rebuild)
+CREATE TABLE IF NOT EXISTS employee_ytd (
+    emp_id INT NOT NULL,
+    financial_year INT NOT NULL,
+    payslip_count INT NOT NULL,
+    gross_salary DECIMAL(16, 2) NOT NULL,
+    income_tax DECIMAL(16, 2) NOT NULL,
+    provident_fund DECIMAL(16, 2) NOT NULL,
+    health_insurance DECIMAL(16, 2) NOT NULL,
+    total_deductions DECIMAL(16, 2) NOT NULL,
+    net_salary DECIMAL(16, 2) NOT NULL,
+    PRIMARY KEY (emp_id, financial_year),
+    CONSTRAINT fk_ytd_emp_id FOREIGN KEY (emp_id) REFERENCES employees(emp_id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Create payroll run log; the watermark lets the next month's incremental run
+-- reuse payslips of employees whose pay has not changed since this run
+CREATE TABLE IF NOT EXISTS payroll_runs (
+    run_id INT AUTO_INCREMENT PRIMARY KEY,
+    month INT NOT NULL,
+    year INT NOT NULL,
+    mode VARCHAR(16) NOT NULL,
+    calculation CHAR(64) NOT NULL,
+    watermark TIMESTAMP NOT NULL,
+    started_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP NULL,
+    payslips_computed INT NOT NULL DEFAULT 0,
+    payslips_cloned INT NOT NULL DEFAULT 0,
+    UNIQUE KEY unique_run (month, year)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
 -- Create sample data (optional)
 -- Uncomment to insert sample employees
 
@@ -7,16 +7,17 @@ public class Employee {
     private String department;
     private String designation;
     private String joinDate;
-    private double baseSalary;
-    private double hra;
-    private double allowance;
+    // Amounts in paise (see util.Money)
+    private long baseSalary;
+    private long hra;
+    private long allowance;
     private boolean active;
 
     public Employee() {
     }
 
     public Employee(int empId, String name, String email, String department, String designation, 
-                    String joinDate, double baseSalary, double hra, double allowance) {
+                    String joinDate, long baseSalary, long hra, long allowance) {
         this.empId = empId;
         this.name = name;
         this.email = email;
@@ -29,6 +30,19 @@ public class Employee {
         this.active = true;
     }
 
+    public Employee(Employee other) {
+        this.empId = other.empId;
+        this.name = other.name;
+        this.email = other.email;
+        this.department = other.department;
+        this.designation = other.designation;
+        this.joinDate = other.joinDate;
+        this.baseSalary = other.baseSalary;
+        this.hra = other.hra;
+        this.allowance = other.allowance;
+        this.active = other.active;
+    }
+
     public int getEmpId() {
         return empId;
     }
@@ -77,27 +91,27 @@ public class Employee {
         this.joinDate = joinDate;
     }
 
-    public double getBaseSalary() {
+    public long getBaseSalaryPaise() {
         return baseSalary;
     }
 
-    public void setBaseSalary(double baseSalary) {
+    public void setBaseSalaryPaise(long baseSalary) {
         this.baseSalary = baseSalary;
     }
 
-    public double getHra() {
+    public long getHraPaise() {
         return hra;
     }
 
-    public void setHra(double hra) {
+    public void setHraPaise(long hra) {
         this.hra = hra;
     }
 
-    public double getAllowance() {
+    public long getAllowancePaise() {
         return allowance;
     }
 
-    public void setAllowance(double allowance) {
+    public void setAllowancePaise(long allowance) {
         this.allowance = allowance;
     }
 
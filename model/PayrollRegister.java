@@ -0,0 +1,64 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payslip register totals for one month, overall and per department
+ */
+public class PayrollRegister {
+    private int month;
+    private int year;
+    private PayrollTotals totals = new PayrollTotals();
+    private List<PayrollTotals> departmentTotals = new ArrayList<>();
+
+    public PayrollRegister() {
+    }
+
+    public PayrollRegister(int month, int year) {
+        this.month = month;
+        this.year = year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public PayrollTotals getTotals() {
+        return totals;
+    }
+
+    public void setTotals(PayrollTotals totals) {
+        this.totals = totals;
+    }
+
+    public List<PayrollTotals> getDepartmentTotals() {
+        return departmentTotals;
+    }
+
+    public void setDepartmentTotals(List<PayrollTotals> departmentTotals) {
+        this.departmentTotals = departmentTotals;
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollRegister{" +
+                "month=" + month +
+                ", year=" + year +
+                ", totals=" + totals +
+                ", departments=" + departmentTotals.size() +
+                '}';
+    }
+}
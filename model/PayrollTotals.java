@@ -0,0 +1,98 @@
+package model;
+
+/**
+ * Aggregated payslip amounts in paise, either for a whole month or for one department
+ */
+public class PayrollTotals {
+    private String department;
+    private int payslipCount;
+    private long totalGross;
+    private long totalIncomeTax;
+    private long totalProvidentFund;
+    private long totalDeductions;
+    private long totalNet;
+
+    public PayrollTotals() {
+    }
+
+    public PayrollTotals(String department, int payslipCount, long totalGross, long totalIncomeTax,
+                         long totalProvidentFund, long totalDeductions, long totalNet) {
+        this.department = department;
+        this.payslipCount = payslipCount;
+        this.totalGross = totalGross;
+        this.totalIncomeTax = totalIncomeTax;
+        this.totalProvidentFund = totalProvidentFund;
+        this.totalDeductions = totalDeductions;
+        this.totalNet = totalNet;
+    }
+
+    /**
+     * Department name, or null for totals across all departments
+     */
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public int getPayslipCount() {
+        return payslipCount;
+    }
+
+    public void setPayslipCount(int payslipCount) {
+        this.payslipCount = payslipCount;
+    }
+
+    public long getTotalGrossPaise() {
+        return totalGross;
+    }
+
+    public void setTotalGrossPaise(long totalGross) {
+        this.totalGross = totalGross;
+    }
+
+    public long getTotalIncomeTaxPaise() {
+        return totalIncomeTax;
+    }
+
+    public void setTotalIncomeTaxPaise(long totalIncomeTax) {
+        this.totalIncomeTax = totalIncomeTax;
+    }
+
+    public long getTotalProvidentFundPaise() {
+        return totalProvidentFund;
+    }
+
+    public void setTotalProvidentFundPaise(long totalProvidentFund) {
+        this.totalProvidentFund = totalProvidentFund;
+    }
+
+    public long getTotalDeductionsPaise() {
+        return totalDeductions;
+    }
+
+    public void setTotalDeductionsPaise(long totalDeductions) {
+        this.totalDeductions = totalDeductions;
+    }
+
+    public long getTotalNetPaise() {
+        return totalNet;
+    }
+
+    public void setTotalNetPaise(long totalNet) {
+        this.totalNet = totalNet;
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollTotals{" +
+                "department='" + department + '\'' +
+                ", payslipCount=" + payslipCount +
+                ", totalGross=" + totalGross +
+                ", totalDeductions=" + totalDeductions +
+                ", totalNet=" + totalNet +
+                '}';
+    }
+}
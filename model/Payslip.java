@@ -7,21 +7,24 @@ public class Payslip {
     private int empId;
     private int month;
     private int year;
-    private double baseSalary;
-    private double hra;
-    private double allowance;
-    private double grossSalary;
-    private double incomeTax;
-    private double providentFund;
-    private double healthInsurance;
-    private double totalDeductions;
-    private double netSalary;
+    // The employee's department when the payslip was generated; department totals count it there
+    private String department;
+    // Amounts in paise (see util.Money)
+    private long baseSalary;
+    private long hra;
+    private long allowance;
+    private long grossSalary;
+    private long incomeTax;
+    private long providentFund;
+    private long healthInsurance;
+    private long totalDeductions;
+    private long netSalary;
     private LocalDate generatedDate;
 
     public Payslip() {
     }
 
-    public Payslip(int empId, int month, int year, double baseSalary, double hra, double allowance) {
+    public Payslip(int empId, int month, int year, long baseSalary, long hra, long allowance) {
         this.empId = empId;
         this.month = month;
         this.year = year;
@@ -64,75 +67,83 @@ public class Payslip {
         this.year = year;
     }
 
-    public double getBaseSalary() {
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public long getBaseSalaryPaise() {
         return baseSalary;
     }
 
-    public void setBaseSalary(double baseSalary) {
+    public void setBaseSalaryPaise(long baseSalary) {
         this.baseSalary = baseSalary;
     }
 
-    public double getHra() {
+    public long getHraPaise() {
         return hra;
     }
 
-    public void setHra(double hra) {
+    public void setHraPaise(long hra) {
         this.hra = hra;
     }
 
-    public double getAllowance() {
+    public long getAllowancePaise() {
         return allowance;
     }
 
-    public void setAllowance(double allowance) {
+    public void setAllowancePaise(long allowance) {
         this.allowance = allowance;
     }
 
-    public double getGrossSalary() {
+    public long getGrossSalaryPaise() {
         return grossSalary;
     }
 
-    public void setGrossSalary(double grossSalary) {
+    public void setGrossSalaryPaise(long grossSalary) {
         this.grossSalary = grossSalary;
     }
 
-    public double getIncomeTax() {
+    public long getIncomeTaxPaise() {
         return incomeTax;
     }
 
-    public void setIncomeTax(double incomeTax) {
+    public void setIncomeTaxPaise(long incomeTax) {
         this.incomeTax = incomeTax;
     }
 
-    public double getProvidentFund() {
+    public long getProvidentFundPaise() {
         return providentFund;
     }
 
-    public void setProvidentFund(double providentFund) {
+    public void setProvidentFundPaise(long providentFund) {
         this.providentFund = providentFund;
     }
 
-    public double getHealthInsurance() {
+    public long getHealthInsurancePaise() {
         return healthInsurance;
     }
 
-    public void setHealthInsurance(double healthInsurance) {
+    public void setHealthInsurancePaise(long healthInsurance) {
         this.healthInsurance = healthInsurance;
     }
 
-    public double getTotalDeductions() {
+    public long getTotalDeductionsPaise() {
         return totalDeductions;
     }
 
-    public void setTotalDeductions(double totalDeductions) {
+    public void setTotalDeductionsPaise(long totalDeductions) {
         this.totalDeductions = totalDeductions;
     }
 
-    public double getNetSalary() {
+    public long getNetSalaryPaise() {
         return netSalary;
     }
 
-    public void setNetSalary(double netSalary) {
+    public void setNetSalaryPaise(long netSalary) {
         this.netSalary = netSalary;
     }
 
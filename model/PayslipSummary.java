@@ -0,0 +1,96 @@
+package model;
+
+/**
+ * The columns of a payslip that list views show, read without the rest of the row
+ */
+public class PayslipSummary {
+    private int payslipId;
+    private int empId;
+    private int month;
+    private int year;
+    // Amounts in paise (see util.Money)
+    private long grossSalary;
+    private long totalDeductions;
+    private long netSalary;
+
+    public PayslipSummary() {
+    }
+
+    public PayslipSummary(int payslipId, int empId, int month, int year, long grossSalary, long totalDeductions,
+                          long netSalary) {
+        this.payslipId = payslipId;
+        this.empId = empId;
+        this.month = month;
+        this.year = year;
+        this.grossSalary = grossSalary;
+        this.totalDeductions = totalDeductions;
+        this.netSalary = netSalary;
+    }
+
+    public int getPayslipId() {
+        return payslipId;
+    }
+
+    public void setPayslipId(int payslipId) {
+        this.payslipId = payslipId;
+    }
+
+    public int getEmpId() {
+        return empId;
+    }
+
+    public void setEmpId(int empId) {
+        this.empId = empId;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public long getGrossSalaryPaise() {
+        return grossSalary;
+    }
+
+    public void setGrossSalaryPaise(long grossSalary) {
+        this.grossSalary = grossSalary;
+    }
+
+    public long getTotalDeductionsPaise() {
+        return totalDeductions;
+    }
+
+    public void setTotalDeductionsPaise(long totalDeductions) {
+        this.totalDeductions = totalDeductions;
+    }
+
+    public long getNetSalaryPaise() {
+        return netSalary;
+    }
+
+    public void setNetSalaryPaise(long netSalary) {
+        this.netSalary = netSalary;
+    }
+
+    @Override
+    public String toString() {
+        return "PayslipSummary{" +
+                "payslipId=" + payslipId +
+                ", empId=" + empId +
+                ", month=" + month +
+                ", year=" + year +
+                ", netSalary=" + netSalary +
+                '}';
+    }
+}
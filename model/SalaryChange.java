@@ -0,0 +1,88 @@
+package model;
+
+/**
+ * A committed change to an employee's salary components, as written to salary_audit_log.
+ * Amounts are in paise.
+ */
+public class SalaryChange {
+    private final int empId;
+    private final long oldBaseSalary;
+    private final long newBaseSalary;
+    private final long oldHra;
+    private final long newHra;
+    private final long oldAllowance;
+    private final long newAllowance;
+    private final long changedAtMillis;
+    private final String changedBy;
+
+    public SalaryChange(int empId, long oldBaseSalary, long newBaseSalary, long oldHra, long newHra,
+                        long oldAllowance, long newAllowance, long changedAtMillis, String changedBy) {
+        this.empId = empId;
+        this.oldBaseSalary = oldBaseSalary;
+        this.newBaseSalary = newBaseSalary;
+        this.oldHra = oldHra;
+        this.newHra = newHra;
+        this.oldAllowance = oldAllowance;
+        this.newAllowance = newAllowance;
+        this.changedAtMillis = changedAtMillis;
+        this.changedBy = changedBy;
+    }
+
+    public int getEmpId() {
+        return empId;
+    }
+
+    public long getOldBaseSalaryPaise() {
+        return oldBaseSalary;
+    }
+
+    public long getNewBaseSalaryPaise() {
+        return newBaseSalary;
+    }
+
+    public long getOldHraPaise() {
+        return oldHra;
+    }
+
+    public long getNewHraPaise() {
+        return newHra;
+    }
+
+    public long getOldAllowancePaise() {
+        return oldAllowance;
+    }
+
+    public long getNewAllowancePaise() {
+        return newAllowance;
+    }
+
+    /**
+     * When the change was committed, in epoch milliseconds
+     */
+    public long getChangedAtMillis() {
+        return changedAtMillis;
+    }
+
+    public String getChangedBy() {
+        return changedBy;
+    }
+
+    /**
+     * Whether any component actually changed
+     */
+    public boolean isChange() {
+        return oldBaseSalary != newBaseSalary || oldHra != newHra || oldAllowance != newAllowance;
+    }
+
+    @Override
+    public String toString() {
+        return "SalaryChange{" +
+                "empId=" + empId +
+                ", baseSalary=" + oldBaseSalary + "->" + newBaseSalary +
+                ", hra=" + oldHra + "->" + newHra +
+                ", allowance=" + oldAllowance + "->" + newAllowance +
+                ", changedAtMillis=" + changedAtMillis +
+                ", changedBy='" + changedBy + '\'' +
+                '}';
+    }
+}
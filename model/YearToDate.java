@@ -0,0 +1,118 @@
+package model;
+
+/**
+ * Payslip amounts in paise accumulated for one employee over one financial year.
+ * A financial year runs from April to March and is identified by the calendar year it starts in,
+ * so FY 2024 covers April 2024 to March 2025.
+ */
+public class YearToDate {
+    private int empId;
+    private int financialYear;
+    private int payslipCount;
+    private long grossSalary;
+    private long incomeTax;
+    private long providentFund;
+    private long healthInsurance;
+    private long totalDeductions;
+    private long netSalary;
+
+    public YearToDate() {
+    }
+
+    public YearToDate(int empId, int financialYear) {
+        this.empId = empId;
+        this.financialYear = financialYear;
+    }
+
+    /**
+     * The financial year a payslip month belongs to
+     */
+    public static int financialYearOf(int month, int year) {
+        return month >= 4 ? year : year - 1;
+    }
+
+    public int getEmpId() {
+        return empId;
+    }
+
+    public void setEmpId(int empId) {
+        this.empId = empId;
+    }
+
+    public int getFinancialYear() {
+        return financialYear;
+    }
+
+    public void setFinancialYear(int financialYear) {
+        this.financialYear = financialYear;
+    }
+
+    public int getPayslipCount() {
+        return payslipCount;
+    }
+
+    public void setPayslipCount(int payslipCount) {
+        this.payslipCount = payslipCount;
+    }
+
+    public long getGrossSalaryPaise() {
+        return grossSalary;
+    }
+
+    public void setGrossSalaryPaise(long grossSalary) {
+        this.grossSalary = grossSalary;
+    }
+
+    public long getIncomeTaxPaise() {
+        return incomeTax;
+    }
+
+    public void setIncomeTaxPaise(long incomeTax) {
+        this.incomeTax = incomeTax;
+    }
+
+    public long getProvidentFundPaise() {
+        return providentFund;
+    }
+
+    public void setProvidentFundPaise(long providentFund) {
+        this.providentFund = providentFund;
+    }
+
+    public long getHealthInsurancePaise() {
+        return healthInsurance;
+    }
+
+    public void setHealthInsurancePaise(long healthInsurance) {
+        this.healthInsurance = healthInsurance;
+    }
+
+    public long getTotalDeductionsPaise() {
+        return totalDeductions;
+    }
+
+    public void setTotalDeductionsPaise(long totalDeductions) {
+        this.totalDeductions = totalDeductions;
+    }
+
+    public long getNetSalaryPaise() {
+        return netSalary;
+    }
+
+    public void setNetSalaryPaise(long netSalary) {
+        this.netSalary = netSalary;
+    }
+
+    @Override
+    public String toString() {
+        return "YearToDate{" +
+                "empId=" + empId +
+                ", financialYear=" + financialYear +
+                ", payslipCount=" + payslipCount +
+                ", grossSalary=" + grossSalary +
+                ", incomeTax=" + incomeTax +
+                ", providentFund=" + providentFund +
+                ", netSalary=" + netSalary +
+                '}';
+    }
+}
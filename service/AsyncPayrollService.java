@@ -0,0 +1,148 @@
+package service;
+
+import model.Employee;
+import model.Payslip;
+import model.YearToDate;
+import util.DBConnection;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * CompletableFuture versions of the blocking PayrollService calls.
+ * Every call runs on its own virtual thread, so thousands can be outstanding without
+ * tying up platform threads. At most as many calls as the connection pool has
+ * connections run at once; the rest wait on a fair semaphore (parked virtual threads
+ * cost almost nothing) instead of timing out in DBConnection.getConnection().
+ * Failures complete the future exceptionally with the original exception, e.g.
+ * SQLException or IllegalArgumentException. A future cancelled before its call gets a
+ * permit never touches the database.
+ */
+public class AsyncPayrollService implements AutoCloseable {
+
+    private final PayrollService payrollService;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    public AsyncPayrollService() {
+        this(new PayrollService());
+    }
+
+    public AsyncPayrollService(PayrollService payrollService) {
+        this(payrollService, DBConnection.getMaxPoolSize());
+    }
+
+    public AsyncPayrollService(PayrollService payrollService, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be at least 1");
+        }
+        this.payrollService = payrollService;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payroll-async-", 0).factory());
+    }
+
+    public CompletableFuture<Payslip> generatePayslip(int empId, int month, int year) {
+        return submit(() -> payrollService.generatePayslip(empId, month, year));
+    }
+
+    public CompletableFuture<Employee> getEmployeeDetails(int empId) {
+        return submit(() -> payrollService.getEmployeeDetails(empId));
+    }
+
+    public CompletableFuture<Payslip> getPayslipDetails(int payslipId) {
+        return submit(() -> payrollService.getPayslipDetails(payslipId));
+    }
+
+    public CompletableFuture<List<Payslip>> getEmployeePayslipsPage(int empId, int beforeYear, int beforeMonth,
+                                                                   int pageSize) {
+        return submit(() -> payrollService.getEmployeePayslipsPage(empId, beforeYear, beforeMonth, pageSize));
+    }
+
+    public CompletableFuture<List<Payslip>> getPayslipsByMonth(int month, int year) {
+        return submit(() -> payrollService.getPayslipsByMonth(month, year));
+    }
+
+    public CompletableFuture<YearToDate> getYearToDate(int empId, int financialYear) {
+        return submit(() -> payrollService.getYearToDate(empId, financialYear));
+    }
+
+    public CompletableFuture<List<Payslip>> getPayslipsByMonthPage(int month, int year, int afterEmpId, int pageSize) {
+        return submit(() -> payrollService.getPayslipsByMonthPage(month, year, afterEmpId, pageSize));
+    }
+
+    public CompletableFuture<List<Employee>> getEmployeesPage(int afterEmpId, int pageSize) {
+        return submit(() -> payrollService.getEmployeesPage(afterEmpId, pageSize));
+    }
+
+    /**
+     * Maximum number of calls running against the database at once
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Calls currently running against the database
+     */
+    public int getRunning() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Calls waiting for one of the running calls to finish (approximate)
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Stop accepting calls and wait for the submitted ones to finish
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private <T> CompletableFuture<T> submit(BlockingCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(call, future));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private <T> void run(BlockingCall<T> call, CompletableFuture<T> future) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            future.completeExceptionally(e);
+            return;
+        }
+        try {
+            if (future.isDone()) {
+                // Cancelled (e.g. timed out) while waiting for a permit; skip the database work
+                return;
+            }
+            future.complete(call.call());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * A PayrollService call that may block on JDBC
+     */
+    private interface BlockingCall<T> {
+        T call() throws Exception;
+    }
+}
@@ -0,0 +1,328 @@
+package service;
+
+import dao.EmployeeBatchResult;
+import dao.EmployeeRepository;
+import model.Employee;
+import util.AppConfig;
+import util.Money;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams employees from a CSV file into storage.
+ * The file is read line by line; valid records are written in chunks, each chunk in its
+ * own transaction via EmployeeRepository.importEmployees. Invalid records, and records whose
+ * email already exists when not upserting, are written to a reject file with their line
+ * number and reason. A database failure other than refused data stops the import.
+ *
+ * The first non-blank line is a header naming the columns, in any order:
+ * name, email, department, designation, join_date, base_salary and optionally hra and
+ * allowance (default 0). Fields may be quoted with double quotes; quoted fields cannot
+ * span lines.
+ */
+public class EmployeeCsvImporter {
+
+    private static final int IMPORT_CHUNK_SIZE = Math.max(1, AppConfig.getInt("payroll.import.chunkSize", 1000));
+    // Header names in the order toEmployee reads them; the first six are required
+    private static final String[] COLUMNS = {"name", "email", "department", "designation", "join_date", "base_salary", "hra", "allowance"};
+    private static final int REQUIRED_COLUMNS = 6;
+    // Column widths from database_schema.sql; longer values would fail the whole batch
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_EMAIL_LENGTH = 100;
+    private static final int MAX_DEPARTMENT_LENGTH = 50;
+    private static final int MAX_DESIGNATION_LENGTH = 50;
+
+    private final EmployeeRepository employeeDAO;
+
+    public EmployeeCsvImporter(EmployeeRepository employeeDAO) {
+        this.employeeDAO = employeeDAO;
+    }
+
+    /**
+     * Import the CSV file. With upsert, a record whose email already exists overwrites that
+     * employee; otherwise it is rejected. Rejected lines go to rejectFile, which is only
+     * created if something is rejected.
+     */
+    public EmployeeImportResult importFile(Path csvFile, boolean upsert, Path rejectFile) throws IOException, SQLException {
+        long start = System.currentTimeMillis();
+        EmployeeImportResult result = new EmployeeImportResult();
+
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8);
+             RejectWriter rejects = new RejectWriter(rejectFile, result)) {
+            int lineNumber = 0;
+            int[] columns = null;
+            List<Employee> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+            Map<Employee, Record> records = new IdentityHashMap<>();
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);
+                }
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                if (columns == null) {
+                    columns = parseHeader(line);
+                    continue;
+                }
+
+                result.recordRead();
+                Record record = new Record(lineNumber, line);
+                List<String> fields = parseLine(line);
+                if (fields == null) {
+                    rejects.reject(record, "Unterminated quoted field");
+                    continue;
+                }
+                Employee employee;
+                try {
+                    employee = toEmployee(fields, columns);
+                } catch (IllegalArgumentException e) {
+                    rejects.reject(record, e.getMessage());
+                    continue;
+                }
+
+                chunk.add(employee);
+                records.put(employee, record);
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    saveChunk(chunk, records, upsert, result, rejects);
+                }
+            }
+            if (columns == null) {
+                throw new IllegalArgumentException("CSV file has no header line");
+            }
+            if (!chunk.isEmpty()) {
+                saveChunk(chunk, records, upsert, result, rejects);
+            }
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * Save one chunk in its own transaction. If the chunk's data is refused (a constraint or
+     * data error), all of its records are rejected and the import carries on; any other
+     * database error aborts the import, leaving the chunks saved before it in place.
+     */
+    private void saveChunk(List<Employee> chunk, Map<Employee, Record> records, boolean upsert,
+                           EmployeeImportResult result, RejectWriter rejects) throws IOException, SQLException {
+        try {
+            EmployeeBatchResult saved = employeeDAO.importEmployees(chunk, upsert);
+            result.employeesInserted(saved.getInserted().size());
+            result.employeesUpdated(saved.getUpdated().size());
+            for (Employee duplicate : saved.getDuplicates()) {
+                rejects.reject(records.get(duplicate), "Email already exists: " + duplicate.getEmail());
+            }
+        } catch (SQLException e) {
+            if (!isDataError(e)) {
+                throw e;
+            }
+            for (Employee employee : chunk) {
+                rejects.reject(records.get(employee), "Database error: " + e.getMessage());
+            }
+        } finally {
+            chunk.clear();
+            records.clear();
+        }
+    }
+
+    /**
+     * Whether the database refused the rows themselves (SQLState class 22, data exception, or
+     * 23, integrity constraint violation) rather than failed, as with a lost connection
+     */
+    private static boolean isDataError(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("22") || state.startsWith("23"));
+    }
+
+    /**
+     * Index of each known column in a record, -1 for an absent optional column
+     */
+    private int[] parseHeader(String line) {
+        List<String> names = parseLine(line);
+        if (names == null) {
+            throw new IllegalArgumentException("Malformed CSV header: " + line);
+        }
+        int[] columns = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            columns[i] = -1;
+            for (int j = 0; j < names.size(); j++) {
+                if (normalizeColumn(names.get(j)).equals(normalizeColumn(COLUMNS[i]))) {
+                    columns[i] = j;
+                    break;
+                }
+            }
+            if (columns[i] < 0 && i < REQUIRED_COLUMNS) {
+                throw new IllegalArgumentException("CSV header is missing the " + COLUMNS[i] + " column");
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Header names match ignoring case, spaces and underscores, so joinDate and "Join Date" both work
+     */
+    private static String normalizeColumn(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replace("_", "").replace(" ", "");
+    }
+
+    /**
+     * Build and validate an employee with the same rules as adding one from the menu
+     */
+    private Employee toEmployee(List<String> fields, int[] columns) {
+        String name = field(fields, columns[0]);
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Name cannot be empty");
+        }
+        String email = field(fields, columns[1]);
+        if (!email.contains("@")) {
+            throw new IllegalArgumentException("Invalid email format");
+        }
+        String department = field(fields, columns[2]);
+        String designation = field(fields, columns[3]);
+        checkLength("Name", name, MAX_NAME_LENGTH);
+        checkLength("Email", email, MAX_EMAIL_LENGTH);
+        checkLength("Department", department, MAX_DEPARTMENT_LENGTH);
+        checkLength("Designation", designation, MAX_DESIGNATION_LENGTH);
+
+        String joinDate = field(fields, columns[4]);
+        try {
+            LocalDate.parse(joinDate);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid join date (expected YYYY-MM-DD): " + joinDate);
+        }
+
+        long baseSalary = amount("Base salary", field(fields, columns[5]));
+        long hra = columns[6] < 0 ? 0 : amount("HRA", field(fields, columns[6]));
+        long allowance = columns[7] < 0 ? 0 : amount("Allowance", field(fields, columns[7]));
+        return new Employee(0, name, email, department, designation, joinDate, baseSalary, hra, allowance);
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index).trim() : "";
+    }
+
+    private static void checkLength(String label, String value, int maxLength) {
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(label + " is longer than " + maxLength + " characters");
+        }
+    }
+
+    /**
+     * Parse an amount in rupees into paise
+     */
+    private static long amount(String label, String value) {
+        long amount;
+        try {
+            amount = Money.parse(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(label + " is not an amount with at most two decimals: " + value);
+        }
+        if (amount < 0) {
+            throw new IllegalArgumentException(label + " cannot be negative");
+        }
+        return amount;
+    }
+
+    /**
+     * Split a CSV line into fields. Double-quoted fields may contain commas and doubled
+     * quotes. Returns null if a quoted field is not closed on this line.
+     */
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * A data line of the CSV file
+     */
+    private static final class Record {
+        private final int lineNumber;
+        private final String line;
+
+        private Record(int lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Writes rejected records as CSV (line, reason, record), creating the file on the first reject
+     */
+    private static final class RejectWriter implements AutoCloseable {
+        private final Path file;
+        private final EmployeeImportResult result;
+        private BufferedWriter writer;
+
+        private RejectWriter(Path file, EmployeeImportResult result) {
+            this.file = file;
+            this.result = result;
+        }
+
+        private void reject(Record record, String reason) throws IOException {
+            result.recordRejected();
+            if (writer == null) {
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                writer.write("line,reason,record");
+                writer.newLine();
+                result.setRejectFile(file);
+            }
+            writer.write(record.lineNumber + "," + quote(reason) + "," + quote(record.line));
+            writer.newLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package service;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of importing employees from a CSV file
+ */
+public class EmployeeImportResult {
+
+    private int recordsRead;
+    private int inserted;
+    private int updated;
+    private int rejected;
+    private Path rejectFile;
+    private long elapsedMillis;
+
+    void recordRead() {
+        recordsRead++;
+    }
+
+    void employeesInserted(int count) {
+        inserted += count;
+    }
+
+    void employeesUpdated(int count) {
+        updated += count;
+    }
+
+    void recordRejected() {
+        rejected++;
+    }
+
+    void setRejectFile(Path rejectFile) {
+        this.rejectFile = rejectFile;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Data lines read, excluding the header and blank lines
+     */
+    public int getRecordsRead() {
+        return recordsRead;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    /**
+     * Existing employees overwritten by email (upsert mode only)
+     */
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * File listing the rejected lines, or null if nothing was rejected
+     */
+    public Path getRejectFile() {
+        return rejectFile;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Records processed per second of wall-clock time
+     */
+    public double getThroughputPerSecond() {
+        return elapsedMillis == 0 ? recordsRead : recordsRead * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeImportResult{" +
+                "recordsRead=" + recordsRead +
+                ", inserted=" + inserted +
+                ", updated=" + updated +
+                ", rejected=" + rejected +
+                ", rejectFile=" + rejectFile +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
@@ -0,0 +1,144 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk payroll run for one month
+ */
+public class PayrollRunResult {
+
+    private final int month;
+    private final int year;
+    private int employeesScanned;
+    private int generated;
+    private int cloned;
+    private int skipped;
+    private final List<Failure> failures = new ArrayList<>();
+    private long elapsedMillis;
+
+    public PayrollRunResult(int month, int year) {
+        this.month = month;
+        this.year = year;
+    }
+
+    void employeeScanned() {
+        employeesScanned++;
+    }
+
+    void payslipsGenerated(int count) {
+        generated += count;
+    }
+
+    void payslipsCloned(int count) {
+        generated += count;
+        cloned += count;
+    }
+
+    void employeeSkipped() {
+        skipped++;
+    }
+
+    void employeesSkipped(int count) {
+        skipped += count;
+    }
+
+    void employeeFailed(int empId, String reason) {
+        failures.add(new Failure(empId, reason));
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getEmployeesScanned() {
+        return employeesScanned;
+    }
+
+    /**
+     * Payslips created by the run, computed or cloned
+     */
+    public int getGenerated() {
+        return generated;
+    }
+
+    /**
+     * Payslips calculated from the employee's current salary
+     */
+    public int getComputed() {
+        return generated - cloned;
+    }
+
+    /**
+     * Payslips copied from last month's by an incremental run
+     */
+    public int getCloned() {
+        return cloned;
+    }
+
+    /**
+     * Employees that already had a payslip for the month
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public List<Failure> getFailures() {
+        return Collections.unmodifiableList(failures);
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Payslips generated per second of wall-clock time
+     */
+    public double getThroughputPerSecond() {
+        return elapsedMillis == 0 ? generated : generated * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "PayrollRunResult{" +
+                "month=" + month +
+                ", year=" + year +
+                ", employeesScanned=" + employeesScanned +
+                ", generated=" + generated +
+                ", cloned=" + cloned +
+                ", skipped=" + skipped +
+                ", failed=" + failures.size() +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+
+    /**
+     * An employee whose payslip could not be generated
+     */
+    public static class Failure {
+        private final int empId;
+        private final String reason;
+
+        public Failure(int empId, String reason) {
+            this.empId = empId;
+            this.reason = reason;
+        }
+
+        public int getEmpId() {
+            return empId;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
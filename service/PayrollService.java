@@ -1,36 +1,73 @@
 package service;
 
-import dao.EmployeeDAO;
+import dao.CachedEmployeeDAO;
+import dao.EmployeeRepository;
 import dao.PayrollDAO;
+import dao.PayrollRunRepository;
+import dao.PayslipBatchResult;
+import dao.PayslipRepository;
+import dao.Repositories;
 import model.Employee;
 import model.Payslip;
+import model.PayrollRegister;
+import model.PayrollTotals;
+import model.PayslipSummary;
+import model.YearToDate;
+import util.AppConfig;
+import util.BoundedCache;
+import util.Money;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class PayrollService {
     
-    private EmployeeDAO employeeDAO;
-    private PayrollDAO payrollDAO;
+    private EmployeeRepository employeeDAO;
+    private PayslipRepository payrollDAO;
+    private PayrollRunRepository payrollRunDAO;
+    private TaxEngine taxEngine;
+    // Fingerprint of the calculation rules, recorded with each payroll run
+    private final String calculation;
     
-    private static final double PF_PERCENTAGE = 12.0; // Provident Fund: 12% of gross salary
-    private static final double HEALTH_INSURANCE = 500.0; // Fixed health insurance
-    private static final double INCOME_TAX_SLAB_1 = 0.05; // 5% up to 300000
-    private static final double INCOME_TAX_SLAB_2 = 0.10; // 10% from 300001 to 500000
-    private static final double INCOME_TAX_SLAB_3 = 0.20; // 20% above 500000
-    private static final double SLAB_1_LIMIT = 300000;
-    private static final double SLAB_2_LIMIT = 500000;
+    private static final long PF_PERCENTAGE = Money.parsePercent("12"); // Provident Fund: 12% of gross salary
+    private static final long HEALTH_INSURANCE = Money.ofRupees(500); // Fixed health insurance
+    private static final int RUN_CHUNK_SIZE = Math.max(1, AppConfig.getInt("payroll.run.chunkSize", 1000));
     
+    /**
+     * Use the storage backend selected in application.properties (see Repositories)
+     */
     public PayrollService() {
-        this.employeeDAO = new EmployeeDAO();
-        this.payrollDAO = new PayrollDAO();
+        this(Repositories.cachedEmployees(), Repositories.payslips(), TaxEngine.fromConfig());
+    }
+
+    public PayrollService(EmployeeRepository employeeDAO, PayslipRepository payrollDAO, TaxEngine taxEngine) {
+        this(employeeDAO, payrollDAO, Repositories.payrollRuns(), taxEngine);
+    }
+
+    public PayrollService(EmployeeRepository employeeDAO, PayslipRepository payrollDAO,
+                          PayrollRunRepository payrollRunDAO, TaxEngine taxEngine) {
+        this.employeeDAO = employeeDAO;
+        this.payrollDAO = payrollDAO;
+        this.payrollRunDAO = payrollRunDAO;
+        this.taxEngine = taxEngine;
+        this.calculation = fingerprint(taxEngine + "|pf=" + PF_PERCENTAGE + "|health=" + HEALTH_INSURANCE);
     }
 
     /**
-     * Calculate gross salary
+     * Calculate gross salary; all amounts are in paise
      */
-    public double calculateGrossSalary(double baseSalary, double hra, double allowance) {
+    public long calculateGrossSalary(long baseSalary, long hra, long allowance) {
         if (baseSalary < 0 || hra < 0 || allowance < 0) {
             throw new IllegalArgumentException("Salary components cannot be negative");
         }
@@ -38,99 +75,214 @@ public class PayrollService {
     }
 
     /**
-     * Calculate provident fund (12% of gross salary)
+     * Calculate provident fund (12% of gross salary, rounded to paise)
      */
-    public double calculateProvidentFund(double grossSalary) {
-        return (grossSalary * PF_PERCENTAGE) / 100.0;
+    public long calculateProvidentFund(long grossSalary) {
+        return Money.percentOf(grossSalary, PF_PERCENTAGE);
     }
 
     /**
-     * Calculate income tax based on Indian tax slabs
+     * Calculate income tax based on the configured tax slabs
      */
-    public double calculateIncomeTax(double grossSalary) {
-        double tax = 0.0;
-        
-        if (grossSalary <= SLAB_1_LIMIT) {
-            tax = (grossSalary * INCOME_TAX_SLAB_1) / 100.0;
-        } else if (grossSalary <= SLAB_2_LIMIT) {
-            double slab1Amount = SLAB_1_LIMIT * INCOME_TAX_SLAB_1 / 100.0;
-            double slab2Amount = (grossSalary - SLAB_1_LIMIT) * INCOME_TAX_SLAB_2 / 100.0;
-            tax = slab1Amount + slab2Amount;
-        } else {
-            double slab1Amount = SLAB_1_LIMIT * INCOME_TAX_SLAB_1 / 100.0;
-            double slab2Amount = (SLAB_2_LIMIT - SLAB_1_LIMIT) * INCOME_TAX_SLAB_2 / 100.0;
-            double slab3Amount = (grossSalary - SLAB_2_LIMIT) * INCOME_TAX_SLAB_3 / 100.0;
-            tax = slab1Amount + slab2Amount + slab3Amount;
-        }
-        
-        return Math.round(tax * 100.0) / 100.0;
+    public long calculateIncomeTax(long grossSalary) {
+        return taxEngine.calculate(grossSalary);
     }
 
     /**
      * Calculate total deductions
      */
-    public double calculateTotalDeductions(double incomeTax, double providentFund, double healthInsurance) {
+    public long calculateTotalDeductions(long incomeTax, long providentFund, long healthInsurance) {
         return incomeTax + providentFund + healthInsurance;
     }
 
     /**
      * Calculate net salary
      */
-    public double calculateNetSalary(double grossSalary, double totalDeductions) {
+    public long calculateNetSalary(long grossSalary, long totalDeductions) {
         if (totalDeductions > grossSalary) {
             throw new IllegalArgumentException("Total deductions cannot exceed gross salary");
         }
-        double netSalary = grossSalary - totalDeductions;
-        return Math.round(netSalary * 100.0) / 100.0;
+        return grossSalary - totalDeductions;
     }
 
     /**
      * Generate payslip for an employee
      */
     public Payslip generatePayslip(int empId, int month, int year) throws SQLException {
-        // Validate employee exists
-        if (!employeeDAO.employeeExists(empId)) {
+        validatePayPeriod(month, year);
+        // One connection: fetch the employee, compute and insert. Duplicates are
+        // detected from the unique_payslip key instead of a separate existence check.
+        Payslip payslip;
+        try {
+            payslip = payrollDAO.createPayslip(empId, employee -> calculatePayslip(employee, month, year));
+        } catch (SQLException e) {
+            if (PayrollDAO.isDuplicateKey(e)) {
+                throw new IllegalArgumentException("Payslip already exists for employee " + empId + " for month " + month + "/" + year);
+            }
+            throw e;
+        }
+
+        if (payslip == null) {
             throw new IllegalArgumentException("Employee with ID " + empId + " does not exist");
         }
+        return payslip;
+    }
+
+    /**
+     * Generate payslips for every active employee who has not been paid for the month.
+     * Payslips are computed in parallel and saved in chunks, each chunk in its own
+     * transaction; a failing chunk is recorded and the run carries on with the next one.
+     */
+    public PayrollRunResult generatePayrollForMonth(int month, int year) throws SQLException {
+        return generatePayrollForMonth(month, year, false);
+    }
+
+    /**
+     * Generate payslips for the month, optionally incrementally.
+     * An incremental run first copies last month's payslip, in one statement, for every employee
+     * whose pay has not changed since last month's run (see PayrollRunRepository.cloneUnchangedPayslips),
+     * then computes payslips only for the employees still unpaid: those whose salary changed,
+     * who joined, or who had no payslip last month. Its cost grows with churn rather than headcount.
+     * Either mode records the run, so the following month can be run incrementally.
+     */
+    public PayrollRunResult generatePayrollForMonth(int month, int year, boolean incremental) throws SQLException {
+        validatePayPeriod(month, year);
+
+        long start = System.currentTimeMillis();
+        PayrollRunResult result = new PayrollRunResult(month, year);
+        List<Employee> chunk = new ArrayList<>(RUN_CHUNK_SIZE);
+        Consumer<Employee> collector = employee -> {
+            chunk.add(employee);
+            if (chunk.size() == RUN_CHUNK_SIZE) {
+                processPayrollChunk(chunk, month, year, result);
+                chunk.clear();
+            }
+        };
+
+        payrollRunDAO.startRun(month, year, incremental ? PayrollRunRepository.MODE_INCREMENTAL : PayrollRunRepository.MODE_FULL,
+                calculation);
+        if (incremental) {
+            result.payslipsCloned(payrollRunDAO.cloneUnchangedPayslips(month, year, calculation, LocalDate.now()));
+            employeeDAO.forEachUnpaidEmployee(month, year, employee -> {
+                result.employeeScanned();
+                collector.accept(employee);
+            });
+        } else {
+            Set<Integer> paidEmpIds = payrollDAO.getPaidEmployeeIds(month, year);
+            employeeDAO.forEachActiveEmployee(employee -> {
+                result.employeeScanned();
+                if (paidEmpIds.contains(employee.getEmpId())) {
+                    result.employeeSkipped();
+                    return;
+                }
+                collector.accept(employee);
+            });
+        }
+        if (!chunk.isEmpty()) {
+            processPayrollChunk(chunk, month, year, result);
+        }
+        payrollRunDAO.completeRun(month, year, result.getComputed(), result.getCloned());
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * Compute payslips for a chunk of employees in parallel and save them in one batch
+     */
+    private void processPayrollChunk(List<Employee> chunk, int month, int year, PayrollRunResult result) {
+        Payslip[] computed = new Payslip[chunk.size()];
+        String[] errors = new String[chunk.size()];
+
+        IntStream.range(0, chunk.size()).parallel().forEach(i -> {
+            try {
+                computed[i] = calculatePayslip(chunk.get(i), month, year);
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+            }
+        });
+
+        List<Payslip> payslips = new ArrayList<>(chunk.size());
+        for (int i = 0; i < computed.length; i++) {
+            if (computed[i] != null) {
+                payslips.add(computed[i]);
+            } else {
+                result.employeeFailed(chunk.get(i).getEmpId(), errors[i]);
+            }
+        }
 
-        // Check if payslip already exists for this month/year
-        if (payrollDAO.payslipExists(empId, month, year)) {
-            throw new IllegalArgumentException("Payslip already exists for employee " + empId + " for month " + month + "/" + year);
+        try {
+            PayslipBatchResult saved = payrollDAO.savePayslips(payslips);
+            result.payslipsGenerated(saved.getSavedCount());
+            // Paid by someone else since the run started
+            result.employeesSkipped(saved.getDuplicates().size());
+        } catch (SQLException e) {
+            for (Payslip payslip : payslips) {
+                result.employeeFailed(payslip.getEmpId(), "Database error: " + e.getMessage());
+            }
         }
+    }
 
-        // Get employee details
-        Employee employee = employeeDAO.getEmployeeById(empId);
-        if (employee == null) {
-            throw new IllegalArgumentException("Employee not found");
+    private static String fingerprint(String rules) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rules.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
+    }
 
-        // Create and populate payslip
-        Payslip payslip = new Payslip(empId, month, year, employee.getBaseSalary(), 
-                                       employee.getHra(), employee.getAllowance());
+    /**
+     * Compute a payslip for an employee without saving it
+     */
+    public Payslip calculatePayslip(Employee employee, int month, int year) {
+        Payslip payslip = new Payslip(employee.getEmpId(), month, year, employee.getBaseSalaryPaise(),
+                                       employee.getHraPaise(), employee.getAllowancePaise());
+        payslip.setDepartment(employee.getDepartment());
 
         // Calculate salary components
-        double grossSalary = calculateGrossSalary(employee.getBaseSalary(), 
-                                                   employee.getHra(), 
-                                                   employee.getAllowance());
-        double providentFund = calculateProvidentFund(grossSalary);
-        double incomeTax = calculateIncomeTax(grossSalary);
-        double totalDeductions = calculateTotalDeductions(incomeTax, providentFund, HEALTH_INSURANCE);
-        double netSalary = calculateNetSalary(grossSalary, totalDeductions);
+        long grossSalary = calculateGrossSalary(employee.getBaseSalaryPaise(),
+                                                 employee.getHraPaise(),
+                                                 employee.getAllowancePaise());
+        long providentFund = calculateProvidentFund(grossSalary);
+        long incomeTax = calculateIncomeTax(grossSalary);
+        long totalDeductions = calculateTotalDeductions(incomeTax, providentFund, HEALTH_INSURANCE);
+        long netSalary = calculateNetSalary(grossSalary, totalDeductions);
 
         // Set values in payslip
-        payslip.setGrossSalary(grossSalary);
-        payslip.setProvidentFund(providentFund);
-        payslip.setIncomeTax(incomeTax);
-        payslip.setHealthInsurance(HEALTH_INSURANCE);
-        payslip.setTotalDeductions(totalDeductions);
-        payslip.setNetSalary(netSalary);
+        payslip.setGrossSalaryPaise(grossSalary);
+        payslip.setProvidentFundPaise(providentFund);
+        payslip.setIncomeTaxPaise(incomeTax);
+        payslip.setHealthInsurancePaise(HEALTH_INSURANCE);
+        payslip.setTotalDeductionsPaise(totalDeductions);
+        payslip.setNetSalaryPaise(netSalary);
         payslip.setGeneratedDate(LocalDate.now());
-
-        // Save payslip to database
-        payrollDAO.savePayslip(payslip);
         return payslip;
     }
 
+    /**
+     * Load the active workforce into memory for what-if simulations
+     */
+    public WorkforceSnapshot loadWorkforceSnapshot() throws SQLException {
+        return WorkforceSnapshot.load(employeeDAO);
+    }
+
+    /**
+     * Price a raise for a department (or everyone when department is null) without
+     * changing any salary or writing any payslip
+     */
+    public SimulationResult simulateRaise(WorkforceSnapshot snapshot, String department, double raisePercent) {
+        if (raisePercent < -100) {
+            throw new IllegalArgumentException("Raise cannot be less than -100%");
+        }
+        return new SalarySimulator(taxEngine, PF_PERCENTAGE, HEALTH_INSURANCE)
+                .simulateRaise(snapshot, department, raisePercent);
+    }
+
     /**
      * Get payslip details by payslip ID
      */
@@ -148,6 +300,64 @@ public class PayrollService {
         return payrollDAO.getPayslipsByEmployeeId(empId);
     }
 
+    /**
+     * Get a page of an employee's payslips for months before (beforeYear, beforeMonth), newest first.
+     * Pass 0, 0 for the latest page, then the year and month of the last payslip of each page.
+     */
+    public List<Payslip> getEmployeePayslipsPage(int empId, int beforeYear, int beforeMonth, int pageSize)
+            throws SQLException {
+        validateHistoryPage(beforeYear, beforeMonth, pageSize);
+        List<Payslip> payslips = payrollDAO.getPayslipHistoryPage(empId, beforeYear, beforeMonth, pageSize);
+        checkHistoryFound(empId, beforeYear, payslips);
+        return payslips;
+    }
+
+    /**
+     * Same page as getEmployeePayslipsPage with only the columns list views show, read from an index
+     */
+    public List<PayslipSummary> getEmployeePayslipSummaries(int empId, int beforeYear, int beforeMonth, int pageSize)
+            throws SQLException {
+        validateHistoryPage(beforeYear, beforeMonth, pageSize);
+        List<PayslipSummary> summaries = payrollDAO.getPayslipSummaryPage(empId, beforeYear, beforeMonth, pageSize);
+        checkHistoryFound(empId, beforeYear, summaries);
+        return summaries;
+    }
+
+    /**
+     * Payslips can only be generated for a real month of a four-digit year
+     */
+    private static void validatePayPeriod(int month, int year) {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Month must be between 1 and 12");
+        }
+        if (year < 1 || year > 9999) {
+            throw new IllegalArgumentException("Year must be between 1 and 9999");
+        }
+    }
+
+    private static void validateHistoryPage(int beforeYear, int beforeMonth, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        if (beforeYear != 0 && (beforeMonth < 1 || beforeMonth > 12)) {
+            throw new IllegalArgumentException("Month must be between 1 and 12");
+        }
+    }
+
+    private void checkHistoryFound(int empId, int beforeYear, List<?> page) throws SQLException {
+        // Only an empty first page needs telling apart from an unknown employee
+        if (page.isEmpty() && beforeYear == 0 && !employeeDAO.employeeExists(empId)) {
+            throw new IllegalArgumentException("Employee with ID " + empId + " does not exist");
+        }
+    }
+
+    /**
+     * Get an employee's latest payslips, newest first
+     */
+    public List<Payslip> getLatestPayslips(int empId, int limit) throws SQLException {
+        return getEmployeePayslipsPage(empId, 0, 0, limit);
+    }
+
     /**
      * Get payslips generated for a specific month and year
      */
@@ -159,9 +369,146 @@ public class PayrollService {
     }
 
     /**
-     * Update employee salary details
+     * Get register totals for a month, overall and per department, from the department totals
+     * kept with the payslips
+     */
+    public PayrollRegister getPayrollRegister(int month, int year) throws SQLException {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Month must be between 1 and 12");
+        }
+        PayrollRegister register = new PayrollRegister(month, year);
+        PayrollTotals totals = new PayrollTotals();
+        for (PayrollTotals department : payrollDAO.getDepartmentTotals(month, year)) {
+            register.getDepartmentTotals().add(department);
+            totals.setPayslipCount(totals.getPayslipCount() + department.getPayslipCount());
+            totals.setTotalGrossPaise(totals.getTotalGrossPaise() + department.getTotalGrossPaise());
+            totals.setTotalIncomeTaxPaise(totals.getTotalIncomeTaxPaise() + department.getTotalIncomeTaxPaise());
+            totals.setTotalProvidentFundPaise(totals.getTotalProvidentFundPaise() + department.getTotalProvidentFundPaise());
+            totals.setTotalDeductionsPaise(totals.getTotalDeductionsPaise() + department.getTotalDeductionsPaise());
+            totals.setTotalNetPaise(totals.getTotalNetPaise() + department.getTotalNetPaise());
+        }
+        register.setTotals(totals);
+        return register;
+    }
+
+    /**
+     * Get the register of every month of a year, January first, for department-by-month dashboards
      */
-    public boolean updateEmployeeSalary(int empId, double baseSalary, double hra, double allowance) throws SQLException {
+    public List<PayrollRegister> getPayrollRegistersForYear(int year) throws SQLException {
+        List<PayrollRegister> registers = new ArrayList<>(12);
+        for (int month = 1; month <= 12; month++) {
+            registers.add(getPayrollRegister(month, year));
+        }
+        return registers;
+    }
+
+    /**
+     * Recompute all department rollups from the payslips
+     *
+     * @return the number of rollup rows written
+     */
+    public int rebuildDepartmentRollups() throws SQLException {
+        return payrollDAO.rebuildDepartmentTotals(0);
+    }
+
+    /**
+     * Recompute the department rollups of one year from the payslips
+     *
+     * @return the number of rollup rows written
+     */
+    public int rebuildDepartmentRollups(int year) throws SQLException {
+        if (year <= 0) {
+            throw new IllegalArgumentException("Invalid year");
+        }
+        return payrollDAO.rebuildDepartmentTotals(year);
+    }
+
+    /**
+     * Get an employee's year-to-date totals for a financial year (April of financialYear to
+     * March of the next year); all zero if the employee has no payslips in it
+     */
+    public YearToDate getYearToDate(int empId, int financialYear) throws SQLException {
+        if (empId <= 0) {
+            throw new IllegalArgumentException("Invalid employee ID");
+        }
+        YearToDate ytd = payrollDAO.getYearToDate(empId, financialYear);
+        return ytd != null ? ytd : new YearToDate(empId, financialYear);
+    }
+
+    /**
+     * Project an employee's income tax in paise for a whole financial year: the tax already
+     * deducted plus the tax on the current salary for each month not yet paid
+     */
+    public long projectAnnualIncomeTax(int empId, int financialYear) throws SQLException {
+        Employee employee = employeeDAO.getEmployeeById(empId);
+        if (employee == null) {
+            throw new IllegalArgumentException("Employee with ID " + empId + " does not exist");
+        }
+        YearToDate ytd = getYearToDate(empId, financialYear);
+        long monthlyTax = calculateIncomeTax(calculateGrossSalary(employee.getBaseSalaryPaise(),
+                employee.getHraPaise(), employee.getAllowancePaise()));
+        int remainingMonths = Math.max(0, 12 - ytd.getPayslipCount());
+        return ytd.getIncomeTaxPaise() + monthlyTax * remainingMonths;
+    }
+
+    /**
+     * Recompute all year-to-date totals from the payslips
+     *
+     * @return the number of YTD rows written
+     */
+    public int rebuildYearToDate() throws SQLException {
+        return payrollDAO.rebuildYearToDate(0);
+    }
+
+    /**
+     * Recompute the year-to-date totals of one financial year from the payslips
+     *
+     * @return the number of YTD rows written
+     */
+    public int rebuildYearToDate(int financialYear) throws SQLException {
+        if (financialYear <= 0) {
+            throw new IllegalArgumentException("Invalid financial year");
+        }
+        return payrollDAO.rebuildYearToDate(financialYear);
+    }
+
+    /**
+     * Get a page of a month's payslips after the given employee ID (0 for the first page), in emp_id order
+     */
+    public List<Payslip> getPayslipsByMonthPage(int month, int year, int afterEmpId, int pageSize) throws SQLException {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Month must be between 1 and 12");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return payrollDAO.getPayslipsByMonthPage(month, year, afterEmpId, pageSize);
+    }
+
+    /**
+     * Stream the payslips of a month to the consumer without loading them all into memory
+     */
+    public void forEachPayslipInMonth(int month, int year, Consumer<Payslip> consumer) throws SQLException {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Month must be between 1 and 12");
+        }
+        payrollDAO.forEachPayslipByMonthAndYear(month, year, consumer);
+    }
+
+    /**
+     * Stream the list-view columns of the payslips of a month to the consumer
+     */
+    public void forEachPayslipSummaryInMonth(int month, int year, Consumer<PayslipSummary> consumer) throws SQLException {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Month must be between 1 and 12");
+        }
+        payrollDAO.forEachPayslipSummaryByMonthAndYear(month, year, consumer);
+    }
+
+    /**
+     * Update employee salary details; amounts in paise
+     */
+    public boolean updateEmployeeSalary(int empId, long baseSalary, long hra, long allowance) throws SQLException {
         if (baseSalary < 0 || hra < 0 || allowance < 0) {
             throw new IllegalArgumentException("Salary components cannot be negative");
         }
@@ -188,13 +535,23 @@ public class PayrollService {
             throw new IllegalArgumentException("Employee name cannot be empty");
         }
         
-        if (employee.getBaseSalary() < 0) {
+        if (employee.getBaseSalaryPaise() < 0) {
             throw new IllegalArgumentException("Base salary cannot be negative");
         }
         
         return employeeDAO.addEmployee(employee);
     }
 
+    /**
+     * Import employees from a CSV file in batches. With upsert, records whose email already
+     * exists overwrite that employee; otherwise they are rejected. Rejected lines, with the
+     * reason, are written to rejectFile.
+     */
+    public EmployeeImportResult importEmployees(Path csvFile, boolean upsert, Path rejectFile)
+            throws IOException, SQLException {
+        return new EmployeeCsvImporter(employeeDAO).importFile(csvFile, upsert, rejectFile);
+    }
+
     /**
      * Get all employees
      */
@@ -202,6 +559,24 @@ public class PayrollService {
         return employeeDAO.getAllEmployees();
     }
 
+    /**
+     * Get a page of active employees after the given employee ID (0 for the first page)
+     */
+    public List<Employee> getEmployeesPage(int afterEmpId, int pageSize) throws SQLException {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return employeeDAO.getActiveEmployeesPage(afterEmpId, pageSize);
+    }
+
+    /**
+     * Stream all active employees without loading them all into memory
+     */
+    public Stream<Employee> streamAllEmployees(int pageSize) {
+        return employeeDAO.streamActiveEmployees(pageSize);
+    }
+
+
     /**
      * Delete employee (soft delete - mark as inactive)
      */
@@ -212,10 +587,37 @@ public class PayrollService {
         return employeeDAO.deleteEmployee(empId);
     }
 
+    /**
+     * The employee cache, or null if employees are read without one
+     */
+    public BoundedCache<Integer, Employee> getEmployeeCache() {
+        return employeeDAO instanceof CachedEmployeeDAO ? ((CachedEmployeeDAO) employeeDAO).getCache() : null;
+    }
+
+    /**
+     * Export every payslip of a month, in the printPayslip layout, to one file
+     * or (when perEmployee is true) to one file per payslip in a directory
+     */
+    public PayslipExportResult exportPayslips(int month, int year, Path target, boolean perEmployee)
+            throws SQLException, IOException {
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("Month must be between 1 and 12");
+        }
+        PayslipExporter exporter = new PayslipExporter(payrollDAO);
+        return perEmployee ? exporter.exportToDirectory(month, year, target) : exporter.exportToFile(month, year, target);
+    }
+
     /**
      * Print payslip details in a formatted manner
      */
     public void printPayslip(Payslip payslip) {
+        System.out.println(formatPayslip(payslip));
+    }
+
+    /**
+     * Format payslip details as printed by printPayslip
+     */
+    public String formatPayslip(Payslip payslip) {
         StringBuilder sb = new StringBuilder();
         sb.append("\n================== PAYSLIP ==================\n");
         sb.append("Payslip ID: ").append(payslip.getPayslipId()).append("\n");
@@ -224,22 +626,21 @@ public class PayrollService {
         sb.append("Generated Date: ").append(payslip.getGeneratedDate()).append("\n");
         sb.append("-------------------------------------------\n");
         sb.append("EARNINGS:\n");
-        sb.append("Base Salary: ₹ ").append(String.format("%.2f", payslip.getBaseSalary())).append("\n");
-        sb.append("HRA: ₹ ").append(String.format("%.2f", payslip.getHra())).append("\n");
-        sb.append("Allowance: ₹ ").append(String.format("%.2f", payslip.getAllowance())).append("\n");
+        sb.append("Base Salary: ₹ ").append(Money.format(payslip.getBaseSalaryPaise())).append("\n");
+        sb.append("HRA: ₹ ").append(Money.format(payslip.getHraPaise())).append("\n");
+        sb.append("Allowance: ₹ ").append(Money.format(payslip.getAllowancePaise())).append("\n");
         sb.append("-------------------------------------------\n");
-        sb.append("Gross Salary: ₹ ").append(String.format("%.2f", payslip.getGrossSalary())).append("\n");
+        sb.append("Gross Salary: ₹ ").append(Money.format(payslip.getGrossSalaryPaise())).append("\n");
         sb.append("-------------------------------------------\n");
         sb.append("DEDUCTIONS:\n");
-        sb.append("Income Tax: ₹ ").append(String.format("%.2f", payslip.getIncomeTax())).append("\n");
-        sb.append("Provident Fund (12%): ₹ ").append(String.format("%.2f", payslip.getProvidentFund())).append("\n");
-        sb.append("Health Insurance: ₹ ").append(String.format("%.2f", payslip.getHealthInsurance())).append("\n");
+        sb.append("Income Tax: ₹ ").append(Money.format(payslip.getIncomeTaxPaise())).append("\n");
+        sb.append("Provident Fund (12%): ₹ ").append(Money.format(payslip.getProvidentFundPaise())).append("\n");
+        sb.append("Health Insurance: ₹ ").append(Money.format(payslip.getHealthInsurancePaise())).append("\n");
         sb.append("-------------------------------------------\n");
-        sb.append("Total Deductions: ₹ ").append(String.format("%.2f", payslip.getTotalDeductions())).append("\n");
+        sb.append("Total Deductions: ₹ ").append(Money.format(payslip.getTotalDeductionsPaise())).append("\n");
         sb.append("-------------------------------------------\n");
-        sb.append("NET SALARY: ₹ ").append(String.format("%.2f", payslip.getNetSalary())).append("\n");
+        sb.append("NET SALARY: ₹ ").append(Money.format(payslip.getNetSalaryPaise())).append("\n");
         sb.append("==========================================\n");
-        
-        System.out.println(sb.toString());
+        return sb.toString();
     }
 }
@@ -0,0 +1,87 @@
+package service;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of exporting a month's payslips to disk
+ */
+public class PayslipExportResult {
+
+    private final int month;
+    private final int year;
+    private final Path target;
+    private int payslips;
+    private int files;
+    private long bytes;
+    private long elapsedMillis;
+
+    public PayslipExportResult(int month, int year, Path target) {
+        this.month = month;
+        this.year = year;
+        this.target = target;
+    }
+
+    void payslipsWritten(int count, long byteCount) {
+        payslips += count;
+        bytes += byteCount;
+    }
+
+    void filesWritten(int count) {
+        files += count;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * The concatenated file or the directory holding one file per payslip
+     */
+    public Path getTarget() {
+        return target;
+    }
+
+    public int getPayslips() {
+        return payslips;
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Payslips exported per second of wall-clock time
+     */
+    public double getThroughputPerSecond() {
+        return elapsedMillis == 0 ? payslips : payslips * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "PayslipExportResult{" +
+                "month=" + month +
+                ", year=" + year +
+                ", target=" + target +
+                ", payslips=" + payslips +
+                ", files=" + files +
+                ", bytes=" + bytes +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
@@ -0,0 +1,196 @@
+package service;
+
+import dao.PayslipRepository;
+import model.Payslip;
+import util.AppConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes every payslip of a month to disk in the printPayslip layout (UTF-8, each
+ * payslip followed by the line separator). Payslips are streamed from the database
+ * in chunks; chunks are rendered in parallel with PayslipRenderer and written through
+ * FileChannels, one large write per chunk for a concatenated file.
+ */
+public class PayslipExporter {
+
+    private static final int EXPORT_THREADS = Math.max(1,
+            AppConfig.getInt("payroll.export.threads", Runtime.getRuntime().availableProcessors()));
+    private static final int EXPORT_CHUNK_SIZE = Math.max(1, AppConfig.getInt("payroll.export.chunkSize", 500));
+    // A rendered payslip is about 650 bytes; sized so most chunks never grow their buffer
+    private static final int BYTES_PER_PAYSLIP = 704;
+
+    private final PayslipRepository payrollDAO;
+
+    public PayslipExporter(PayslipRepository payrollDAO) {
+        this.payrollDAO = payrollDAO;
+    }
+
+    /**
+     * Write all payslips of the month, in emp_id order, into one file (replaced if it exists)
+     */
+    public PayslipExportResult exportToFile(int month, int year, Path file) throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+        PayslipExportResult result = new PayslipExportResult(month, year, file);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // Chunks are rendered out of order but written in the order they were read
+            run(month, year, chunk -> {
+                PayslipRenderer renderer = new PayslipRenderer(chunk.size() * BYTES_PER_PAYSLIP);
+                for (Payslip payslip : chunk) {
+                    renderer.appendLine(payslip);
+                }
+                return renderer.asByteBuffer();
+            }, (chunk, rendered) -> {
+                long bytes = rendered.remaining();
+                while (rendered.hasRemaining()) {
+                    channel.write(rendered);
+                }
+                result.payslipsWritten(chunk.size(), bytes);
+            });
+        }
+        result.filesWritten(1);
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * Write each payslip of the month to its own file, payslip_&lt;empId&gt;_&lt;year&gt;_&lt;MM&gt;.txt,
+     * in the directory (created if needed; existing files are replaced)
+     */
+    public PayslipExportResult exportToDirectory(int month, int year, Path directory) throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+        PayslipExportResult result = new PayslipExportResult(month, year, directory);
+        Files.createDirectories(directory);
+
+        ThreadLocal<PayslipRenderer> renderers = ThreadLocal.withInitial(PayslipRenderer::new);
+        run(month, year, chunk -> {
+            PayslipRenderer renderer = renderers.get();
+            long bytes = 0;
+            for (Payslip payslip : chunk) {
+                renderer.reset();
+                renderer.appendLine(payslip);
+                bytes += renderer.size();
+                write(directory.resolve(fileName(payslip)), renderer.asByteBuffer());
+            }
+            return bytes;
+        }, (chunk, bytes) -> {
+            result.payslipsWritten(chunk.size(), bytes);
+            result.filesWritten(chunk.size());
+        });
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    static String fileName(Payslip payslip) {
+        return "payslip_" + payslip.getEmpId() + "_" + payslip.getYear() + "_"
+                + (payslip.getMonth() < 10 ? "0" : "") + payslip.getMonth() + ".txt";
+    }
+
+    /**
+     * Stream the month in chunks, process up to twice as many chunks as there are threads
+     * concurrently, and hand each chunk's outcome to the sink in read order
+     */
+    private <T> void run(int month, int year, ChunkTask<T> task, ChunkSink<T> sink) throws SQLException, IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(EXPORT_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "payslip-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ArrayDeque<PendingChunk<T>> pending = new ArrayDeque<>();
+        List<Payslip> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        try {
+            payrollDAO.forEachPayslipByMonthAndYear(month, year, payslip -> {
+                chunk.add(payslip);
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    submit(executor, pending, new ArrayList<>(chunk), task);
+                    chunk.clear();
+                    if (pending.size() >= EXPORT_THREADS * 2) {
+                        complete(pending.removeFirst(), sink);
+                    }
+                }
+            });
+            if (!chunk.isEmpty()) {
+                submit(executor, pending, new ArrayList<>(chunk), task);
+            }
+            while (!pending.isEmpty()) {
+                complete(pending.removeFirst(), sink);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> void submit(ExecutorService executor, ArrayDeque<PendingChunk<T>> pending,
+                                   List<Payslip> chunk, ChunkTask<T> task) {
+        pending.addLast(new PendingChunk<>(chunk, executor.submit(() -> task.process(chunk))));
+    }
+
+    private static <T> void complete(PendingChunk<T> pending, ChunkSink<T> sink) {
+        try {
+            sink.accept(pending.chunk, pending.future.get());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while exporting payslips", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Payslip export failed", cause);
+        }
+    }
+
+    private static void write(Path file, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    private interface ChunkTask<T> {
+        T process(List<Payslip> chunk) throws IOException;
+    }
+
+    private interface ChunkSink<T> {
+        void accept(List<Payslip> chunk, T processed) throws IOException;
+    }
+
+    private static final class PendingChunk<T> {
+        private final List<Payslip> chunk;
+        private final Future<T> future;
+
+        private PendingChunk(List<Payslip> chunk, Future<T> future) {
+            this.chunk = chunk;
+            this.future = future;
+        }
+    }
+}
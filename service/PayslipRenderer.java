@@ -0,0 +1,220 @@
+package service;
+
+import model.Payslip;
+import util.Money;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Renders payslips in the PayrollService.formatPayslip layout as UTF-8 bytes.
+ * The fixed text is encoded once; numbers and dates are written digit by digit into
+ * a reusable buffer, so rendering a payslip allocates nothing once the buffer is large
+ * enough. A default locale with non-ASCII digits falls back to String.format so the
+ * output stays byte-identical.
+ * Not thread-safe: use one renderer per thread.
+ */
+public final class PayslipRenderer {
+
+    private static final byte[] HEADER = utf8("\n================== PAYSLIP ==================\nPayslip ID: ");
+    private static final byte[] EMPLOYEE_ID = utf8("\nEmployee ID: ");
+    private static final byte[] MONTH_YEAR = utf8("\nMonth/Year: ");
+    private static final byte[] GENERATED_DATE = utf8("\nGenerated Date: ");
+    private static final byte[] BASE_SALARY = utf8("\n-------------------------------------------\nEARNINGS:\nBase Salary: ₹ ");
+    private static final byte[] HRA = utf8("\nHRA: ₹ ");
+    private static final byte[] ALLOWANCE = utf8("\nAllowance: ₹ ");
+    private static final byte[] GROSS_SALARY = utf8("\n-------------------------------------------\nGross Salary: ₹ ");
+    private static final byte[] INCOME_TAX = utf8("\n-------------------------------------------\nDEDUCTIONS:\nIncome Tax: ₹ ");
+    private static final byte[] PROVIDENT_FUND = utf8("\nProvident Fund (12%): ₹ ");
+    private static final byte[] HEALTH_INSURANCE = utf8("\nHealth Insurance: ₹ ");
+    private static final byte[] TOTAL_DEDUCTIONS = utf8("\n-------------------------------------------\nTotal Deductions: ₹ ");
+    private static final byte[] NET_SALARY = utf8("\n-------------------------------------------\nNET SALARY: ₹ ");
+    private static final byte[] FOOTER = utf8("\n==========================================\n");
+    private static final byte[] NULL = utf8("null");
+
+    private final byte[] lineSeparator = utf8(System.lineSeparator());
+    private final boolean asciiDigits;
+    private final byte decimalSeparator;
+    private byte[] buf;
+    private int count;
+
+    public PayslipRenderer() {
+        this(2048);
+    }
+
+    public PayslipRenderer(int initialCapacity) {
+        this.buf = new byte[Math.max(64, initialCapacity)];
+        // String.format("%.2f") uses the default locale's digits and decimal separator
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        this.asciiDigits = symbols.getZeroDigit() == '0' && symbols.getDecimalSeparator() < 0x80;
+        this.decimalSeparator = (byte) symbols.getDecimalSeparator();
+    }
+
+    /**
+     * Append a payslip exactly as formatPayslip returns it
+     */
+    public PayslipRenderer append(Payslip payslip) {
+        write(HEADER);
+        writeInt(payslip.getPayslipId());
+        write(EMPLOYEE_ID);
+        writeInt(payslip.getEmpId());
+        write(MONTH_YEAR);
+        writeInt(payslip.getMonth());
+        writeByte('/');
+        writeInt(payslip.getYear());
+        write(GENERATED_DATE);
+        writeDate(payslip.getGeneratedDate());
+        write(BASE_SALARY);
+        writeAmount(payslip.getBaseSalaryPaise());
+        write(HRA);
+        writeAmount(payslip.getHraPaise());
+        write(ALLOWANCE);
+        writeAmount(payslip.getAllowancePaise());
+        write(GROSS_SALARY);
+        writeAmount(payslip.getGrossSalaryPaise());
+        write(INCOME_TAX);
+        writeAmount(payslip.getIncomeTaxPaise());
+        write(PROVIDENT_FUND);
+        writeAmount(payslip.getProvidentFundPaise());
+        write(HEALTH_INSURANCE);
+        writeAmount(payslip.getHealthInsurancePaise());
+        write(TOTAL_DEDUCTIONS);
+        writeAmount(payslip.getTotalDeductionsPaise());
+        write(NET_SALARY);
+        writeAmount(payslip.getNetSalaryPaise());
+        write(FOOTER);
+        return this;
+    }
+
+    /**
+     * Append a payslip followed by the line separator, as printPayslip writes it
+     */
+    public PayslipRenderer appendLine(Payslip payslip) {
+        append(payslip);
+        write(lineSeparator);
+        return this;
+    }
+
+    /**
+     * The payslip as a String, equal to formatPayslip's result
+     */
+    public String render(Payslip payslip) {
+        reset();
+        append(payslip);
+        return toString();
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    /**
+     * View of the rendered bytes; valid until the next append or reset
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(buf, 0, count);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buf, 0, count, StandardCharsets.UTF_8);
+    }
+
+    private void writeAmount(long paise) {
+        // Negative amounts never occur on a payslip; leave the locale's minus sign to String.format
+        if (!asciiDigits || paise < 0) {
+            write(utf8(Money.format(paise)));
+            return;
+        }
+        writeLong(paise / 100);
+        ensureCapacity(3);
+        long fraction = paise % 100;
+        buf[count++] = decimalSeparator;
+        buf[count++] = (byte) ('0' + fraction / 10);
+        buf[count++] = (byte) ('0' + fraction % 10);
+    }
+
+    private void writeDate(LocalDate date) {
+        if (date == null) {
+            write(NULL);
+            return;
+        }
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            write(utf8(date.toString()));
+            return;
+        }
+        ensureCapacity(10);
+        writeDigits(year, 4);
+        buf[count++] = '-';
+        writeDigits(date.getMonthValue(), 2);
+        buf[count++] = '-';
+        writeDigits(date.getDayOfMonth(), 2);
+    }
+
+    private void writeDigits(int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            buf[count + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += width;
+    }
+
+    private void writeInt(int value) {
+        writeLong(value);
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            write(utf8(Long.toString(value)));
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buf[count++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (int i = count + digits - 1; i >= count; i--) {
+            buf[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += digits;
+    }
+
+    private void writeByte(char c) {
+        ensureCapacity(1);
+        buf[count++] = (byte) c;
+    }
+
+    private void write(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buf, count, bytes.length);
+        count += bytes.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (count + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + extra));
+        }
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
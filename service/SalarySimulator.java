@@ -0,0 +1,108 @@
+package service;
+
+import model.PayrollTotals;
+import util.Money;
+
+import java.util.stream.IntStream;
+
+/**
+ * Runs the payslip formulas over a WorkforceSnapshot to price a salary change
+ * without touching the database. The snapshot is split into fixed-size chunks
+ * that are summed in parallel; each chunk is a single pass over primitive arrays.
+ */
+public class SalarySimulator {
+
+    private static final int CHUNK_SIZE = 16384;
+
+    // Layout of the per-chunk accumulator: baseline columns, then scenario columns
+    private static final int GROSS = 0;
+    private static final int TAX = 1;
+    private static final int PF = 2;
+    private static final int DEDUCTIONS = 3;
+    private static final int NET = 4;
+    private static final int COLUMNS = 5;
+
+    private final TaxEngine taxEngine;
+    private final long pfPercentage;
+    private final long healthInsurance;
+
+    /**
+     * @param pfPercentage    provident fund rate in micro-percent
+     * @param healthInsurance health insurance deduction in paise
+     */
+    public SalarySimulator(TaxEngine taxEngine, long pfPercentage, long healthInsurance) {
+        this.taxEngine = taxEngine;
+        this.pfPercentage = pfPercentage;
+        this.healthInsurance = healthInsurance;
+    }
+
+    /**
+     * Price a raise of raisePercent on base salary, HRA and allowance for one department
+     * (or everyone when department is null). Raised components are rounded to paise,
+     * as they would be when stored, and every total is exact.
+     */
+    public SimulationResult simulateRaise(WorkforceSnapshot snapshot, String department, double raisePercent) {
+        long start = System.currentTimeMillis();
+        int departmentCode = department == null ? -1 : snapshot.departmentCode(department);
+        long raise = Money.percentMicros(raisePercent);
+
+        long[] sums;
+        if (department != null && departmentCode < 0) {
+            sums = new long[2 * COLUMNS + 1];
+        } else {
+            int chunks = (snapshot.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            sums = IntStream.range(0, chunks).parallel()
+                    .mapToObj(chunk -> sumChunk(snapshot, chunk * CHUNK_SIZE,
+                            Math.min(snapshot.size(), (chunk + 1) * CHUNK_SIZE), departmentCode, raise))
+                    .reduce(new long[2 * COLUMNS + 1], SalarySimulator::add);
+        }
+
+        int employees = (int) sums[2 * COLUMNS];
+        PayrollTotals baseline = new PayrollTotals(department, employees, sums[GROSS], sums[TAX], sums[PF],
+                sums[DEDUCTIONS], sums[NET]);
+        PayrollTotals scenario = new PayrollTotals(department, employees, sums[COLUMNS + GROSS], sums[COLUMNS + TAX],
+                sums[COLUMNS + PF], sums[COLUMNS + DEDUCTIONS], sums[COLUMNS + NET]);
+        return new SimulationResult(department, raisePercent, baseline, scenario, System.currentTimeMillis() - start);
+    }
+
+    private long[] sumChunk(WorkforceSnapshot snapshot, int from, int to, int departmentCode, long raise) {
+        long[] base = snapshot.baseSalaries();
+        long[] hra = snapshot.hras();
+        long[] allowance = snapshot.allowances();
+        int[] codes = snapshot.departmentCodes();
+        long[] sums = new long[2 * COLUMNS + 1];
+
+        for (int i = from; i < to; i++) {
+            if (departmentCode >= 0 && codes[i] != departmentCode) {
+                continue;
+            }
+            accumulate(sums, 0, base[i] + hra[i] + allowance[i]);
+            accumulate(sums, COLUMNS, base[i] + Money.percentOf(base[i], raise) + hra[i] + Money.percentOf(hra[i], raise)
+                    + allowance[i] + Money.percentOf(allowance[i], raise));
+            sums[2 * COLUMNS]++;
+        }
+        return sums;
+    }
+
+    /**
+     * Same formulas as PayrollService.calculatePayslip
+     */
+    private void accumulate(long[] sums, int offset, long gross) {
+        long pf = Money.percentOf(gross, pfPercentage);
+        long tax = taxEngine.calculate(gross);
+        long deductions = tax + pf + healthInsurance;
+        sums[offset + GROSS] += gross;
+        sums[offset + TAX] += tax;
+        sums[offset + PF] += pf;
+        sums[offset + DEDUCTIONS] += deductions;
+        sums[offset + NET] += gross - deductions;
+    }
+
+    private static long[] add(long[] left, long[] right) {
+        long[] sum = new long[left.length];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = left[i] + right[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,86 @@
+package service;
+
+import model.PayrollTotals;
+
+/**
+ * Payroll cost of the current workforce compared with a what-if scenario
+ */
+public class SimulationResult {
+
+    private final String department;
+    private final double raisePercent;
+    private final PayrollTotals baseline;
+    private final PayrollTotals scenario;
+    private final long elapsedMillis;
+
+    public SimulationResult(String department, double raisePercent, PayrollTotals baseline,
+                            PayrollTotals scenario, long elapsedMillis) {
+        this.department = department;
+        this.raisePercent = raisePercent;
+        this.baseline = baseline;
+        this.scenario = scenario;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Department the raise applies to, or null for everyone
+     */
+    public String getDepartment() {
+        return department;
+    }
+
+    public double getRaisePercent() {
+        return raisePercent;
+    }
+
+    /**
+     * Totals for the employees receiving the raise, at current salaries
+     */
+    public PayrollTotals getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * Totals for the same employees after the raise
+     */
+    public PayrollTotals getScenario() {
+        return scenario;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getGrossDeltaPaise() {
+        return scenario.getTotalGrossPaise() - baseline.getTotalGrossPaise();
+    }
+
+    public long getIncomeTaxDeltaPaise() {
+        return scenario.getTotalIncomeTaxPaise() - baseline.getTotalIncomeTaxPaise();
+    }
+
+    public long getProvidentFundDeltaPaise() {
+        return scenario.getTotalProvidentFundPaise() - baseline.getTotalProvidentFundPaise();
+    }
+
+    public long getDeductionsDeltaPaise() {
+        return scenario.getTotalDeductionsPaise() - baseline.getTotalDeductionsPaise();
+    }
+
+    public long getNetDeltaPaise() {
+        return scenario.getTotalNetPaise() - baseline.getTotalNetPaise();
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationResult{" +
+                "department='" + department + '\'' +
+                ", raisePercent=" + raisePercent +
+                ", employees=" + baseline.getPayslipCount() +
+                ", grossDelta=" + getGrossDeltaPaise() +
+                ", incomeTaxDelta=" + getIncomeTaxDeltaPaise() +
+                ", providentFundDelta=" + getProvidentFundDeltaPaise() +
+                ", netDelta=" + getNetDeltaPaise() +
+                '}';
+    }
+}
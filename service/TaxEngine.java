@@ -0,0 +1,166 @@
+package service;
+
+import util.AppConfig;
+import util.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Progressive income tax over any number of slabs.
+ * Slab boundaries, rates and the tax accumulated up to each boundary are kept in
+ * primitive arrays, so a calculation is a binary search over the boundaries plus
+ * one multiply-add, with no allocation. Amounts are in paise and rates are
+ * percentages in micro-percent (see Money); the tax is exact before being rounded
+ * once to whole paise.
+ */
+public final class TaxEngine {
+
+    private static final long[] DEFAULT_LIMITS = {Money.ofRupees(300000), Money.ofRupees(500000)};
+    private static final long[] DEFAULT_RATES = {Money.parsePercent("0.05"), Money.parsePercent("0.10"), Money.parsePercent("0.20")};
+    private static final int SLAB_STRIDE = 3;
+    private static final BigDecimal PERCENT_DIVISOR = BigDecimal.valueOf(100 * Money.MICROS_PER_PERCENT);
+
+    private final long[] limits;
+    private final long[] rates;
+    private final long[] searchLimits;
+    // Per slab: lower bound, rate, tax accumulated below the lower bound as an
+    // unrounded amount * rate product (see Money.fromPercentProducts)
+    private final long[] slabTable;
+    private final long firstLimit;
+    private final long firstRate;
+
+    /**
+     * @param limits upper bound of every slab except the last in paise, strictly increasing
+     * @param rates  rate of each slab in micro-percent; one more than there are limits
+     */
+    public TaxEngine(long[] limits, long[] rates) {
+        if (rates.length != limits.length + 1) {
+            throw new IllegalArgumentException("Expected " + (limits.length + 1) + " tax rates but got " + rates.length);
+        }
+        for (int i = 0; i < limits.length; i++) {
+            if (limits[i] <= 0 || (i > 0 && limits[i] <= limits[i - 1])) {
+                throw new IllegalArgumentException("Tax slab limits must be positive and increasing");
+            }
+        }
+        for (long rate : rates) {
+            if (rate < 0) {
+                throw new IllegalArgumentException("Tax rates cannot be negative");
+            }
+        }
+
+        this.limits = limits.clone();
+        this.searchLimits = new long[Integer.highestOneBit(limits.length) << 1];
+        Arrays.fill(searchLimits, Long.MAX_VALUE);
+        System.arraycopy(limits, 0, searchLimits, 0, limits.length);
+        this.rates = rates.clone();
+        this.slabTable = new long[rates.length * SLAB_STRIDE];
+        slabTable[1] = rates[0];
+        try {
+            for (int i = 1; i < rates.length; i++) {
+                int row = i * SLAB_STRIDE;
+                int previous = row - SLAB_STRIDE;
+                slabTable[row] = limits[i - 1];
+                slabTable[row + 1] = rates[i];
+                slabTable[row + 2] = Math.addExact(slabTable[previous + 2],
+                        Math.multiplyExact(slabTable[row] - slabTable[previous], rates[i - 1]));
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Tax slab limits and rates are too large");
+        }
+        this.firstLimit = limits.length == 0 ? Long.MAX_VALUE : limits[0];
+        this.firstRate = rates[0];
+    }
+
+    /**
+     * Load slabs from payroll.tax.slab1.limit/rate, payroll.tax.slab2.limit/rate, ...
+     * The last slab has a rate and no limit. Falls back to the built-in slabs if none are configured.
+     */
+    public static TaxEngine fromConfig() {
+        List<Long> limits = new ArrayList<>();
+        List<Long> rates = new ArrayList<>();
+        for (int slab = 1; ; slab++) {
+            String rate = AppConfig.get("payroll.tax.slab" + slab + ".rate");
+            if (rate == null) {
+                break;
+            }
+            rates.add(Money.parsePercent(rate));
+            String limit = AppConfig.get("payroll.tax.slab" + slab + ".limit");
+            if (limit == null) {
+                break;
+            }
+            limits.add(Money.parse(limit));
+        }
+
+        if (rates.isEmpty()) {
+            return new TaxEngine(DEFAULT_LIMITS, DEFAULT_RATES);
+        }
+        if (rates.size() == limits.size()) {
+            throw new IllegalArgumentException("The last tax slab (payroll.tax.slab" + rates.size() + ") must not have a limit");
+        }
+        return new TaxEngine(toArray(limits), toArray(rates));
+    }
+
+    /**
+     * Income tax in paise on the gross salary in paise, rounded to whole paise
+     */
+    public long calculate(long grossSalary) {
+        if (grossSalary <= firstLimit) {
+            // Most salaries fall in the first slab, which needs no lookup
+            return Money.percentOf(grossSalary, firstRate);
+        }
+        int row = slabIndex(grossSalary) * SLAB_STRIDE;
+        long lower = slabTable[row];
+        long rate = slabTable[row + 1];
+        try {
+            return Money.fromPercentProducts(Math.addExact(slabTable[row + 2], Math.multiplyExact(grossSalary - lower, rate)));
+        } catch (ArithmeticException e) {
+            // Only for salaries in the tens of crores
+            return BigDecimal.valueOf(grossSalary - lower).multiply(BigDecimal.valueOf(rate))
+                    .add(BigDecimal.valueOf(slabTable[row + 2]))
+                    .divide(PERCENT_DIVISOR, 0, RoundingMode.HALF_UP).longValueExact();
+        }
+    }
+
+    /**
+     * Index of the first slab whose limit is at least the amount (the last slab if none is).
+     * searchLimits is padded to a power of two with Long.MAX_VALUE, so the loop runs a fixed
+     * number of times and the comparison can compile to a conditional move rather than a branch.
+     */
+    private int slabIndex(long amount) {
+        long[] bounds = searchLimits;
+        int base = 0;
+        for (int half = bounds.length >>> 1; half > 0; half >>>= 1) {
+            base = bounds[base + half - 1] < amount ? base + half : base;
+        }
+        return base;
+    }
+
+    public int getSlabCount() {
+        return rates.length;
+    }
+
+    private static long[] toArray(List<Long> values) {
+        long[] array = new long[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("TaxEngine{limits=[");
+        for (int i = 0; i < limits.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(Money.toDecimal(limits[i]));
+        }
+        sb.append("], rates=[");
+        for (int i = 0; i < rates.length; i++) {
+            sb.append(i > 0 ? ", " : "").append(BigDecimal.valueOf(rates[i], 6).stripTrailingZeros().toPlainString()).append('%');
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -0,0 +1,120 @@
+package service;
+
+import dao.EmployeeRepository;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only, column-oriented copy of the active workforce's salary data.
+ * Each column is a primitive array indexed by row, amounts in paise; department
+ * names are dictionary-encoded into small integer codes.
+ */
+public class WorkforceSnapshot {
+
+    private int size;
+    private int[] empIds;
+    private long[] baseSalaries;
+    private long[] hras;
+    private long[] allowances;
+    private int[] departmentCodes;
+    private String[] departments = new String[0];
+    private final Map<String, Integer> departmentIndex = new HashMap<>();
+
+    private WorkforceSnapshot(int capacity) {
+        empIds = new int[capacity];
+        baseSalaries = new long[capacity];
+        hras = new long[capacity];
+        allowances = new long[capacity];
+        departmentCodes = new int[capacity];
+    }
+
+    /**
+     * Load every active employee in one pass over the employees
+     */
+    public static WorkforceSnapshot load(EmployeeRepository employeeDAO) throws SQLException {
+        WorkforceSnapshot snapshot = new WorkforceSnapshot(1024);
+        employeeDAO.forEachActiveEmployee(employee -> snapshot.add(employee.getEmpId(), employee.getDepartment(),
+                employee.getBaseSalaryPaise(), employee.getHraPaise(), employee.getAllowancePaise()));
+        snapshot.trim();
+        return snapshot;
+    }
+
+    private void add(int empId, String department, long baseSalary, long hra, long allowance) {
+        if (size == empIds.length) {
+            int capacity = size * 2;
+            empIds = Arrays.copyOf(empIds, capacity);
+            baseSalaries = Arrays.copyOf(baseSalaries, capacity);
+            hras = Arrays.copyOf(hras, capacity);
+            allowances = Arrays.copyOf(allowances, capacity);
+            departmentCodes = Arrays.copyOf(departmentCodes, capacity);
+        }
+        empIds[size] = empId;
+        baseSalaries[size] = baseSalary;
+        hras[size] = hra;
+        allowances[size] = allowance;
+        departmentCodes[size] = encodeDepartment(department);
+        size++;
+    }
+
+    private int encodeDepartment(String department) {
+        Integer code = departmentIndex.get(department);
+        if (code == null) {
+            code = departments.length;
+            departments = Arrays.copyOf(departments, code + 1);
+            departments[code] = department;
+            departmentIndex.put(department, code);
+        }
+        return code;
+    }
+
+    private void trim() {
+        empIds = Arrays.copyOf(empIds, size);
+        baseSalaries = Arrays.copyOf(baseSalaries, size);
+        hras = Arrays.copyOf(hras, size);
+        allowances = Arrays.copyOf(allowances, size);
+        departmentCodes = Arrays.copyOf(departmentCodes, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Dictionary code of a department, or -1 if no active employee belongs to it
+     */
+    public int departmentCode(String department) {
+        Integer code = departmentIndex.get(department);
+        return code == null ? -1 : code;
+    }
+
+    public String departmentName(int code) {
+        return departments[code];
+    }
+
+    public int departmentCount() {
+        return departments.length;
+    }
+
+    int[] empIds() {
+        return empIds;
+    }
+
+    long[] baseSalaries() {
+        return baseSalaries;
+    }
+
+    long[] hras() {
+        return hras;
+    }
+
+    long[] allowances() {
+        return allowances;
+    }
+
+    int[] departmentCodes() {
+        return departmentCodes;
+    }
+}
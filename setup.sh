@@ -10,7 +10,7 @@ echo ""
 
 # Check if Java is installed
 if ! command -v java &> /dev/null; then
-    echo "❌ Java is not installed. Please install Java 8 or higher."
+    echo "❌ Java is not installed. Please install Java 21 or higher."
     exit 1
 fi
 
@@ -37,15 +37,15 @@ echo "   - Open MySQL and run:"
 echo "     mysql -u root -p < database_schema.sql"
 echo ""
 echo "2. Configure Database Connection:"
-echo "   - Edit util/DBConnection.java"
-echo "   - Update URL, USER, PASSWORD if needed"
+echo "   - Edit application.properties"
+echo "   - Update db.url, db.username, db.password if needed"
 echo ""
 echo "3. Add MySQL JDBC Driver:"
 echo "   - Download from: https://dev.mysql.com/downloads/connector/j/"
 echo "   - Add JAR to your classpath"
 echo ""
 echo "4. Compile Project:"
-echo "   javac -d . util/DBConnection.java model/Employee.java model/Payslip.java dao/EmployeeDAO.java dao/PayrollDAO.java dao/Payroll.java service/PayrollService.java PayrollManagementSystem.java"
+echo "   javac -d . */*.java PayrollManagementSystem.java"
 echo ""
 echo "5. Run Application:"
 echo "   java PayrollManagementSystem"
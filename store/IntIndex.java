@@ -0,0 +1,66 @@
+package store;
+
+import java.util.Arrays;
+
+/**
+ * Sorted map from int keys to int values in two parallel arrays, for in-memory secondary
+ * indexes (a month's payslips by emp_id, an employee's payslips by month). Keys added in
+ * ascending order are appended; others are inserted by shifting. Not thread-safe.
+ */
+public final class IntIndex {
+
+    private int[] keys = new int[4];
+    private int[] values = new int[4];
+    private int size;
+
+    /**
+     * Add a key, unless it is already present
+     *
+     * @return false if the key was already present
+     */
+    public boolean put(int key, int value) {
+        int at = size == 0 || key > keys[size - 1] ? -size - 1 : Arrays.binarySearch(keys, 0, size, key);
+        if (at >= 0) {
+            return false;
+        }
+        at = -at - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(values, at, values, at + 1, size - at);
+        keys[at] = key;
+        values[at] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Value of the key, or -1 if it is not present
+     */
+    public int get(int key) {
+        int at = Arrays.binarySearch(keys, 0, size, key);
+        return at >= 0 ? values[at] : -1;
+    }
+
+    /**
+     * Position of the greatest key below the given one, or -1 if there is none
+     */
+    public int lowerPosition(int key) {
+        int at = Arrays.binarySearch(keys, 0, size, key);
+        return (at >= 0 ? at : -at - 1) - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int keyAt(int position) {
+        return keys[position];
+    }
+
+    public int valueAt(int position) {
+        return values[position];
+    }
+}
@@ -0,0 +1,188 @@
+package store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A table of records with dense int IDs: every version of a record is appended to NAME.log and
+ * NAME.idx maps each ID to its latest version. The first 8 bytes of an index entry hold the
+ * record's offset plus one (0 for no record); the owner of the table may use the rest of the
+ * entry for fields it wants without reading the record.
+ *
+ * On open the table recovers from a crash: the log is scanned from the index checkpoint, a
+ * frame cut short by the crash is truncated away and the records after the checkpoint are
+ * indexed again through the Indexer. If the log had to be truncated, or an entry points past
+ * its end, the whole index is rebuilt from the log.
+ */
+public final class LogTable implements Closeable {
+
+    private static final int OFFSET = 0;
+
+    private final RecordLog log;
+    private final MappedIndex index;
+    private final long checkpointBytes;
+
+    private LogTable(RecordLog log, MappedIndex index, long checkpointBytes) {
+        this.log = log;
+        this.index = index;
+        this.checkpointBytes = checkpointBytes;
+    }
+
+    /**
+     * Open (and if needed recover) the table in a directory
+     *
+     * @param entryWidth bytes per index entry, at least 8
+     * @param sync force each append to disk before it returns
+     * @param checkpointBytes how much log may be written between index checkpoints
+     * @param indexer indexes the records redone from the log
+     */
+    public static LogTable open(Path directory, String name, int entryWidth, boolean sync, long checkpointBytes,
+                                Indexer indexer) throws IOException {
+        if (entryWidth < 8) {
+            throw new IllegalArgumentException("Index entries must be at least 8 bytes wide");
+        }
+        Files.createDirectories(directory);
+        RecordLog log = RecordLog.open(directory.resolve(name + ".log"), sync);
+        MappedIndex index;
+        try {
+            index = MappedIndex.open(directory.resolve(name + ".idx"), entryWidth);
+        } catch (IOException e) {
+            log.close();
+            throw e;
+        }
+        LogTable table = new LogTable(log, index, checkpointBytes);
+        try {
+            table.recover(indexer);
+        } catch (IOException | RuntimeException e) {
+            table.close();
+            throw e;
+        }
+        return table;
+    }
+
+    private void recover(Indexer indexer) throws IOException {
+        long from = index.checkpoint();
+        if (from > log.size()) {
+            index.reset();
+            from = 0;
+        }
+        RecordLog.Visitor redo = (offset, record) -> indexer.index(this, offset, record);
+        long end = log.scan(from, redo);
+        if (end < log.size()) {
+            System.err.println("Embedded storage: dropping " + (log.size() - end)
+                    + " bytes of incomplete writes at the end of the log");
+            log.truncate(end);
+            rebuild(redo);
+        } else if (!entriesWithin(end)) {
+            rebuild(redo);
+        }
+        log.force();
+        index.checkpoint(log.size());
+    }
+
+    private void rebuild(RecordLog.Visitor redo) throws IOException {
+        index.reset();
+        log.scan(0, redo);
+    }
+
+    /**
+     * Whether every entry points at a record inside the first end bytes of the log
+     */
+    private boolean entriesWithin(long end) {
+        for (int id = 0; id < index.capacity(); id++) {
+            if (index.getLong(id, OFFSET) > end) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Append records in one frame, all or nothing. The caller indexes them afterwards with
+     * setOffset and the other put methods, then calls appended.
+     *
+     * @return the offset of each record
+     */
+    public long[] append(List<byte[]> records) throws IOException {
+        return log.append(records);
+    }
+
+    /**
+     * Checkpoint the index once enough log has been written since the last checkpoint
+     */
+    public void appended() throws IOException {
+        if (log.size() - index.checkpoint() >= checkpointBytes) {
+            // The checkpoint must not get ahead of what is on disk
+            log.force();
+            index.checkpoint(log.size());
+        }
+    }
+
+    /**
+     * Read the record at an offset
+     */
+    public ByteBuffer read(long offset) throws IOException {
+        return log.read(offset);
+    }
+
+    /**
+     * Offset of the latest version of the record with the ID, or -1 if there is none
+     */
+    public long offsetOf(int id) {
+        return index.getLong(id, OFFSET) - 1;
+    }
+
+    public void setOffset(int id, long offset) throws IOException {
+        index.putLong(id, OFFSET, offset + 1);
+    }
+
+    public int getInt(int id, int field) {
+        return index.getInt(id, field);
+    }
+
+    public void putInt(int id, int field, int value) throws IOException {
+        index.putInt(id, field, value);
+    }
+
+    /**
+     * Number of IDs the index has room for; no ID from capacity() on has a record
+     */
+    public int capacity() {
+        return index.capacity();
+    }
+
+    /**
+     * Length of the log in bytes
+     */
+    public long logSize() {
+        return log.size();
+    }
+
+    /**
+     * Checkpoint the index and close both files
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            log.force();
+            index.checkpoint(log.size());
+        } finally {
+            try {
+                index.close();
+            } finally {
+                log.close();
+            }
+        }
+    }
+
+    /**
+     * Updates the index for a record read back from the log
+     */
+    public interface Indexer {
+        void index(LogTable table, long offset, ByteBuffer record) throws IOException;
+    }
+}
@@ -0,0 +1,163 @@
+package store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped file of fixed-width entries addressed by a dense int ID (entry N at
+ * HEADER + N * width), so a lookup is one read from the page cache. The header records the
+ * log length up to which the entries are known to be on disk (the checkpoint); entries for
+ * records after it are redone from the log on open. The file grows by doubling.
+ * Single writer; readers may run concurrently with it.
+ */
+public final class MappedIndex implements Closeable {
+
+    private static final int MAGIC = 0x50594958; // "PYIX"
+    private static final int VERSION = 1;
+    private static final int HEADER = 64;
+    private static final int CHECKPOINT = 16;
+    private static final int INITIAL_ENTRIES = 1024;
+
+    private final Path file;
+    private final int width;
+    private FileChannel channel;
+    private volatile MappedByteBuffer buffer;
+    private volatile int capacity;
+
+    private MappedIndex(Path file, int width) throws IOException {
+        this.file = file;
+        this.width = width;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Open the index, creating it if needed. A file with another layout or a damaged header is
+     * reset to empty, with a checkpoint of 0, so it is rebuilt from the whole log.
+     */
+    public static MappedIndex open(Path file, int width) throws IOException {
+        MappedIndex index = new MappedIndex(file, width);
+        try {
+            long length = index.channel.size();
+            // The header is checked before mapping, so a file that is replaced was never mapped
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            if (length < HEADER + (long) width || (length - HEADER) % width != 0
+                    || index.channel.read(header, 0) < HEADER
+                    || header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != width) {
+                index.reset();
+            } else {
+                index.map((int) ((length - HEADER) / width));
+            }
+        } catch (IOException | RuntimeException e) {
+            index.close();
+            throw e;
+        }
+        return index;
+    }
+
+    private void map(int entries) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) entries * width);
+        capacity = entries;
+    }
+
+    /**
+     * Drop every entry and the checkpoint, while no reader uses the index. An empty index is
+     * written next to the file and renamed over it, rather than truncating a file that may
+     * still be mapped, which some platforms refuse.
+     */
+    public void reset() throws IOException {
+        Path fresh = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(fresh, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, width).putLong(CHECKPOINT, 0);
+            out.write(header, 0);
+            // Writing the last byte extends the file with zeros: empty entries
+            out.write(ByteBuffer.allocate(1), HEADER + (long) INITIAL_ENTRIES * width - 1);
+            out.force(true);
+        }
+        buffer = null;
+        capacity = 0;
+        channel.close();
+        Files.move(fresh, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map(INITIAL_ENTRIES);
+    }
+
+    /**
+     * Number of IDs the file has room for; every entry from capacity() on is empty
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Make room for the ID
+     */
+    public void ensureCapacity(int id) throws IOException {
+        if (id >= capacity) {
+            int entries = capacity;
+            while (entries <= id) {
+                entries = Math.multiplyExact(entries, 2);
+            }
+            if (HEADER + (long) entries * width > Integer.MAX_VALUE) {
+                throw new IOException("Index is full at ID " + id);
+            }
+            buffer.force();
+            map(entries);
+        }
+    }
+
+    public long getLong(int id, int field) {
+        return id < capacity ? buffer.getLong(position(id, field)) : 0;
+    }
+
+    public int getInt(int id, int field) {
+        return id < capacity ? buffer.getInt(position(id, field)) : 0;
+    }
+
+    public void putLong(int id, int field, long value) throws IOException {
+        ensureCapacity(id);
+        buffer.putLong(position(id, field), value);
+    }
+
+    public void putInt(int id, int field, int value) throws IOException {
+        ensureCapacity(id);
+        buffer.putInt(position(id, field), value);
+    }
+
+    private int position(int id, int field) {
+        return HEADER + id * width + field;
+    }
+
+    /**
+     * Log length up to which the entries are on disk
+     */
+    public long checkpoint() {
+        return buffer.getLong(CHECKPOINT);
+    }
+
+    /**
+     * Force the entries to disk, then record the log length they cover
+     */
+    public void checkpoint(long logLength) {
+        buffer.force();
+        buffer.putLong(CHECKPOINT, logLength);
+        buffer.force(0, HEADER);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+        }
+        channel.close();
+    }
+}
@@ -0,0 +1,194 @@
+package store;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of records. Each append writes one frame holding one or more records:
+ * the payload length, a CRC32 of the payload, then every record as its length and bytes.
+ * A frame is only ever read back whole with a matching checksum, so a batch written in one
+ * append survives a crash all or nothing.
+ * Records are addressed by the file offset of their length, which never changes; reading
+ * them is thread-safe, appending is serialised.
+ */
+public final class RecordLog implements Closeable {
+
+    private static final int FRAME_HEADER = 8;
+    private static final int READ_AHEAD = 256;
+
+    private final FileChannel channel;
+    private final boolean sync;
+    private volatile long size;
+
+    private RecordLog(FileChannel channel, boolean sync) throws IOException {
+        this.channel = channel;
+        this.sync = sync;
+        this.size = channel.size();
+    }
+
+    /**
+     * Open the log, creating it if needed. With sync, every append is forced to disk before it returns.
+     */
+    public static RecordLog open(Path file, boolean sync) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        return new RecordLog(channel, sync);
+    }
+
+    /**
+     * Length of the log in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Append the records in one frame
+     *
+     * @return the offset of each record
+     */
+    public synchronized long[] append(List<byte[]> records) throws IOException {
+        int payload = 0;
+        for (byte[] record : records) {
+            payload += 4 + record.length;
+        }
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + payload);
+        frame.position(FRAME_HEADER);
+        long[] offsets = new long[records.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = size + frame.position();
+            frame.putInt(records.get(i).length).put(records.get(i));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(frame.array(), FRAME_HEADER, payload);
+        frame.putInt(0, payload).putInt(4, (int) crc.getValue());
+        frame.flip();
+
+        long position = size;
+        try {
+            while (frame.hasRemaining()) {
+                position += channel.write(frame, position);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            // Cut off the partial frame so later appends do not land behind it
+            try {
+                channel.truncate(size);
+            } catch (IOException truncateError) {
+                e.addSuppressed(truncateError);
+            }
+            throw e;
+        }
+        size = position;
+        return offsets;
+    }
+
+    /**
+     * Read the record at an offset returned by append or passed to a Visitor
+     */
+    public ByteBuffer read(long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_AHEAD);
+        readFully(buffer, offset, 4);
+        int length = buffer.getInt(0);
+        if (length < 0 || offset + 4 + length > size) {
+            throw new IOException("No record at offset " + offset);
+        }
+        if (4 + length > buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(4 + length);
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        readFully(buffer, offset, 4 + length);
+        return buffer.limit(4 + length).position(4).slice();
+    }
+
+    private void readFully(ByteBuffer buffer, long offset, int length) throws IOException {
+        while (buffer.position() < length) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Log ends before offset " + (offset + length));
+            }
+        }
+    }
+
+    /**
+     * Pass every record of the whole frames from the offset on to the visitor, stopping at the
+     * end of the file or at a frame that is cut short or fails its checksum
+     *
+     * @return the offset just past the last good frame
+     */
+    public long scan(long from, Visitor visitor) throws IOException {
+        long position = from;
+        CRC32 crc = new CRC32();
+        InputStream stream = Channels.newInputStream(channel.position(from));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+        byte[] payload = new byte[0];
+        while (size - position >= FRAME_HEADER) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length < 0 || length > size - position - FRAME_HEADER) {
+                break;
+            }
+            if (payload.length < length) {
+                payload = new byte[length];
+            }
+            in.readFully(payload, 0, length);
+            crc.reset();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            ByteBuffer frame = ByteBuffer.wrap(payload, 0, length);
+            while (frame.hasRemaining()) {
+                int recordLength = frame.getInt();
+                long offset = position + FRAME_HEADER + frame.position() - 4;
+                ByteBuffer record = frame.slice(frame.position(), recordLength);
+                frame.position(frame.position() + recordLength);
+                visitor.record(offset, record);
+            }
+            position += FRAME_HEADER + length;
+        }
+        return position;
+    }
+
+    /**
+     * Cut the log back to a length, dropping everything after it
+     */
+    public synchronized void truncate(long length) throws IOException {
+        channel.truncate(length);
+        channel.force(true);
+        size = length;
+    }
+
+    /**
+     * Force appended records to disk
+     */
+    public void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Receives the records found by scan, in log order
+     */
+    public interface Visitor {
+        void record(long offset, ByteBuffer record) throws IOException;
+    }
+}
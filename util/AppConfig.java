@@ -0,0 +1,115 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Application configuration loaded once from application.properties.
+ * The file is looked up at the path given by the app.config system property,
+ * then in the working directory, then on the classpath. System properties
+ * with the same key override values from the file.
+ */
+public final class AppConfig {
+
+    private static final String DEFAULT_FILE = "application.properties";
+    private static final Properties PROPERTIES = load();
+
+    private AppConfig() {
+    }
+
+    private static Properties load() {
+        Properties props = new Properties();
+        Path path = Paths.get(System.getProperty("app.config", DEFAULT_FILE));
+        try {
+            if (Files.isReadable(path)) {
+                try (InputStream in = Files.newInputStream(path)) {
+                    props.load(in);
+                }
+            } else {
+                try (InputStream in = AppConfig.class.getClassLoader().getResourceAsStream(DEFAULT_FILE)) {
+                    if (in != null) {
+                        props.load(in);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading " + path + ": " + e.getMessage());
+        }
+        return props;
+    }
+
+    /**
+     * Get a configuration value, or the default if it is not set
+     */
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = PROPERTIES.getProperty(key);
+        }
+        return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+    }
+
+    /**
+     * Get a configuration value, or null if it is not set
+     */
+    public static String get(String key) {
+        return get(key, null);
+    }
+
+    /**
+     * Get all values whose key starts with the prefix, keyed by the remainder of the key
+     */
+    public static Properties getWithPrefix(String prefix) {
+        Properties result = new Properties();
+        for (String key : PROPERTIES.stringPropertyNames()) {
+            if (key.startsWith(prefix)) {
+                result.setProperty(key.substring(prefix.length()), PROPERTIES.getProperty(key).trim());
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith(prefix)) {
+                result.setProperty(key.substring(prefix.length()), System.getProperty(key).trim());
+            }
+        }
+        return result;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid integer for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = get(key);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
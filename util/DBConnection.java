@@ -1,20 +1,95 @@
 package util;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Bounded JDBC connection pool.
+ * Connections handed out by getConnection() go back to the pool when closed,
+ * so DAO code keeps using try-with-resources exactly as before.
+ * Keys of the form db.property.&lt;name&gt; are passed to the driver as connection properties.
+ * Each pooled connection keeps up to db.statementCache.size prepared statements open across
+ * leases (see StatementCache), and db.serverPrepare has MySQL prepare them server-side.
+ */
 public class DBConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/payroll_db";
-    private static final String USER = "root";
-    private static final String PASSWORD = "root";
+    private static final String URL = AppConfig.get("db.url", "jdbc:mysql://localhost:3306/payroll_db");
+    private static final String USER = AppConfig.get("db.username", "root");
+    private static final String PASSWORD = AppConfig.get("db.password", "root");
+    private static final String DRIVER = AppConfig.get("db.driver", "com.mysql.cj.jdbc.Driver");
 
+    private static final int MAX_POOL_SIZE = Math.max(1, AppConfig.getInt("db.pool.maxSize", 10));
+    private static final long CONNECTION_TIMEOUT_MS = AppConfig.getLong("db.pool.connectionTimeoutMs", 30000);
+    private static final long IDLE_TIMEOUT_MS = AppConfig.getLong("db.pool.idleTimeoutMs", 600000);
+    private static final long VALIDATION_INTERVAL_MS = AppConfig.getLong("db.pool.validationIntervalMs", 30000);
+    private static final int VALIDATION_TIMEOUT_SECONDS = AppConfig.getInt("db.pool.validationTimeoutSeconds", 2);
+    private static final int STATEMENT_CACHE_SIZE = Math.max(0, AppConfig.getInt("db.statementCache.size", 64));
+    private static final boolean SERVER_PREPARE = Boolean.parseBoolean(AppConfig.get("db.serverPrepare", "true"));
+
+    private static final Semaphore PERMITS = new Semaphore(MAX_POOL_SIZE, true);
+    private static final LinkedBlockingDeque<PooledConnection> IDLE = new LinkedBlockingDeque<>();
+
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+    private static final AtomicLong CREATED = new AtomicLong();
+    private static final AtomicLong DESTROYED = new AtomicLong();
+    private static final AtomicLong TIMEOUTS = new AtomicLong();
+    private static final LongAdder ACQUISITIONS = new LongAdder();
+    private static final LongAdder TOTAL_WAIT_NANOS = new LongAdder();
+    private static final AtomicLong MAX_WAIT_NANOS = new AtomicLong();
+    // Time to hand out a connection, including any wait for a permit and opening a new physical connection
+    private static final DaoMetrics.Operation ACQUIRE = DaoMetrics.operation("DBConnection.getConnection");
+
+    private static volatile boolean driverLoaded;
+    private static volatile boolean shutdown;
+
+    /**
+     * Borrow a connection from the pool, waiting up to the configured timeout
+     */
     public static Connection getConnection() throws SQLException {
+        if (shutdown) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        loadDriver();
+
+        long start = System.nanoTime();
+        try {
+            if (!PERMITS.tryAcquire(CONNECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                TIMEOUTS.incrementAndGet();
+                ACQUIRE.failure(start);
+                throw new SQLTransientConnectionException("Timed out after " + CONNECTION_TIMEOUT_MS
+                        + "ms waiting for a database connection (pool size " + MAX_POOL_SIZE + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(URL, USER, PASSWORD);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("MySQL Driver not found", e);
+            PooledConnection pooled = takeIdleConnection();
+            if (pooled == null) {
+                pooled = new PooledConnection(openPhysicalConnection());
+            }
+            ACTIVE.incrementAndGet();
+            Connection lease = pooled.lease();
+            ACQUIRE.success(start, 0);
+            return lease;
+        } catch (SQLException | RuntimeException e) {
+            PERMITS.release();
+            ACQUIRE.failure(start);
+            throw e;
         }
     }
 
@@ -27,4 +102,323 @@ public class DBConnection {
             }
         }
     }
+
+    /**
+     * Maximum number of connections the pool will open
+     */
+    public static int getMaxPoolSize() {
+        return MAX_POOL_SIZE;
+    }
+
+    /**
+     * Snapshot of the pool counters
+     */
+    public static PoolStats getPoolStats() {
+        return new PoolStats(ACTIVE.get(), IDLE.size(), MAX_POOL_SIZE, CREATED.get(), DESTROYED.get(),
+                ACQUISITIONS.sum(), TIMEOUTS.get(), TOTAL_WAIT_NANOS.sum(), MAX_WAIT_NANOS.get(),
+                StatementCache.getHits(), StatementCache.getMisses(), StatementCache.getEvictions());
+    }
+
+    /**
+     * Close all idle connections and refuse new requests.
+     * Connections still in use are closed when they are returned.
+     */
+    public static void shutdown() {
+        shutdown = true;
+        PooledConnection pooled;
+        while ((pooled = IDLE.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    private static void loadDriver() throws SQLException {
+        if (!driverLoaded) {
+            try {
+                Class.forName(DRIVER);
+                driverLoaded = true;
+            } catch (ClassNotFoundException e) {
+                throw new SQLException("MySQL Driver not found", e);
+            }
+        }
+    }
+
+    private static Connection openPhysicalConnection() throws SQLException {
+        Properties props = AppConfig.getWithPrefix("db.property.");
+        props.setProperty("user", USER);
+        props.setProperty("password", PASSWORD);
+        // An explicit db.property.useServerPrepStmts wins over db.serverPrepare
+        props.putIfAbsent("useServerPrepStmts", String.valueOf(SERVER_PREPARE));
+        Connection connection = DriverManager.getConnection(URL, props);
+        CREATED.incrementAndGet();
+        return connection;
+    }
+
+    /**
+     * Take the most recently used idle connection, validating it if it has been idle for a while
+     */
+    private static PooledConnection takeIdleConnection() {
+        PooledConnection pooled;
+        while ((pooled = IDLE.pollFirst()) != null) {
+            long idleMillis = System.currentTimeMillis() - pooled.lastReturned;
+            if (idleMillis > IDLE_TIMEOUT_MS) {
+                destroy(pooled);
+            } else if (idleMillis > VALIDATION_INTERVAL_MS && !isValid(pooled.physical)) {
+                destroy(pooled);
+            } else {
+                return pooled;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void release(PooledConnection pooled) {
+        try {
+            if (shutdown || !resetState(pooled.physical)) {
+                destroy(pooled);
+            } else {
+                pooled.lastReturned = System.currentTimeMillis();
+                IDLE.offerFirst(pooled);
+                evictExpiredIdle();
+            }
+        } finally {
+            ACTIVE.decrementAndGet();
+            PERMITS.release();
+        }
+    }
+
+    /**
+     * Roll back anything left uncommitted and restore autocommit before reuse
+     */
+    private static boolean resetState(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Discarding pooled connection: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void evictExpiredIdle() {
+        PooledConnection oldest;
+        while ((oldest = IDLE.peekLast()) != null
+                && System.currentTimeMillis() - oldest.lastReturned > IDLE_TIMEOUT_MS) {
+            if (IDLE.removeLastOccurrence(oldest)) {
+                destroy(oldest);
+            }
+        }
+    }
+
+    private static void destroy(PooledConnection pooled) {
+        DESTROYED.incrementAndGet();
+        if (pooled.statements != null) {
+            pooled.statements.clear();
+        }
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing connection: " + e.getMessage());
+        }
+    }
+
+    private static void recordWait(long waitNanos) {
+        ACQUISITIONS.increment();
+        TOTAL_WAIT_NANOS.add(waitNanos);
+        long max;
+        while (waitNanos > (max = MAX_WAIT_NANOS.get()) && !MAX_WAIT_NANOS.compareAndSet(max, waitNanos)) {
+            // retry until the maximum is updated
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool
+     */
+    private static final class PooledConnection {
+        private final Connection physical;
+        // Null when statement caching is disabled
+        private final StatementCache statements;
+        private volatile long lastReturned = System.currentTimeMillis();
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = STATEMENT_CACHE_SIZE > 0 ? new StatementCache(physical, STATEMENT_CACHE_SIZE) : null;
+        }
+
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(DBConnection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, new Lease(this));
+        }
+    }
+
+    /**
+     * Handle given to callers; close() returns the physical connection to the pool
+     */
+    private static final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + (closed ? ", returned]" : "]");
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (pooled.statements != null && StatementCache.isCacheable(method)) {
+                return pooled.statements.prepare(method, args);
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Point-in-time view of pool usage
+     */
+    public static final class PoolStats {
+        private final int active;
+        private final int idle;
+        private final int maxSize;
+        private final long created;
+        private final long destroyed;
+        private final long acquisitions;
+        private final long timeouts;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long statementHits;
+        private final long statementMisses;
+        private final long statementEvictions;
+
+        private PoolStats(int active, int idle, int maxSize, long created, long destroyed,
+                          long acquisitions, long timeouts, long totalWaitNanos, long maxWaitNanos,
+                          long statementHits, long statementMisses, long statementEvictions) {
+            this.active = active;
+            this.idle = idle;
+            this.maxSize = maxSize;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.acquisitions = acquisitions;
+            this.timeouts = timeouts;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+            this.statementEvictions = statementEvictions;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+
+        public long getDestroyed() {
+            return destroyed;
+        }
+
+        public long getAcquisitions() {
+            return acquisitions;
+        }
+
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        public double getAverageWaitMillis() {
+            return acquisitions == 0 ? 0.0 : totalWaitNanos / (double) acquisitions / 1_000_000.0;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1_000_000.0;
+        }
+
+        /**
+         * prepareStatement calls served by an already prepared statement
+         */
+        public long getStatementCacheHits() {
+            return statementHits;
+        }
+
+        /**
+         * prepareStatement calls that had to prepare a new statement
+         */
+        public long getStatementCacheMisses() {
+            return statementMisses;
+        }
+
+        public long getStatementCacheEvictions() {
+            return statementEvictions;
+        }
+
+        public double getStatementCacheHitRate() {
+            long total = statementHits + statementMisses;
+            return total == 0 ? 0.0 : (double) statementHits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "PoolStats{" +
+                    "active=" + active +
+                    ", idle=" + idle +
+                    ", maxSize=" + maxSize +
+                    ", created=" + created +
+                    ", destroyed=" + destroyed +
+                    ", acquisitions=" + acquisitions +
+                    ", timeouts=" + timeouts +
+                    ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis()) +
+                    ", maxWaitMs=" + String.format("%.3f", getMaxWaitMillis()) +
+                    ", statementHits=" + statementHits +
+                    ", statementMisses=" + statementMisses +
+                    ", statementHitRate=" + String.format("%.1f%%", getStatementCacheHitRate() * 100) +
+                    ", statementEvictions=" + statementEvictions +
+                    '}';
+        }
+    }
 }
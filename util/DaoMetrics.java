@@ -0,0 +1,278 @@
+package util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Latency and row counters for DAO calls and connection acquisition.
+ * Each DAO method records into an Operation it registered once in a static field,
+ * so a call costs two System.nanoTime() reads and a few atomic increments, with no
+ * lookup or allocation. Calls slower than metrics.slowQueryThresholdMs are logged
+ * to System.err. Set metrics.enabled=false to turn recording off entirely.
+ */
+public final class DaoMetrics {
+
+    private static final boolean ENABLED = AppConfig.getBoolean("metrics.enabled", true);
+    private static final String JMX_NAME = "payroll:type=DaoMetrics";
+
+    private static final ConcurrentMap<String, Operation> OPERATIONS = new ConcurrentHashMap<>();
+    private static volatile long slowQueryThresholdNanos = AppConfig.getLong("metrics.slowQueryThresholdMs", 500) * 1_000_000L;
+
+    static {
+        if (ENABLED && AppConfig.getBoolean("metrics.jmx.enabled", true)) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new Jmx(), new ObjectName(JMX_NAME));
+            } catch (JMException e) {
+                System.err.println("Could not register DAO metrics MBean: " + e.getMessage());
+            }
+        }
+    }
+
+    private DaoMetrics() {
+    }
+
+    /**
+     * The operation with the given name, created on first use.
+     * Intended to be called once per method and kept in a static final field.
+     */
+    public static Operation operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, Operation::new);
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Snapshot of every operation that has been called at least once, slowest total time first
+     */
+    public static List<OperationStats> getStats() {
+        List<OperationStats> stats = new ArrayList<>();
+        for (Operation operation : OPERATIONS.values()) {
+            if (operation.latency.getCount() > 0) {
+                stats.add(operation.snapshot());
+            }
+        }
+        stats.sort((a, b) -> Double.compare(b.getTotalMillis(), a.getTotalMillis()));
+        return stats;
+    }
+
+    public static long getSlowQueryThresholdMillis() {
+        return slowQueryThresholdNanos / 1_000_000L;
+    }
+
+    public static void setSlowQueryThresholdMillis(long thresholdMillis) {
+        slowQueryThresholdNanos = Math.max(0, thresholdMillis) * 1_000_000L;
+    }
+
+    public static void reset() {
+        for (Operation operation : OPERATIONS.values()) {
+            operation.reset();
+        }
+    }
+
+    /**
+     * Table of all recorded operations, latencies in milliseconds
+     */
+    public static String report() {
+        List<OperationStats> stats = getStats();
+        if (stats.isEmpty()) {
+            return ENABLED ? "No DAO calls recorded yet." : "DAO metrics are disabled (metrics.enabled=false).";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-44s %9s %6s %10s %9s %9s %9s %9s %9s%n",
+                "Operation", "Calls", "Errors", "Rows", "Mean", "p50", "p99", "p99.9", "Max"));
+        for (OperationStats s : stats) {
+            sb.append(String.format("%-44s %9d %6d %10d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    s.getName(), s.getCalls(), s.getErrors(), s.getRows(), s.getMeanMillis(),
+                    s.getP50Millis(), s.getP99Millis(), s.getP999Millis(), s.getMaxMillis()));
+        }
+        sb.append("Latencies in ms; slow-query threshold ").append(getSlowQueryThresholdMillis()).append(" ms");
+        return sb.toString();
+    }
+
+    /**
+     * Counters for one DAO method or pool operation
+     */
+    public static final class Operation {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        private Operation(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Start time to pass to success or failure
+         */
+        public long start() {
+            return ENABLED ? System.nanoTime() : 0L;
+        }
+
+        /**
+         * Record a completed call and the rows it returned or changed
+         */
+        public void success(long start, long rowCount) {
+            if (ENABLED) {
+                rows.add(rowCount);
+                record(System.nanoTime() - start, rowCount);
+            }
+        }
+
+        /**
+         * Record a call that ended with an exception
+         */
+        public void failure(long start) {
+            if (ENABLED) {
+                errors.increment();
+                record(System.nanoTime() - start, -1);
+            }
+        }
+
+        private void record(long elapsedNanos, long rowCount) {
+            latency.record(elapsedNanos);
+            long threshold = slowQueryThresholdNanos;
+            if (threshold > 0 && elapsedNanos >= threshold) {
+                System.err.println(String.format("Slow DAO call: %s took %.1f ms (%s)", name, elapsedNanos / 1_000_000.0,
+                        rowCount < 0 ? "failed" : rowCount + " rows"));
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        private OperationStats snapshot() {
+            return new OperationStats(name, latency.getCount(), errors.sum(), rows.sum(), latency.getTotalNanos(),
+                    latency.getPercentileNanos(50), latency.getPercentileNanos(99), latency.getPercentileNanos(99.9),
+                    latency.getMaxNanos());
+        }
+
+        private void reset() {
+            latency.reset();
+            errors.reset();
+            rows.reset();
+        }
+    }
+
+    /**
+     * Point-in-time view of an operation's counters
+     */
+    public static final class OperationStats {
+        private final String name;
+        private final long calls;
+        private final long errors;
+        private final long rows;
+        private final long totalNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long p999Nanos;
+        private final long maxNanos;
+
+        private OperationStats(String name, long calls, long errors, long rows, long totalNanos,
+                               long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+            this.name = name;
+            this.calls = calls;
+            this.errors = errors;
+            this.rows = rows;
+            this.totalNanos = totalNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.p999Nanos = p999Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Rows returned by queries or changed by updates
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        public double getTotalMillis() {
+            return totalNanos / 1_000_000.0;
+        }
+
+        public double getMeanMillis() {
+            return calls == 0 ? 0.0 : totalNanos / (double) calls / 1_000_000.0;
+        }
+
+        public double getP50Millis() {
+            return p50Nanos / 1_000_000.0;
+        }
+
+        public double getP99Millis() {
+            return p99Nanos / 1_000_000.0;
+        }
+
+        public double getP999Millis() {
+            return p999Nanos / 1_000_000.0;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return "OperationStats{" +
+                    "name='" + name + '\'' +
+                    ", calls=" + calls +
+                    ", errors=" + errors +
+                    ", rows=" + rows +
+                    ", meanMs=" + String.format("%.3f", getMeanMillis()) +
+                    ", p50Ms=" + String.format("%.3f", getP50Millis()) +
+                    ", p99Ms=" + String.format("%.3f", getP99Millis()) +
+                    ", p999Ms=" + String.format("%.3f", getP999Millis()) +
+                    ", maxMs=" + String.format("%.3f", getMaxMillis()) +
+                    '}';
+        }
+    }
+
+    private static final class Jmx implements DaoMetricsMXBean {
+        @Override
+        public List<OperationStats> getOperations() {
+            return getStats();
+        }
+
+        @Override
+        public long getSlowQueryThresholdMillis() {
+            return DaoMetrics.getSlowQueryThresholdMillis();
+        }
+
+        @Override
+        public void setSlowQueryThresholdMillis(long thresholdMillis) {
+            DaoMetrics.setSlowQueryThresholdMillis(thresholdMillis);
+        }
+
+        @Override
+        public String dump() {
+            return report();
+        }
+
+        @Override
+        public void reset() {
+            DaoMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package util;
+
+import java.util.List;
+
+/**
+ * JMX view of the DAO instrumentation, registered as payroll:type=DaoMetrics
+ */
+public interface DaoMetricsMXBean {
+
+    /**
+     * Latency, call and row counters of every instrumented operation
+     */
+    List<DaoMetrics.OperationStats> getOperations();
+
+    long getSlowQueryThresholdMillis();
+
+    /**
+     * Calls slower than this are logged to System.err; 0 disables the slow-query log
+     */
+    void setSlowQueryThresholdMillis(long thresholdMillis);
+
+    /**
+     * The same report the CLI prints
+     */
+    String dump();
+
+    void reset();
+}
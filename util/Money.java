@@ -0,0 +1,130 @@
+package util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money as a long number of paise (1 rupee = 100 paise), and the arithmetic payroll needs on it.
+ * Sums and differences are plain long arithmetic and exact. Percentages are given in
+ * micro-percent (12% = 12,000,000) so configured rates like 0.05% are exact too; a percentage
+ * of an amount is rounded once, half away from zero, to whole paise.
+ * BigDecimal is used only to read and write DECIMAL(12,2) columns and to parse or print amounts.
+ */
+public final class Money {
+
+    public static final long PAISE_PER_RUPEE = 100;
+    /** Micro-percent in one percent */
+    public static final long MICROS_PER_PERCENT = 1_000_000;
+    // amount * rate in micro-percent / PERCENT_DIVISOR = share of the amount in paise
+    private static final long PERCENT_DIVISOR = 100 * MICROS_PER_PERCENT;
+    private static final BigDecimal PERCENT_DIVISOR_DECIMAL = BigDecimal.valueOf(PERCENT_DIVISOR);
+
+    private Money() {
+    }
+
+    /**
+     * A whole number of rupees in paise
+     */
+    public static long ofRupees(long rupees) {
+        return Math.multiplyExact(rupees, PAISE_PER_RUPEE);
+    }
+
+    /**
+     * Parse an amount in rupees such as "1250", "1250.5" or "1250.50" into paise.
+     * More than two (non-zero) decimals is an error rather than being rounded away.
+     *
+     * @throws NumberFormatException if the text is not such an amount
+     */
+    public static long parse(String rupees) {
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(rupees.trim());
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Not an amount: " + rupees);
+        }
+        try {
+            return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amounts have at most two decimals and fit in a DECIMAL(12,2): " + rupees);
+        }
+    }
+
+    /**
+     * Paise from a DECIMAL column value (rounded half up to two decimals); null, as from
+     * SUM over no rows, is zero
+     */
+    public static long fromDecimal(BigDecimal rupees) {
+        if (rupees == null) {
+            return 0;
+        }
+        return rupees.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Rupees with two decimals, for a DECIMAL column or for display
+     */
+    public static BigDecimal toDecimal(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    /**
+     * The amount in rupees with two decimals, as String.format("%.2f") prints it in the default locale
+     */
+    public static String format(long paise) {
+        return String.format("%.2f", toDecimal(paise));
+    }
+
+    /**
+     * Parse a percentage such as "12" or "0.05" into micro-percent
+     *
+     * @throws NumberFormatException if the text is not a number or has more than six decimals
+     */
+    public static long parsePercent(String percent) {
+        try {
+            return new BigDecimal(percent.trim()).movePointRight(6).setScale(0, RoundingMode.UNNECESSARY).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Percentages have at most six decimals: " + percent);
+        }
+    }
+
+    /**
+     * A percentage in micro-percent, rounded to the nearest micro-percent
+     */
+    public static long percentMicros(double percent) {
+        return Math.round(percent * MICROS_PER_PERCENT);
+    }
+
+    /**
+     * percentMicros percent of the amount, rounded half away from zero to whole paise
+     */
+    public static long percentOf(long paise, long percentMicros) {
+        long product;
+        try {
+            product = Math.multiplyExact(paise, percentMicros);
+        } catch (ArithmeticException e) {
+            // Only for amounts beyond about 9 crore rupees at 100%
+            return BigDecimal.valueOf(paise).multiply(BigDecimal.valueOf(percentMicros))
+                    .divide(PERCENT_DIVISOR_DECIMAL, 0, RoundingMode.HALF_UP).longValueExact();
+        }
+        return divideRounded(product, PERCENT_DIVISOR);
+    }
+
+    /**
+     * A sum of amount * micro-percent products (see percentOf) rounded to whole paise
+     */
+    public static long fromPercentProducts(long products) {
+        return divideRounded(products, PERCENT_DIVISOR);
+    }
+
+    /**
+     * numerator / divisor rounded half away from zero; divisor must be positive
+     */
+    private static long divideRounded(long numerator, long divisor) {
+        long quotient = numerator / divisor;
+        long remainder = numerator % divisor;
+        if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += Long.signum(numerator);
+        }
+        return quotient;
+    }
+}
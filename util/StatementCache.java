@@ -0,0 +1,246 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prepared statements of one pooled connection, kept open between leases.
+ * prepareStatement on a lease checks a statement out of the cache (or prepares it on a miss)
+ * and close() on the returned handle checks it back in, so the SQL is parsed - and with
+ * server-side prepares, planned by MySQL - once per physical connection instead of once per call.
+ * The least recently used statement is closed once more than maxSize are cached.
+ */
+final class StatementCache {
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder EVICTIONS = new LongAdder();
+
+    private final Connection physical;
+    private final int maxSize;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    StatementCache(Connection physical, int maxSize) {
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > StatementCache.this.maxSize) {
+                    EVICTIONS.increment();
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Whether a Connection method is one of the prepareStatement overloads served from the cache:
+     * (sql), (sql, autoGeneratedKeys) and (sql, resultSetType, resultSetConcurrency)
+     */
+    static boolean isCacheable(Method method) {
+        if (!method.getName().equals("prepareStatement")) {
+            return false;
+        }
+        Class<?>[] types = method.getParameterTypes();
+        for (int i = 1; i < types.length; i++) {
+            if (types[i] != int.class) {
+                return false;
+            }
+        }
+        return types.length <= 3;
+    }
+
+    /**
+     * Check out a statement for the arguments of a prepareStatement call
+     */
+    PreparedStatement prepare(Method method, Object[] args) throws Throwable {
+        String key = key(args);
+        PreparedStatement statement;
+        synchronized (statements) {
+            statement = statements.remove(key);
+        }
+        if (statement != null) {
+            HITS.increment();
+        } else {
+            MISSES.increment();
+            try {
+                statement = (PreparedStatement) method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, new CachedStatement(this, key, statement));
+    }
+
+    /**
+     * Return a statement once its caller has closed it; a statement that cannot be reset is closed instead
+     */
+    private void checkIn(String key, PreparedStatement statement, boolean reset) {
+        if (!reset) {
+            closeQuietly(statement);
+            return;
+        }
+        PreparedStatement displaced;
+        synchronized (statements) {
+            displaced = statements.put(key, statement);
+        }
+        // The same SQL was checked out twice at once; keep only one copy
+        if (displaced != null && displaced != statement) {
+            closeQuietly(displaced);
+        }
+    }
+
+    /**
+     * Close every cached statement, as when the physical connection is discarded
+     */
+    void clear() {
+        List<PreparedStatement> closing;
+        synchronized (statements) {
+            closing = new ArrayList<>(statements.values());
+            statements.clear();
+        }
+        for (PreparedStatement statement : closing) {
+            closeQuietly(statement);
+        }
+    }
+
+    static long getHits() {
+        return HITS.sum();
+    }
+
+    static long getMisses() {
+        return MISSES.sum();
+    }
+
+    static long getEvictions() {
+        return EVICTIONS.sum();
+    }
+
+    private static String key(Object[] args) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 1; i < args.length; i++) {
+            key.append(args[i]).append(':');
+        }
+        return key.append(args[0]).toString();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Handle given to callers for one checkout; close() resets the statement and returns it to the cache
+     */
+    private static final class CachedStatement implements InvocationHandler {
+        private final StatementCache cache;
+        private final String key;
+        private final PreparedStatement statement;
+        private ResultSet results;
+        private boolean batched;
+        private boolean settingsChanged;
+        private boolean closed;
+
+        private CachedStatement(StatementCache cache, String key, PreparedStatement statement) {
+            this.cache = cache;
+            this.key = key;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cache.checkIn(key, statement, reset());
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || statement.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + statement + (closed ? ", returned]" : "]");
+                case "addBatch":
+                    batched = true;
+                    break;
+                case "setFetchSize":
+                case "setFetchDirection":
+                case "setMaxRows":
+                case "setLargeMaxRows":
+                case "setMaxFieldSize":
+                case "setQueryTimeout":
+                case "setEscapeProcessing":
+                    settingsChanged = true;
+                    break;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+            Object result;
+            try {
+                result = method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet && !method.getName().equals("getGeneratedKeys")) {
+                // Callers often leave query results to be closed with the statement
+                results = (ResultSet) result;
+            }
+            return result;
+        }
+
+        /**
+         * Put the statement back in the state prepareStatement returns it in
+         */
+        private boolean reset() {
+            try {
+                if (statement.isClosed()) {
+                    return false;
+                }
+                if (results != null) {
+                    results.close();
+                }
+                statement.clearParameters();
+                if (batched) {
+                    statement.clearBatch();
+                }
+                if (settingsChanged) {
+                    statement.setFetchSize(0);
+                    statement.setFetchDirection(ResultSet.FETCH_FORWARD);
+                    statement.setMaxRows(0);
+                    statement.setMaxFieldSize(0);
+                    statement.setQueryTimeout(0);
+                    statement.setEscapeProcessing(true);
+                }
+                statement.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+    }
+}